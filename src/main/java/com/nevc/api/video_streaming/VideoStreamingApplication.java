@@ -3,7 +3,9 @@ package com.nevc.api.video_streaming;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @EnableJpaRepositories
 @SpringBootApplication
 public class VideoStreamingApplication {
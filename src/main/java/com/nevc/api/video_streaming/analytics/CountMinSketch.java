@@ -0,0 +1,59 @@
+package com.nevc.api.video_streaming.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch of long keys: {@code depth} rows of {@code width} counters, each key counted once per row. An
+ * estimate is the smallest of its counters, it is never below the true count and exceeds it by at most
+ * {@code e / width} of the total with probability {@code 1 - e^-depth}. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private static final long[] SEEDS = {0x9e3779b97f4a7c15L, 0xbf58476d1ce4e5b9L, 0x94d049bb133111ebL,
+            0xd6e8feb86659fd93L, 0xa0761d6478bd642fL, 0xe7037ed1a0b428dbL, 0x8ebc6af09c88c6e3L, 0x589965cc75374cc3L};
+
+    private final int depth;
+    private final int widthMask;
+    private final long[] counters;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > SEEDS.length || width < 1) {
+            throw new IllegalArgumentException("Count-Min sketch depth must be 1-" + SEEDS.length + " and width positive");
+        }
+        this.depth = depth;
+        int roundedWidth = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.widthMask = roundedWidth - 1;
+        this.counters = new long[depth * roundedWidth];
+    }
+
+    /**
+     * Adds to the count of a key and returns its new estimate.
+     */
+    public long add(long key, long count) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(key, row);
+            counters[index] += count;
+            estimate = Math.min(estimate, counters[index]);
+        }
+        return estimate;
+    }
+
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[index(key, row)]);
+        }
+        return estimate;
+    }
+
+    public void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    private int index(long key, int row) {
+        long hash = (key ^ SEEDS[row]) * 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 32;
+        return row * (widthMask + 1) + ((int) hash & widthMask);
+    }
+}
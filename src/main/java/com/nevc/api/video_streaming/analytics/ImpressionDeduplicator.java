@@ -0,0 +1,110 @@
+package com.nevc.api.video_streaming.analytics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drops repeated impressions of the same video by the same user within {@code video.analytics.impressions.dedupeWindow}
+ * before they are queued.
+ * <p>
+ * Time is cut into buckets as long as the window. The current and the previous bucket each map a (user, video) pair
+ * to the time its impression was accepted, so an impression is a repeat when either bucket holds a time less than
+ * the window ago. Lookups and inserts are lock-free, and moving to the next bucket swaps both maps with one
+ * compare-and-set, which also discards every pair older than the window. A zero window disables deduplication.
+ */
+@Component
+public class ImpressionDeduplicator implements MeterBinder {
+
+    private final Clock clock;
+    private final long windowMillis;
+    private final AtomicReference<Buckets> buckets;
+    private final LongAdder duplicates = new LongAdder();
+
+    @Autowired
+    public ImpressionDeduplicator(@Value("${video.analytics.impressions.dedupeWindow:30s}") Duration window) {
+        this(Clock.systemUTC(), window);
+    }
+
+    ImpressionDeduplicator(Clock clock, Duration window) {
+        this.clock = clock;
+        this.windowMillis = window.toMillis();
+        this.buckets = new AtomicReference<>(new Buckets(Long.MIN_VALUE, new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Returns {@code true} when the impression should be recorded, {@code false} when the user already had an
+     * impression of the video within the window.
+     */
+    public boolean accept(long userId, long videoId) {
+        if (windowMillis <= 0) {
+            return true;
+        }
+        long now = clock.millis();
+        Buckets current = bucketsAt(now / windowMillis);
+        ViewerVideo key = new ViewerVideo(userId, videoId);
+        Long previous = current.previous.get(key);
+        if (previous != null && now - previous < windowMillis) {
+            duplicates.increment();
+            return false;
+        }
+        if (current.current.putIfAbsent(key, now) != null) {
+            duplicates.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private Buckets bucketsAt(long epoch) {
+        while (true) {
+            Buckets current = buckets.get();
+            if (current.epoch >= epoch) {
+                return current;
+            }
+            ConcurrentMap<ViewerVideo, Long> previous = current.epoch == epoch - 1 ? current.current : new ConcurrentHashMap<>();
+            Buckets next = new Buckets(epoch, new ConcurrentHashMap<>(), previous);
+            if (buckets.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("video.analytics.impressions.deduplicated", duplicates, LongAdder::sum)
+                .description("Impressions dropped as repeats within the deduplication window")
+                .register(registry);
+        Gauge.builder("video.analytics.impressions.tracked", buckets, b -> b.get().current.size() + b.get().previous.size())
+                .description("User and video pairs remembered for impression deduplication")
+                .register(registry);
+    }
+
+    @RequiredArgsConstructor
+    private static class Buckets {
+        private final long epoch;
+        private final ConcurrentMap<ViewerVideo, Long> current;
+        private final ConcurrentMap<ViewerVideo, Long> previous;
+    }
+
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class ViewerVideo {
+        private final long userId;
+        private final long videoId;
+    }
+}
@@ -0,0 +1,190 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.dto.TrendingVideoDTO;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Ranks videos by recent plays and impressions entirely in memory.
+ * <p>
+ * Time is cut into slots of {@code video.analytics.trending.slotDuration} kept in a ring of
+ * {@code video.analytics.trending.slots}. Each slot counts weighted events in a {@link CountMinSketch} and keeps its
+ * {@code topK} heaviest videos in a min-heap, so a slot costs the same memory however many titles are played. A
+ * window is ranked by summing the sketch estimates of every slot in it for the union of their top videos. Rankings
+ * are reused for {@code video.analytics.trending.refreshInterval}, repeated requests are answered from that copy.
+ */
+@Component
+public class TrendingTracker {
+
+    private final Clock clock;
+    private final long slotMillis;
+    private final int topK;
+    private final int viewWeight;
+    private final int impressionWeight;
+    private final long refreshMillis;
+    private final Slot[] ring;
+    private final ConcurrentMap<Integer, Ranking> rankings = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TrendingTracker(@Value("${video.analytics.trending.slotDuration:5m}") Duration slotDuration,
+                           @Value("${video.analytics.trending.slots:288}") int slots,
+                           @Value("${video.analytics.trending.topK:100}") int topK,
+                           @Value("${video.analytics.trending.sketchWidth:1024}") int sketchWidth,
+                           @Value("${video.analytics.trending.viewWeight:3}") int viewWeight,
+                           @Value("${video.analytics.trending.impressionWeight:1}") int impressionWeight,
+                           @Value("${video.analytics.trending.refreshInterval:1s}") Duration refreshInterval) {
+        this(Clock.systemUTC(), slotDuration, slots, topK, sketchWidth, viewWeight, impressionWeight, refreshInterval);
+    }
+
+    TrendingTracker(Clock clock, Duration slotDuration, int slots, int topK, int sketchWidth,
+                    int viewWeight, int impressionWeight, Duration refreshInterval) {
+        this.clock = clock;
+        this.slotMillis = slotDuration.toMillis();
+        this.topK = topK;
+        this.viewWeight = viewWeight;
+        this.impressionWeight = impressionWeight;
+        this.refreshMillis = refreshInterval.toMillis();
+        this.ring = new Slot[slots];
+        for (int i = 0; i < slots; i++) {
+            ring[i] = new Slot(new CountMinSketch(4, sketchWidth));
+        }
+    }
+
+    public Duration getMaxWindow() {
+        return Duration.ofMillis(slotMillis * ring.length);
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void record(VideoEvent event) {
+        long epoch = clock.millis() / slotMillis;
+        long weight = event.getType() == VideoEventType.VIEW ? viewWeight : impressionWeight;
+        Slot slot = ring[(int) (epoch % ring.length)];
+        synchronized (slot) {
+            if (slot.epoch != epoch) {
+                slot.reset(epoch);
+            }
+            slot.add(event.getVideoId(), weight, topK);
+        }
+    }
+
+    /**
+     * The highest ranked videos of the last {@code window}, rounded up to whole slots.
+     */
+    public List<TrendingVideoDTO> trending(Duration window, int limit) {
+        int slotCount = (int) Math.min(ring.length, Math.max(1, (window.toMillis() + slotMillis - 1) / slotMillis));
+        long now = clock.millis();
+        Ranking ranking = rankings.get(slotCount);
+        if (ranking == null || now - ranking.getComputedAt() >= refreshMillis) {
+            ranking = new Ranking(now, rank(now / slotMillis, slotCount));
+            rankings.put(slotCount, ranking);
+        }
+        List<TrendingVideoDTO> videos = ranking.getVideos();
+        return videos.subList(0, Math.min(limit, videos.size()));
+    }
+
+    private List<TrendingVideoDTO> rank(long currentEpoch, int slotCount) {
+        Set<Long> candidates = new HashSet<>();
+        for (long epoch = currentEpoch - slotCount + 1; epoch <= currentEpoch; epoch++) {
+            Slot slot = ring[(int) (epoch % ring.length)];
+            synchronized (slot) {
+                if (slot.epoch == epoch) {
+                    candidates.addAll(slot.candidates.keySet());
+                }
+            }
+        }
+        Map<Long, Long> scores = new HashMap<>();
+        for (long epoch = currentEpoch - slotCount + 1; epoch <= currentEpoch; epoch++) {
+            Slot slot = ring[(int) (epoch % ring.length)];
+            synchronized (slot) {
+                if (slot.epoch == epoch) {
+                    for (Long videoId : candidates) {
+                        scores.merge(videoId, slot.sketch.estimate(videoId), Long::sum);
+                    }
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .filter(score -> score.getValue() > 0)
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(topK)
+                .map(score -> new TrendingVideoDTO(score.getKey(), score.getValue()))
+                .toList();
+    }
+
+    private static class Slot {
+        private final CountMinSketch sketch;
+        private final Map<Long, Candidate> candidates = new HashMap<>();
+        private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingLong(Candidate::getScore));
+        private long epoch = -1;
+
+        Slot(CountMinSketch sketch) {
+            this.sketch = sketch;
+        }
+
+        void reset(long newEpoch) {
+            sketch.clear();
+            candidates.clear();
+            heap.clear();
+            epoch = newEpoch;
+        }
+
+        void add(long videoId, long weight, int topK) {
+            long score = sketch.add(videoId, weight);
+            Candidate candidate = candidates.get(videoId);
+            if (candidate != null) {
+                heap.remove(candidate);
+                candidate.score = score;
+                heap.add(candidate);
+            } else if (heap.size() < topK) {
+                candidate = new Candidate(videoId, score);
+                candidates.put(videoId, candidate);
+                heap.add(candidate);
+            } else if (heap.peek().score < score) {
+                candidates.remove(heap.poll().videoId);
+                candidate = new Candidate(videoId, score);
+                candidates.put(videoId, candidate);
+                heap.add(candidate);
+            }
+        }
+    }
+
+    @Getter
+    private static class Candidate {
+        private final long videoId;
+        private long score;
+
+        Candidate(long videoId, long score) {
+            this.videoId = videoId;
+            this.score = score;
+        }
+    }
+
+    @Getter
+    private static class Ranking {
+        private final long computedAt;
+        private final List<TrendingVideoDTO> videos;
+
+        Ranking(long computedAt, List<TrendingVideoDTO> videos) {
+            this.computedAt = computedAt;
+            this.videos = videos;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.entities.VideoUniqueViewers;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import com.nevc.api.video_streaming.repositories.VideoUniqueViewersRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counts the distinct viewers of each video per day with {@link HyperLogLog} sketches.
+ * <p>
+ * Views are added to in-memory sketches as they are written. Every {@code video.analytics.uniqueViewers.persistInterval}
+ * each pending sketch is merged into the row of its video and day under a row lock, so nodes never overwrite each
+ * other's viewers. Adding the same view twice does not change a sketch, which makes journal replays harmless.
+ * Estimates over a date range merge the stored daily sketches with those not persisted yet.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UniqueViewerCounter implements MeterBinder {
+
+    private final VideoUniqueViewersRepository videoUniqueViewersRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<ViewerDay, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    public void add(List<VideoEvent> events) {
+        for (VideoEvent event : events) {
+            if (event.getType() == VideoEventType.VIEW) {
+                ViewerDay key = new ViewerDay(event.getVideoId(), event.getTimestamp().toLocalDate());
+                pending.compute(key, (day, sketch) -> {
+                    HyperLogLog result = sketch != null ? sketch : new HyperLogLog();
+                    result.add(event.getUserId());
+                    return result;
+                });
+            }
+        }
+    }
+
+    public long estimate(long videoId, LocalDate from, LocalDate to) {
+        HyperLogLog total = new HyperLogLog();
+        for (VideoUniqueViewers row : videoUniqueViewersRepository.findByVideoIdAndDayBetween(videoId, from, to)) {
+            total.merge(HyperLogLog.fromBytes(row.getRegisters()));
+        }
+        for (ViewerDay key : pending.keySet()) {
+            if (key.getVideoId() == videoId && !key.getDay().isBefore(from) && !key.getDay().isAfter(to)) {
+                pending.computeIfPresent(key, (day, sketch) -> {
+                    total.merge(sketch);
+                    return sketch;
+                });
+            }
+        }
+        return total.estimate();
+    }
+
+    /**
+     * Merges the pending sketches into the database. A sketch that fails to persist is merged back and retried on
+     * the next run.
+     */
+    @Scheduled(fixedDelayString = "${video.analytics.uniqueViewers.persistInterval:1m}")
+    @PreDestroy
+    public void persist() {
+        for (ViewerDay key : pending.keySet()) {
+            HyperLogLog sketch = pending.remove(key);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> save(key, sketch));
+            } catch (RuntimeException e) {
+                pending.merge(key, sketch, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                });
+                log.warn("Failed to persist unique viewers of video id {} on {}: {}", key.getVideoId(), key.getDay(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void save(ViewerDay key, HyperLogLog sketch) {
+        VideoUniqueViewers row = videoUniqueViewersRepository.findByVideoIdAndDay(key.getVideoId(), key.getDay())
+                .orElseGet(() -> VideoUniqueViewers.builder().videoId(key.getVideoId()).day(key.getDay()).build());
+        if (row.getRegisters() != null) {
+            sketch.merge(HyperLogLog.fromBytes(row.getRegisters()));
+        }
+        row.setRegisters(sketch.toBytes());
+        videoUniqueViewersRepository.save(row);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("video.analytics.sketches.pending", pending, ConcurrentMap::size)
+                .description("Daily unique viewer sketches not yet merged into the database")
+                .register(registry);
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    static class ViewerDay {
+        private final long videoId;
+        private final LocalDate day;
+    }
+}
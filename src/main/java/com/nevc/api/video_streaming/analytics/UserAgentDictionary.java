@@ -0,0 +1,102 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.entities.UserAgent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interns User-Agent strings in the {@code user_agents} table and caches their ids, so that event writes only carry
+ * the id. A few thousand distinct agents cover nearly all traffic; when the cache grows past
+ * {@code video.analytics.userAgents.cacheSize} it is cleared and refilled from the table on demand. Readers join
+ * the table, which is small enough to stay in the buffer pool.
+ */
+@Slf4j
+@Component
+public class UserAgentDictionary implements MeterBinder {
+
+    private static final String INSERT = "INSERT IGNORE INTO user_agents (user_agent) VALUES (?)";
+    private static final String SELECT_IDS = "SELECT id, user_agent FROM user_agents WHERE user_agent IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int cacheSize;
+    private final ConcurrentMap<String, Long> ids = new ConcurrentHashMap<>();
+
+    public UserAgentDictionary(JdbcTemplate jdbcTemplate,
+                               @Value("${video.analytics.userAgents.cacheSize:10000}") int cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Returns the ids of the given agents, inserting the unknown ones. Runs in its own transaction so that an id is
+     * only cached once its row is committed, whatever happens to the caller's transaction.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<String, Long> resolve(Collection<String> userAgents) {
+        Map<String, Long> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String userAgent : userAgents) {
+            if (userAgent == null) {
+                continue;
+            }
+            Long id = ids.get(normalize(userAgent));
+            if (id != null) {
+                resolved.put(userAgent, id);
+            } else {
+                missing.add(userAgent);
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+        List<String> normalized = missing.stream().map(UserAgentDictionary::normalize).distinct().toList();
+        jdbcTemplate.batchUpdate(INSERT, normalized, normalized.size(), (statement, value) -> statement.setString(1, value));
+        Map<String, Long> stored = new HashMap<>();
+        jdbcTemplate.query(String.format(SELECT_IDS, String.join(",", Collections.nCopies(normalized.size(), "?"))),
+                resultSet -> {
+                    stored.put(resultSet.getString(2), resultSet.getLong(1));
+                }, normalized.toArray());
+        if (ids.size() + stored.size() > cacheSize) {
+            log.debug("User agent cache reached {} entries, clearing it", ids.size());
+            ids.clear();
+        }
+        ids.putAll(stored);
+        for (String userAgent : missing) {
+            Long id = stored.get(normalize(userAgent));
+            if (id != null) {
+                resolved.put(userAgent, id);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Agents longer than the column are cut, the table is only meant for grouping and display.
+     */
+    private static String normalize(String userAgent) {
+        return userAgent.length() > UserAgent.MAX_LENGTH ? userAgent.substring(0, UserAgent.MAX_LENGTH) : userAgent;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("video.analytics.useragents.cached", ids, Map::size)
+                .description("User agents held in the in-memory dictionary")
+                .register(registry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * An impression or view waiting to be written to {@code videos_impressions} or {@code videos_views}.
+ * Only ids are kept so that queued events hold no entities.
+ */
+@Getter
+@Builder
+@ToString
+@EqualsAndHashCode
+public class VideoEvent {
+    private final VideoEventType type;
+    private final long videoId;
+    private final long userId;
+    private final LocalDateTime timestamp;
+    private final String userIp;
+    private final String userAgent;
+}
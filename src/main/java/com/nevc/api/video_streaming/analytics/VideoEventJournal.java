@@ -0,0 +1,377 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal on local disk for analytics events that could not be written to the database, either
+ * because the queue was full or because the insert failed.
+ * <p>
+ * The journal is a sequence of memory-mapped segment files of {@code video.analytics.journal.segmentSize}. A segment
+ * starts with the offset up to which it has been replayed, followed by records of {@code [length][crc32][payload]}.
+ * A zero length marks the end of the written part. The replayer moves sealed segments into the database in batches,
+ * advancing the offset after each batch so that a failure half-way resumes after the last written batch, and deletes
+ * a segment once it has been replayed completely. Delivery is at least once: a crash after a batch has been committed
+ * but before its offset reaches the disk writes that batch again on the next replay.
+ * <p>
+ * A record whose CRC does not match is counted and skipped, its length has been checked so the records after it are
+ * still read. A record whose length is negative or runs past the end of the segment leaves nothing to resync on, the
+ * segment is then kept as {@code <segment>.corrupt} once the records before it have been replayed.
+ * <p>
+ * A batch rejected because of its data rather than because the database is unavailable is written again one event at
+ * a time, and the events the database still rejects are appended to {@code dead-letters.journal} in the same record
+ * format, so one bad event cannot hold back its segment forever.
+ */
+@Slf4j
+@Component
+public class VideoEventJournal implements MeterBinder {
+
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final String DEAD_LETTER_FILE = "dead-letters.journal";
+    private static final int SEGMENT_HEADER_SIZE = Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final VideoEventWriter videoEventWriter;
+    private final Path directory;
+    private final int segmentSize;
+    private final int replayBatchSize;
+
+    private long nextSequence;
+    private Path activeSegment;
+    private MappedByteBuffer active;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder corrupted = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    public VideoEventJournal(VideoEventWriter videoEventWriter,
+                             @Value("${video.analytics.journal.path:journal/}") String directory,
+                             @Value("${video.analytics.journal.segmentSize:16MB}") DataSize segmentSize,
+                             @Value("${video.analytics.batchSize:500}") int replayBatchSize) {
+        this.videoEventWriter = videoEventWriter;
+        this.directory = Paths.get(directory);
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.replayBatchSize = replayBatchSize;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments();
+        nextSequence = segments.isEmpty() ? 0 : sequenceOf(segments.getLast()) + 1;
+        if (!segments.isEmpty()) {
+            log.info("Found {} analytics journal segments to replay in {}", segments.size(), directory.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Appends events to the active segment, opening a new one when it is full. The records reach the page cache
+     * immediately; call {@link #force()} to have them written to the device.
+     */
+    public synchronized void append(List<VideoEvent> events) throws IOException {
+        for (VideoEvent event : events) {
+            byte[] payload = encode(event);
+            int recordSize = RECORD_HEADER_SIZE + payload.length;
+            if (recordSize > segmentSize - SEGMENT_HEADER_SIZE - Integer.BYTES) {
+                throw new IOException("Event of " + recordSize + " bytes does not fit in a journal segment");
+            }
+            // Keep room for the zero length that ends the segment
+            if (active == null || active.remaining() < recordSize + Integer.BYTES) {
+                openSegment();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            active.putInt(active.position() + Integer.BYTES, (int) crc.getValue());
+            active.put(active.position() + RECORD_HEADER_SIZE, payload);
+            // The length goes last, so a record is only visible once it is complete
+            active.putInt(active.position(), payload.length);
+            active.position(active.position() + recordSize);
+        }
+        appended.add(events.size());
+    }
+
+    public synchronized void force() {
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    /**
+     * Moves journaled events into the database. Stops at the first failure, the remaining segments are retried on
+     * the next run.
+     */
+    @Scheduled(fixedDelayString = "${video.analytics.journal.replayInterval:10s}")
+    public void replay() {
+        List<Path> segments;
+        synchronized (this) {
+            if (active != null && active.position() > SEGMENT_HEADER_SIZE) {
+                active.force();
+                active = null;
+                activeSegment = null;
+            }
+            try {
+                segments = listSegments();
+            } catch (IOException e) {
+                log.error("Failed to list analytics journal segments: {}", e.getMessage());
+                return;
+            }
+            segments.remove(activeSegment);
+        }
+        for (Path segment : segments) {
+            try {
+                replaySegment(segment);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Replay of analytics journal segment {} stopped: {}", segment.getFileName(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void replaySegment(Path segment) throws IOException {
+        int corruptAt = -1;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int position = (int) buffer.getLong(0);
+            List<VideoEvent> batch = new ArrayList<>(replayBatchSize);
+            List<Integer> batchEnds = new ArrayList<>(replayBatchSize);
+            boolean endOfSegment = false;
+            while (!endOfSegment) {
+                int length = position + RECORD_HEADER_SIZE <= buffer.limit() ? buffer.getInt(position) : 0;
+                if (length == 0) {
+                    endOfSegment = true;
+                } else if (length < 0 || length > buffer.limit() - position - RECORD_HEADER_SIZE) {
+                    corrupted.increment();
+                    log.error("Record of {} bytes at offset {} does not fit in analytics journal segment {}", length,
+                            position, segment.getFileName());
+                    corruptAt = position;
+                    endOfSegment = true;
+                } else {
+                    byte[] payload = new byte[length];
+                    buffer.get(position + RECORD_HEADER_SIZE, payload);
+                    CRC32 crc = new CRC32();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                        corrupted.increment();
+                        log.error("CRC mismatch at offset {} of analytics journal segment {}, skipping the record",
+                                position, segment.getFileName());
+                        position += RECORD_HEADER_SIZE + length;
+                    } else {
+                        batch.add(decode(payload));
+                        position += RECORD_HEADER_SIZE + length;
+                        batchEnds.add(position);
+                    }
+                }
+                if (!batch.isEmpty() && (endOfSegment || batch.size() >= replayBatchSize)) {
+                    try {
+                        videoEventWriter.write(batch);
+                        replayed.add(batch.size());
+                    } catch (NonTransientDataAccessException e) {
+                        if (!isDataError(e)) {
+                            throw e;
+                        }
+                        log.warn("Analytics journal segment {} has a batch the database rejects, writing its {} events "
+                                + "one at a time: {}", segment.getFileName(), batch.size(), e.getMessage());
+                        replayOneByOne(buffer, batch, batchEnds);
+                    }
+                    buffer.putLong(0, position);
+                    buffer.force();
+                    batch = new ArrayList<>(replayBatchSize);
+                    batchEnds = new ArrayList<>(replayBatchSize);
+                }
+            }
+        }
+        if (corruptAt >= 0) {
+            Path kept = segment.resolveSibling(segment.getFileName() + CORRUPT_SUFFIX);
+            Files.move(segment, kept);
+            log.error("Kept analytics journal segment {} as {}, its records from offset {} could not be read",
+                    segment.getFileName(), kept.getFileName(), corruptAt);
+            return;
+        }
+        Files.delete(segment);
+        log.info("Replayed analytics journal segment {}", segment.getFileName());
+    }
+
+    /**
+     * Writes the events of a rejected batch separately, advancing the offset after each one so that a failure of the
+     * database half-way resumes after the last written event.
+     */
+    private void replayOneByOne(MappedByteBuffer buffer, List<VideoEvent> batch, List<Integer> batchEnds)
+            throws IOException {
+        for (int i = 0; i < batch.size(); i++) {
+            VideoEvent event = batch.get(i);
+            try {
+                videoEventWriter.write(List.of(event));
+                replayed.increment();
+            } catch (NonTransientDataAccessException e) {
+                if (!isDataError(e)) {
+                    throw e;
+                }
+                deadLetter(event, e);
+            }
+            buffer.putLong(0, batchEnds.get(i));
+            buffer.force();
+        }
+    }
+
+    /**
+     * Whether the database rejected the data itself. An unavailable database or a schema that does not match the
+     * inserts is not, the events are kept for a later replay.
+     */
+    private static boolean isDataError(NonTransientDataAccessException e) {
+        return !(e instanceof NonTransientDataAccessResourceException)
+                && !(e instanceof InvalidDataAccessResourceUsageException);
+    }
+
+    private void deadLetter(VideoEvent event, RuntimeException cause) throws IOException {
+        byte[] payload = encode(event);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        try (FileChannel channel = FileChannel.open(directory.resolve(DEAD_LETTER_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+        }
+        deadLettered.increment();
+        log.error("Moved {} event for video id: {} to {}, the database rejects it: {}", event.getType(),
+                event.getVideoId(), DEAD_LETTER_FILE, cause.getMessage());
+    }
+
+    private void openSegment() throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence++, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        active.putLong(0, SEGMENT_HEADER_SIZE);
+        active.position(SEGMENT_HEADER_SIZE);
+        activeSegment = segment;
+        log.info("Opened analytics journal segment {}", segment.getFileName());
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static byte[] encode(VideoEvent event) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(event.getType().ordinal());
+            out.writeLong(event.getVideoId());
+            out.writeLong(event.getUserId());
+            out.writeLong(event.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(event.getTimestamp().getNano());
+            writeNullable(out, event.getUserIp());
+            writeNullable(out, event.getUserAgent());
+        }
+        return bytes.toByteArray();
+    }
+
+    static VideoEvent decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return VideoEvent.builder()
+                    .type(VideoEventType.values()[in.readUnsignedByte()])
+                    .videoId(in.readLong())
+                    .userId(in.readLong())
+                    .timestamp(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC))
+                    .userIp(readNullable(in))
+                    .userAgent(readNullable(in))
+                    .build();
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("video.analytics.journal.records", appended, LongAdder::sum)
+                .tag("result", "appended")
+                .description("Analytics events written to the local journal")
+                .register(registry);
+        FunctionCounter.builder("video.analytics.journal.records", replayed, LongAdder::sum)
+                .tag("result", "replayed")
+                .description("Journaled analytics events moved into the database")
+                .register(registry);
+        FunctionCounter.builder("video.analytics.journal.records", corrupted, LongAdder::sum)
+                .tag("result", "corrupted")
+                .description("Journal records skipped because their CRC or length did not match")
+                .register(registry);
+        FunctionCounter.builder("video.analytics.journal.records", deadLettered, LongAdder::sum)
+                .tag("result", "dead-lettered")
+                .description("Journaled analytics events the database rejects, moved to the dead letter file")
+                .register(registry);
+        Gauge.builder("video.analytics.journal.segments", this, journal -> {
+                    try {
+                        return journal.listSegments().size();
+                    } catch (IOException e) {
+                        return Double.NaN;
+                    }
+                })
+                .description("Journal segment files waiting to be replayed")
+                .register(registry);
+    }
+}
@@ -0,0 +1,193 @@
+package com.nevc.api.video_streaming.analytics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded queue of analytics events drained by a background thread, so that requests never wait on an insert.
+ * <p>
+ * Events are written in batches of {@code video.analytics.batchSize}, or whatever has arrived after
+ * {@code video.analytics.flushInterval}. When the queue is full a request waits at most
+ * {@code video.analytics.offerTimeout} for room, after that the event goes to the {@link VideoEventJournal}.
+ * Batches that fail to insert are journaled as well, and only events the journal cannot take either are dropped.
+ * The queue is drained and flushed on shutdown.
+ */
+@Slf4j
+@Component
+public class VideoEventQueue implements MeterBinder {
+
+    private final VideoEventWriter videoEventWriter;
+    private final VideoEventJournal videoEventJournal;
+    private final BlockingQueue<VideoEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder journaled = new LongAdder();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public VideoEventQueue(VideoEventWriter videoEventWriter,
+                           VideoEventJournal videoEventJournal,
+                           @Value("${video.analytics.queueCapacity:10000}") int queueCapacity,
+                           @Value("${video.analytics.batchSize:500}") int batchSize,
+                           @Value("${video.analytics.flushInterval:1s}") Duration flushInterval,
+                           @Value("${video.analytics.offerTimeout:5ms}") Duration offerTimeout) {
+        this.videoEventWriter = videoEventWriter;
+        this.videoEventJournal = videoEventJournal;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = Thread.ofPlatform().name("video-event-writer").daemon().start(this::drain);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            writerThread.join(Duration.ofSeconds(30));
+        }
+        List<VideoEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        flush(remaining);
+    }
+
+    /**
+     * Queues an event, waiting at most the offer timeout when the queue is full and journaling it after that.
+     * Returns false if the event was dropped.
+     */
+    public boolean offer(VideoEvent event) {
+        try {
+            if (queue.offer(event) || queue.offer(event, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                enqueued.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.debug("Analytics queue is full, journaling {} event for video id: {}", event.getType(), event.getVideoId());
+        return journal(List.of(event), false);
+    }
+
+    /**
+     * Queues several events at once. Once the queue is full the remaining events are journaled together, after
+     * waiting at most one offer timeout. Returns false if they were dropped.
+     */
+    public boolean offerAll(List<VideoEvent> events) {
+        int queued = 0;
+        try {
+            while (queued < events.size() && (queue.offer(events.get(queued))
+                    || queue.offer(events.get(queued), offerTimeoutNanos, TimeUnit.NANOSECONDS))) {
+                queued++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        enqueued.add(queued);
+        if (queued == events.size()) {
+            return true;
+        }
+        log.debug("Analytics queue is full, journaling {} of {} events", events.size() - queued, events.size());
+        return journal(events.subList(queued, events.size()), false);
+    }
+
+    private void drain() {
+        List<VideoEvent> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (running || !queue.isEmpty()) {
+            try {
+                VideoEvent event = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (event != null) {
+                    batch.add(event);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Woken up by stop(), the loop drains what is left and exits
+                continue;
+            }
+            if (batch.size() >= batchSize || System.nanoTime() - deadline >= 0) {
+                flush(batch);
+                batch = new ArrayList<>(batchSize);
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<VideoEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            videoEventWriter.write(batch);
+            written.add(batch.size());
+            log.debug("Wrote {} analytics events", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} analytics events, journaling them: {}", batch.size(), e.getMessage());
+            journal(batch, true);
+        }
+    }
+
+    private boolean journal(List<VideoEvent> events, boolean force) {
+        try {
+            videoEventJournal.append(events);
+            if (force) {
+                videoEventJournal.force();
+            }
+            journaled.add(events.size());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            dropped.add(events.size());
+            log.error("Failed to journal {} analytics events, they are lost: {}", events.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("video.analytics.queue.size", queue, BlockingQueue::size)
+                .description("Analytics events waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("video.analytics.events", enqueued, LongAdder::sum)
+                .tag("result", "enqueued")
+                .register(registry);
+        FunctionCounter.builder("video.analytics.events", journaled, LongAdder::sum)
+                .tag("result", "journaled")
+                .description("Analytics events sent to the local journal because the queue was full or the insert failed")
+                .register(registry);
+        FunctionCounter.builder("video.analytics.events", dropped, LongAdder::sum)
+                .tag("result", "dropped")
+                .description("Analytics events lost because the journal could not take them either")
+                .register(registry);
+        FunctionCounter.builder("video.analytics.events", written, LongAdder::sum)
+                .tag("result", "written")
+                .register(registry);
+    }
+}
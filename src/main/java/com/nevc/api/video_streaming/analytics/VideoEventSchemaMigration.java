@@ -0,0 +1,88 @@
+package com.nevc.api.video_streaming.analytics;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves impression and view tables created before the {@link UserAgentDictionary} to the current layout. ddl-auto adds
+ * the {@code user_agent_id} column but never changes a column type, so on such a schema {@code user_ip} is still text
+ * and the agent strings are still in a {@code user_agent} column:
+ * <ul>
+ *     <li>the agent strings are added to {@code user_agents}, the rows are pointed at them and the old column is
+ *     dropped;</li>
+ *     <li>the addresses are converted to 4 or 16 bytes in a new column that replaces {@code user_ip}, text that is
+ *     not an address becomes null.</li>
+ * </ul>
+ * Rows are updated in ranges of ids, and every step checks the current columns first, so a migration interrupted by a
+ * restart picks up where it stopped. It runs once the schema has been updated and before {@link VideoEventWriter}
+ * can insert anything, events of the new format would not fit the old columns.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class VideoEventSchemaMigration {
+
+    private static final List<String> TABLES = List.of("videos_impressions", "videos_views");
+    private static final long ROWS_PER_UPDATE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        for (String table : TABLES) {
+            if (columnType(table, "user_agent") != null) {
+                migrateUserAgents(table);
+            }
+            String ipType = columnType(table, "user_ip");
+            if (ipType != null && !ipType.equalsIgnoreCase("varbinary")) {
+                migrateUserIps(table);
+            }
+        }
+    }
+
+    private void migrateUserAgents(String table) {
+        log.info("Moving the user agents of {} to the user_agents table", table);
+        jdbcTemplate.update("INSERT IGNORE INTO user_agents (user_agent) "
+                + "SELECT DISTINCT CONVERT(LEFT(user_agent, 512) USING utf8mb4) COLLATE utf8mb4_0900_bin FROM " + table
+                + " WHERE user_agent IS NOT NULL AND user_agent_id IS NULL");
+        long rows = updateInRanges(table, "UPDATE " + table + " e JOIN user_agents ua "
+                + "ON ua.user_agent = CONVERT(LEFT(e.user_agent, 512) USING utf8mb4) COLLATE utf8mb4_0900_bin "
+                + "SET e.user_agent_id = ua.id WHERE e.user_agent_id IS NULL AND e.id > ? AND e.id <= ?");
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN user_agent");
+        log.info("Linked {} rows of {} to their user agent", rows, table);
+    }
+
+    private void migrateUserIps(String table) {
+        log.info("Converting the user IPs of {} to binary", table);
+        if (columnType(table, "user_ip_binary") == null) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN user_ip_binary VARBINARY(16)");
+        }
+        long rows = updateInRanges(table, "UPDATE " + table + " SET user_ip_binary = "
+                + "CASE WHEN IS_IPV4(user_ip) OR IS_IPV6(user_ip) THEN INET6_ATON(user_ip) END "
+                + "WHERE id > ? AND id <= ?");
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN user_ip, RENAME COLUMN user_ip_binary TO user_ip");
+        log.info("Converted the user IPs of {} rows of {}", rows, table);
+    }
+
+    private long updateInRanges(String table, String sql) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long rows = 0;
+        for (long from = 0; maxId != null && from < maxId; from += ROWS_PER_UPDATE) {
+            rows += jdbcTemplate.update(sql, from, from + ROWS_PER_UPDATE);
+        }
+        return rows;
+    }
+
+    private String columnType(String table, String column) {
+        List<String> types = jdbcTemplate.queryForList("SELECT DATA_TYPE FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?", String.class, table, column);
+        return types.isEmpty() ? null : types.getFirst();
+    }
+}
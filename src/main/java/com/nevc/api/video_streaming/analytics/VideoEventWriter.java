@@ -0,0 +1,130 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.converters.IpAddressConverter;
+import com.nevc.api.video_streaming.enums.StatsGranularity;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Writes batches of events with JDBC batch inserts. With {@code rewriteBatchedStatements} enabled the MySQL driver
+ * sends each batch as a multi-row insert instead of one IDENTITY insert per event. Rows store the user agent as an
+ * id of the {@link UserAgentDictionary} and the IP address as binary.
+ * <p>
+ * The hourly and daily counters in {@code videos_stats} are updated in the same transaction: the batch is first
+ * summed per video and bucket in memory, so a batch of 500 views of one title costs two upserts, not 500. Events
+ * stored before the counters existed are counted by {@link VideoStatsBackfill}.
+ */
+@Component
+@DependsOn({"videoEventSchemaMigration", "videoStatsBackfill"})
+@RequiredArgsConstructor
+public class VideoEventWriter {
+
+    private static final String INSERT_IMPRESSION = "INSERT INTO videos_impressions "
+            + "(video_meta_data_id, user_id, impression_date, user_ip, user_agent_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_VIEW = "INSERT INTO videos_views "
+            + "(video_meta_data_id, user_id, impression_date, user_ip, user_agent_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPSERT_STATS = "INSERT INTO videos_stats "
+            + "(video_meta_data_id, granularity, bucket_start, impressions, views) VALUES (?, ?, ?, ?, ?) AS new "
+            + "ON DUPLICATE KEY UPDATE impressions = videos_stats.impressions + new.impressions, "
+            + "views = videos_stats.views + new.views";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UniqueViewerCounter uniqueViewerCounter;
+    private final UserAgentDictionary userAgentDictionary;
+
+    @Transactional
+    public void write(List<VideoEvent> events) {
+        Map<String, Long> userAgentIds = userAgentDictionary.resolve(events.stream()
+                .map(VideoEvent::getUserAgent)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        insert(INSERT_IMPRESSION, events.stream().filter(event -> event.getType() == VideoEventType.IMPRESSION).toList(), userAgentIds);
+        insert(INSERT_VIEW, events.stream().filter(event -> event.getType() == VideoEventType.VIEW).toList(), userAgentIds);
+        upsertStats(rollup(events));
+        uniqueViewerCounter.add(events);
+    }
+
+    private void insert(String sql, List<VideoEvent> events, Map<String, Long> userAgentIds) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, events, events.size(), (statement, event) -> {
+            statement.setLong(1, event.getVideoId());
+            statement.setLong(2, event.getUserId());
+            statement.setTimestamp(3, Timestamp.valueOf(event.getTimestamp()));
+            statement.setBytes(4, IpAddressConverter.toBytes(event.getUserIp()));
+            statement.setObject(5, event.getUserAgent() != null ? userAgentIds.get(event.getUserAgent()) : null, Types.BIGINT);
+        });
+    }
+
+    private void upsertStats(SortedMap<StatsBucket, long[]> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<StatsBucket, long[]>> rows = new ArrayList<>(buckets.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_STATS, rows, rows.size(), (statement, row) -> {
+            statement.setLong(1, row.getKey().getVideoId());
+            statement.setString(2, row.getKey().getGranularity().name());
+            statement.setTimestamp(3, Timestamp.valueOf(row.getKey().getBucketStart()));
+            statement.setLong(4, row.getValue()[0]);
+            statement.setLong(5, row.getValue()[1]);
+        });
+    }
+
+    /**
+     * Sums the events of a batch per video, granularity and bucket into {impressions, views}. The buckets are
+     * sorted so that concurrent writers lock the counter rows in the same order.
+     */
+    static SortedMap<StatsBucket, long[]> rollup(List<VideoEvent> events) {
+        SortedMap<StatsBucket, long[]> buckets = new TreeMap<>(StatsBucket.ORDER);
+        for (VideoEvent event : events) {
+            int column = event.getType() == VideoEventType.IMPRESSION ? 0 : 1;
+            for (StatsGranularity granularity : StatsGranularity.values()) {
+                StatsBucket bucket = new StatsBucket(event.getVideoId(), granularity, bucketStart(event.getTimestamp(), granularity));
+                buckets.computeIfAbsent(bucket, key -> new long[2])[column]++;
+            }
+        }
+        return buckets;
+    }
+
+    static LocalDateTime bucketStart(LocalDateTime timestamp, StatsGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> timestamp.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> timestamp.truncatedTo(ChronoUnit.DAYS);
+        };
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    static class StatsBucket {
+        static final Comparator<StatsBucket> ORDER = Comparator.comparingLong(StatsBucket::getVideoId)
+                .thenComparing(StatsBucket::getGranularity)
+                .thenComparing(StatsBucket::getBucketStart);
+
+        private final long videoId;
+        private final StatsGranularity granularity;
+        private final LocalDateTime bucketStart;
+    }
+}
@@ -0,0 +1,51 @@
+package com.nevc.api.video_streaming.analytics;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the impressions and views stored before {@code videos_stats} existed into its hourly and daily buckets.
+ * The counters are only updated by {@link VideoEventWriter} as events are written, so without it the counts and time
+ * series of an existing catalog would start at the deploy.
+ * <p>
+ * It runs once the schema has been updated and before the writer can insert anything, and only while
+ * {@code videos_stats} is empty: every event already stored is then one the counters have never seen. Both
+ * granularities are filled by a single {@code INSERT ... SELECT}, so an interrupted backfill leaves no rows and is
+ * run again at the next start.
+ */
+@Slf4j
+@Component
+@DependsOn({"entityManagerFactory", "videoEventSchemaMigration"})
+@RequiredArgsConstructor
+public class VideoStatsBackfill {
+
+    private static final String BACKFILL = "INSERT INTO videos_stats "
+            + "(video_meta_data_id, granularity, bucket_start, impressions, views) "
+            + "SELECT video_meta_data_id, granularity, bucket_start, SUM(impressions), SUM(views) FROM ("
+            + events("videos_impressions", "HOUR", "%Y-%m-%d %H:00:00", 1, 0) + " UNION ALL "
+            + events("videos_impressions", "DAY", "%Y-%m-%d 00:00:00", 1, 0) + " UNION ALL "
+            + events("videos_views", "HOUR", "%Y-%m-%d %H:00:00", 0, 1) + " UNION ALL "
+            + events("videos_views", "DAY", "%Y-%m-%d 00:00:00", 0, 1)
+            + ") events WHERE NOT EXISTS (SELECT 1 FROM videos_stats) "
+            + "GROUP BY video_meta_data_id, granularity, bucket_start";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        int buckets = jdbcTemplate.update(BACKFILL);
+        if (buckets > 0) {
+            log.info("Counted the stored impressions and views into {} stats buckets", buckets);
+        }
+    }
+
+    private static String events(String table, String granularity, String bucketFormat, int impressions, int views) {
+        return "SELECT video_meta_data_id, '" + granularity + "' AS granularity, "
+                + "DATE_FORMAT(impression_date, '" + bucketFormat + "') AS bucket_start, "
+                + impressions + " AS impressions, " + views + " AS views FROM " + table;
+    }
+}
@@ -0,0 +1,152 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.entities.WatchProgress;
+import com.nevc.api.video_streaming.repositories.WatchProgressRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the playback position of each (user, video) pair reported by player heartbeats.
+ * <p>
+ * Heartbeats only update a concurrent map, a later report replacing an earlier one, so a player reporting every few
+ * seconds costs no database work. Every {@code video.analytics.watchProgress.flushInterval} the latest position of
+ * each pair is written to {@code watch_progress} with batched upserts that never replace a newer stored position.
+ * A position stays in the map until its upsert has committed, so reads never miss it while it is being written, and
+ * it is removed only if no newer one arrived meanwhile. Positions that fail to flush are retried on the next run.
+ */
+@Slf4j
+@Component
+public class WatchProgressStore implements MeterBinder {
+
+    private static final String UPSERT_PROGRESS = "INSERT INTO watch_progress "
+            + "(user_id, video_meta_data_id, position_seconds, updated_at) VALUES (?, ?, ?, ?) AS new "
+            + "ON DUPLICATE KEY UPDATE "
+            + "position_seconds = IF(new.updated_at >= watch_progress.updated_at, new.position_seconds, watch_progress.position_seconds), "
+            + "updated_at = GREATEST(watch_progress.updated_at, new.updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WatchProgressRepository watchProgressRepository;
+    private final Clock clock;
+    private final int batchSize;
+    private final ConcurrentMap<UserVideo, Position> pending = new ConcurrentHashMap<>();
+    private final LongAdder reports = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+
+    @Autowired
+    public WatchProgressStore(JdbcTemplate jdbcTemplate,
+                              WatchProgressRepository watchProgressRepository,
+                              @Value("${video.analytics.watchProgress.batchSize:500}") int batchSize) {
+        this(jdbcTemplate, watchProgressRepository, Clock.systemDefaultZone(), batchSize);
+    }
+
+    WatchProgressStore(JdbcTemplate jdbcTemplate, WatchProgressRepository watchProgressRepository, Clock clock, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.watchProgressRepository = watchProgressRepository;
+        this.clock = clock;
+        this.batchSize = batchSize;
+    }
+
+    public void report(long userId, long videoId, long positionSeconds) {
+        reports.increment();
+        pending.merge(new UserVideo(userId, videoId), new Position(positionSeconds, LocalDateTime.now(clock)), Position::latest);
+    }
+
+    /**
+     * The last reported position, from memory when it has not been flushed yet.
+     */
+    public Optional<WatchProgress> find(long userId, long videoId) {
+        Position position = pending.get(new UserVideo(userId, videoId));
+        if (position != null) {
+            return Optional.of(WatchProgress.builder()
+                    .userId(userId)
+                    .videoId(videoId)
+                    .positionSeconds(position.getSeconds())
+                    .updatedAt(position.getUpdatedAt())
+                    .build());
+        }
+        return watchProgressRepository.findByUserIdAndVideoId(userId, videoId);
+    }
+
+    @Scheduled(fixedDelayString = "${video.analytics.watchProgress.flushInterval:5s}")
+    @PreDestroy
+    public void flush() {
+        List<Map.Entry<UserVideo, Position>> rows = new ArrayList<>();
+        pending.forEach((key, position) -> rows.add(Map.entry(key, position)));
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_PROGRESS, rows, batchSize, (statement, row) -> {
+                statement.setLong(1, row.getKey().getUserId());
+                statement.setLong(2, row.getKey().getVideoId());
+                statement.setLong(3, row.getValue().getSeconds());
+                statement.setTimestamp(4, Timestamp.valueOf(row.getValue().getUpdatedAt()));
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} watch positions, retrying on the next run: {}", rows.size(), e.getMessage());
+            return;
+        }
+        rows.forEach(row -> pending.remove(row.getKey(), row.getValue()));
+        flushed.add(rows.size());
+        log.debug("Flushed {} watch positions", rows.size());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("video.analytics.progress.reports", reports, LongAdder::sum)
+                .description("Watch position heartbeats received")
+                .register(registry);
+        FunctionCounter.builder("video.analytics.progress.flushed", flushed, LongAdder::sum)
+                .description("Watch positions written to the database after merging heartbeats")
+                .register(registry);
+        Gauge.builder("video.analytics.progress.pending", pending, ConcurrentMap::size)
+                .description("Watch positions not yet written to the database")
+                .register(registry);
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    static class UserVideo {
+        private final long userId;
+        private final long videoId;
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    static class Position {
+        private final long seconds;
+        private final LocalDateTime updatedAt;
+
+        static Position latest(Position current, Position reported) {
+            return reported.updatedAt.isBefore(current.updatedAt) ? current : reported;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.nevc.api.video_streaming.auth;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.security.Principal;
+
+/**
+ * The principal of a request authenticated by a signed playback URL. It only carries the ids that were signed,
+ * the user is not loaded from the database.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class PlaybackPrincipal implements Principal {
+    private final long userId;
+    private final long videoId;
+
+    @Override
+    public String getName() {
+        return String.valueOf(userId);
+    }
+}
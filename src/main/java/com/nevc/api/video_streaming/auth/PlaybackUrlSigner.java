@@ -0,0 +1,95 @@
+package com.nevc.api.video_streaming.auth;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Signs and verifies playback URLs with HMAC-SHA256 over the video id, user id, expiry and optional client IP.
+ * Verification is pure CPU work, so players can send every range request without a database round trip. The key is
+ * the Base64 {@code video.playback.secret}, which must decode to at least 32 bytes or the application does not start.
+ */
+@Component
+public class PlaybackUrlSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    @Setter
+    @Value("${video.playback.secret:}")
+    private String secret;
+
+    @Getter
+    @Setter
+    @Value("${video.playback.urlTtl:4h}")
+    private Duration urlTtl = Duration.ofHours(4);
+
+    private SecretKeySpec key;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    });
+
+    @PostConstruct
+    public void init() {
+        byte[] bytes = secret != null ? Base64.getDecoder().decode(secret.strip()) : new byte[0];
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("video.playback.secret must be a Base64 key of at least " + MIN_SECRET_BYTES
+                    + " bytes, set it with the VIDEO_PLAYBACK_SECRET environment variable");
+        }
+        this.key = new SecretKeySpec(bytes, ALGORITHM);
+    }
+
+    /**
+     * Builds the signed path and query for playing a video, e.g.
+     * {@code /videos/play/1?uid=2&exp=1735689600&sig=...}. The ip is only bound when not null.
+     */
+    public String createPlaybackUrl(long videoId, long userId, String ip, Instant expiresAt) {
+        long expires = expiresAt.getEpochSecond();
+        StringBuilder url = new StringBuilder("/videos/play/").append(videoId)
+                .append("?uid=").append(userId)
+                .append("&exp=").append(expires);
+        if (ip != null) {
+            url.append("&ip=").append(ip);
+        }
+        return url.append("&sig=").append(sign(videoId, userId, expires, ip)).toString();
+    }
+
+    public String sign(long videoId, long userId, long expires, String ip) {
+        String payload = videoId + ":" + userId + ":" + expires + ":" + (ip != null ? ip : "");
+        byte[] signature = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    /**
+     * Returns whether the signature matches, the URL has not expired and, when an ip was signed, the request
+     * comes from it.
+     */
+    public boolean verify(long videoId, long userId, long expires, String ip, String signature, String remoteAddr) {
+        if (expires < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        if (ip != null && !ip.equals(remoteAddr)) {
+            return false;
+        }
+        byte[] expected = sign(videoId, userId, expires, ip).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,63 @@
+package com.nevc.api.video_streaming.auth;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Authenticates {@code GET /videos/play/{id}} requests that carry a valid signature from {@link PlaybackUrlSigner}
+ * as a viewer, without parsing a JWT or loading the user. Requests without a signature are left to the
+ * {@link JwtAuthFilter}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignedPlaybackUrlFilter extends OncePerRequestFilter {
+
+    private static final Pattern PLAY_PATH = Pattern.compile("/videos/play/(\\d+)");
+
+    private final PlaybackUrlSigner playbackUrlSigner;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || request.getParameter("sig") == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
+            throws ServletException, IOException {
+        Matcher matcher = PLAY_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+        if (matcher.matches() && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                long videoId = Long.parseLong(matcher.group(1));
+                long userId = Long.parseLong(request.getParameter("uid"));
+                long expires = Long.parseLong(request.getParameter("exp"));
+                if (playbackUrlSigner.verify(videoId, userId, expires, request.getParameter("ip"),
+                        request.getParameter("sig"), request.getRemoteAddr())) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            new PlaybackPrincipal(userId, videoId), null, List.of(new SimpleGrantedAuthority("ROLE_VIEWER")));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    log.debug("Rejected playback signature for video id: {}, user id: {}", videoId, userId);
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Malformed signed playback URL: {}", request.getQueryString());
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
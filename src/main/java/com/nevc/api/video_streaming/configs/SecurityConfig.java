@@ -1,6 +1,7 @@
 package com.nevc.api.video_streaming.configs;
 
 import com.nevc.api.video_streaming.auth.JwtAuthFilter;
+import com.nevc.api.video_streaming.auth.SignedPlaybackUrlFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,11 +26,14 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final SignedPlaybackUrlFilter signedPlaybackUrlFilter;
     private final UserDetailsService userDetailsService;
 
     @Autowired
-    public SecurityConfig(JwtAuthFilter jwtAuthFilter, UserDetailsService userDetailsService) {
+    public SecurityConfig(JwtAuthFilter jwtAuthFilter, SignedPlaybackUrlFilter signedPlaybackUrlFilter,
+                          UserDetailsService userDetailsService) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.signedPlaybackUrlFilter = signedPlaybackUrlFilter;
         this.userDetailsService = userDetailsService;
     }
 
@@ -41,10 +45,12 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/videos/**").hasAnyRole("VIEWER", "CREATOR", "ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/videos/impressions:batch", "/videos/play/*/progress").hasAnyRole("VIEWER", "CREATOR", "ADMIN")
                         .requestMatchers(HttpMethod.POST, "/videos/**").hasAnyRole("CREATOR", "ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/videos/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
+                .addFilterBefore(signedPlaybackUrlFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -0,0 +1,57 @@
+package com.nevc.api.video_streaming.configs;
+
+import com.nevc.api.video_streaming.streaming.CachingVideoReader;
+import com.nevc.api.video_streaming.streaming.FileChannelVideoReader;
+import com.nevc.api.video_streaming.streaming.MappedVideoReader;
+import com.nevc.api.video_streaming.streaming.VideoChunkCache;
+import com.nevc.api.video_streaming.streaming.VideoReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
+
+@Slf4j
+@Configuration
+public class StreamingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "video.cache.enabled", havingValue = "true")
+    public VideoChunkCache videoChunkCache(@Value("${video.cache.maxSize:256MB}") DataSize maxSize,
+                                           @Value("${video.cache.chunkSize:1MB}") DataSize chunkSize,
+                                           @Value("${video.cache.slabSize:64MB}") DataSize slabSize) {
+        return new VideoChunkCache(maxSize.toBytes(), Math.toIntExact(chunkSize.toBytes()), slabSize.toBytes());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "video.streaming.reader", havingValue = "mmap")
+    public MappedVideoReader mappedVideoReader(@Value("${video.streaming.mmap.windowSize:64MB}") DataSize windowSize,
+                                               @Value("${video.streaming.mmap.maxRegions:64}") int maxRegions) {
+        return new MappedVideoReader(windowSize.toBytes(), maxRegions);
+    }
+
+    /**
+     * The reader used when a response is not handed to sendfile: the chunk cache when enabled, otherwise the
+     * memory-mapped reader when {@code video.streaming.reader=mmap}, otherwise plain {@link java.nio.channels.FileChannel} transfers.
+     * Every reader is asked per range whether sendfile would serve it better, see {@link VideoReader#prefersSendfile}.
+     */
+    @Bean
+    @Primary
+    public VideoReader videoReader(ObjectProvider<VideoChunkCache> videoChunkCache,
+                                   ObjectProvider<MappedVideoReader> mappedVideoReader,
+                                   @Value("${video.cache.maxRangeSize:8MB}") DataSize maxCachedRangeSize) {
+        VideoChunkCache cache = videoChunkCache.getIfAvailable();
+        MappedVideoReader mapped = mappedVideoReader.getIfAvailable();
+        if (cache != null) {
+            if (mapped != null) {
+                log.warn("Both video.cache.enabled=true and video.streaming.reader=mmap are set, the chunk cache is used "
+                        + "and video files are not memory-mapped");
+            }
+            return new CachingVideoReader(cache, maxCachedRangeSize.toBytes());
+        }
+        return mapped != null ? mapped : new FileChannelVideoReader();
+    }
+}
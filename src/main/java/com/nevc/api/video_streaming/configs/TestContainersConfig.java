@@ -33,6 +33,8 @@ public class TestContainersConfig {
         config.setUsername(mysqlContainer.getUsername());
         config.setPassword(mysqlContainer.getPassword());
         config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        // Lets the driver send JDBC batches, such as the analytics inserts, as multi-row inserts
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
         return new HikariDataSource(config);
     }
 }
@@ -3,16 +3,28 @@ package com.nevc.api.video_streaming.controllers;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.dockerjava.api.exception.NotFoundException;
+import com.nevc.api.video_streaming.auth.PlaybackUrlSigner;
+import com.nevc.api.video_streaming.dto.ImpressionBatchDTO;
+import com.nevc.api.video_streaming.dto.PlaybackUrlDTO;
+import com.nevc.api.video_streaming.dto.VideoEventPageDTO;
 import com.nevc.api.video_streaming.dto.VideoMetaDataDTO;
+import com.nevc.api.video_streaming.dto.WatchProgressDTO;
 import com.nevc.api.video_streaming.entities.User;
-import com.nevc.api.video_streaming.entities.VideoImpression;
-import com.nevc.api.video_streaming.entities.VideoView;
 import com.nevc.api.video_streaming.enums.Genre;
 import com.nevc.api.video_streaming.enums.SearchComparator;
+import com.nevc.api.video_streaming.enums.StatsGranularity;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import com.nevc.api.video_streaming.enums.VideoSort;
 import com.nevc.api.video_streaming.exceptions.BadRequestException;
+import com.nevc.api.video_streaming.exceptions.RangeNotSatisfiableException;
+import com.nevc.api.video_streaming.exceptions.ResourceNotFoundException;
+import com.nevc.api.video_streaming.exceptions.ServiceUnavailableException;
 import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import com.nevc.api.video_streaming.search.VideoSearchCriteria;
 import com.nevc.api.video_streaming.services.UserService;
 import com.nevc.api.video_streaming.services.VideoService;
+import com.nevc.api.video_streaming.streaming.ByteRange;
+import com.nevc.api.video_streaming.streaming.VideoStream;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -25,10 +37,18 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -39,8 +59,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -56,6 +84,13 @@ public class VideoController {
     private final UserService userService;
     private final ObjectMapper objectMapper;
     private final Validator validator;
+    private final PlaybackUrlSigner playbackUrlSigner;
+
+    @Value("${video.streaming.maxRanges:8}")
+    private int maxRanges = 8;
+
+    @Value("${video.streaming.rangeMergeGap:80}")
+    private long rangeMergeGap = 80;
 
     @PostMapping(consumes = "multipart/form-data")
     @Operation(summary = "Publish a new video from the user.")
@@ -138,13 +173,20 @@ public class VideoController {
     }
 
     @GetMapping("/play/{id}")
-    @Operation(summary = "Play video resource by id.")
+    @Operation(summary = "Play video resource by id. Supports byte ranges through the Range and If-Range headers, "
+            + "several ranges are answered as multipart/byteranges. Conditional requests are answered with 304 "
+            + "without touching the file.")
     @ApiResponse(responseCode = "200", description = "Video file is found and can be played.",
             content = @Content(mediaType = "application/octet-stream",
                     schema = @Schema(type = "string", format = "binary")))
+    @ApiResponse(responseCode = "206", description = "The requested byte range of the video file.",
+            content = @Content(mediaType = "application/octet-stream",
+                    schema = @Schema(type = "string", format = "binary")))
+    @ApiResponse(responseCode = "304", description = "Video file has not changed since the cached copy (If-None-Match or If-Modified-Since).")
     @ApiResponse(responseCode = "400", description = "Invalid request.")
     @ApiResponse(responseCode = "401", description = "User is not authenticated.")
     @ApiResponse(responseCode = "404", description = "Video file or metadata not found.")
+    @ApiResponse(responseCode = "416", description = "Requested range is not satisfiable or has too many parts.")
     @ApiResponse(responseCode = "500", description = "Internal server error.")
     public ResponseEntity<?> playVideo(@PathVariable Long id, HttpServletRequest request) {
         User user = userService.getLoggedInUser();
@@ -157,22 +199,213 @@ public class VideoController {
             if (videoMetaData == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Video metadata not found.");
             }
-            Resource resource = videoService.playVideoAsResource(user, request, id);
+            String eTag = videoMetaData.getEtag() != null ? "\"" + videoMetaData.getEtag() + "\"" : null;
+            long lastModified = toEpochMilli(videoMetaData.getPublishedDate());
+            if (eTag != null && isNotModified(request, eTag, lastModified)) {
+                return notModified(eTag, lastModified);
+            }
+            Resource resource = videoService.playVideoAsResource(user, id);
             if (resource == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Video file not found.");
             }
-            return ResponseEntity.ok()
+            long fileLength = resource.contentLength();
+            if (eTag == null) {
+                // Published before entity tags were stored, fall back to the file's modification time and size
+                eTag = "\"" + Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(fileLength) + "\"";
+            }
+            if (lastModified < 0) {
+                lastModified = resource.lastModified();
+            }
+
+            List<ByteRange> ranges = List.of();
+            String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+            if (rangeHeader != null && isIfRangeSatisfied(request, eTag, lastModified)) {
+                ranges = ByteRange.parse(rangeHeader, fileLength);
+            }
+            ranges = ByteRange.merge(ranges, rangeMergeGap);
+            if (ranges.size() > maxRanges) {
+                log.debug("Rejecting {} ranges for video with id {}, at most {} are allowed", ranges.size(), id, maxRanges);
+                throw new RangeNotSatisfiableException("Too many ranges requested", fileLength);
+            }
+            if (ranges.isEmpty() || ranges.getFirst().getStart() == 0) {
+                // Seeks and buffer refills of a session ask for later ranges, only its first request is a view
+                videoService.recordView(user, request, id);
+            }
+            MediaType contentType = MediaTypeFactory.getMediaType(videoMetaData.getFileName())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
+            VideoStream videoStream = VideoStream.builder()
+                    .videoId(id)
+                    .file(resource.getFile().toPath())
+                    .fileLength(fileLength)
+                    .ranges(ranges)
+                    .contentType(contentType)
+                    .boundary(MimeTypeUtils.generateMultipartBoundaryString())
+                    .build();
+
+            ResponseEntity.BodyBuilder response;
+            if (ranges.isEmpty()) {
+                response = ResponseEntity.ok().contentType(contentType);
+            } else if (videoStream.isMultipart()) {
+                response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                        .contentType(videoStream.getMultipartContentType());
+            } else {
+                response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                        .contentType(contentType)
+                        .header(HttpHeaders.CONTENT_RANGE, ranges.getFirst().toContentRange(fileLength));
+            }
+            return response
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                     .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + videoMetaData.getFileName() + "\"")
-                    .body(resource);
+                    .eTag(eTag)
+                    .lastModified(lastModified)
+                    .body(videoStream);
+        } catch (RangeNotSatisfiableException e) {
+            log.debug("Range {} not satisfiable for video with id {}", request.getHeader(HttpHeaders.RANGE), id);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + e.getTotalLength())
+                    .build();
         } catch (Exception e) {
             log.error("Error playing video with id {}: {}", id, e.getMessage());
             return ResponseEntity.internalServerError().body("An internal error occurred.");
         }
     }
 
+    @PostMapping("/play/{id}/progress")
+    @Operation(summary = "Heartbeat of a player reporting its playback position. Kept in memory and written to the "
+            + "database in the background, the latest report wins.")
+    @ApiResponse(responseCode = "204", description = "Position is recorded.")
+    @ApiResponse(responseCode = "400", description = "Invalid position.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "404", description = "Video not found.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> recordWatchProgress(@PathVariable Long id, @RequestBody @Valid WatchProgressDTO watchProgressDTO) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            videoService.recordWatchProgress(user, id, watchProgressDTO.getPositionSeconds());
+            return ResponseEntity.noContent().build();
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error recording watch progress: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body("An internal error occurred.");
+        }
+    }
+
+    @GetMapping("/play/{id}/progress")
+    @Operation(summary = "Get the last playback position of the user to resume the video where they left off.")
+    @ApiResponse(responseCode = "200", description = "Position is found.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "404", description = "User has not watched the video.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> getWatchProgress(@PathVariable Long id) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(videoService.getWatchProgress(user, id));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error getting watch progress: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body("An internal error occurred.");
+        }
+    }
+
+    @GetMapping("/{id}/playback-url")
+    @Operation(summary = "Issue a signed, time-limited URL to play a video. Requests to the URL are authenticated "
+            + "by its signature, no bearer token or database lookup is needed.")
+    @ApiResponse(responseCode = "200", description = "Signed playback URL is issued.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "404", description = "Video meta data not found.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> getPlaybackUrl(@PathVariable Long id,
+                                            @RequestParam(defaultValue = "false") boolean bindIp,
+                                            HttpServletRequest request) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.info("Issuing playback url for user id: {}, video id: {}", user.getId(), id);
+        try {
+            VideoMetaDataDTO videoMetaData = videoService.getVideoMetaData(user, null, id);
+            if (videoMetaData == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Video metadata not found.");
+            }
+            Instant expiresAt = Instant.now().plus(playbackUrlSigner.getUrlTtl());
+            String url = playbackUrlSigner.createPlaybackUrl(id, user.getId(),
+                    bindIp ? request.getRemoteAddr() : null, expiresAt);
+            return ResponseEntity.ok(new PlaybackUrlDTO(url, expiresAt));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Video metadata not found.");
+        } catch (Exception e) {
+            log.error("Error issuing playback url for video with id {}: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().body("An internal error occurred.");
+        }
+    }
+
+    /**
+     * A range request is only honoured when the If-Range validator, if any, still matches the file:
+     * a strong entity tag must be identical and a date must equal the last modification time.
+     */
+    private static boolean isIfRangeSatisfied(HttpServletRequest request, String eTag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("W/")) {
+            return false;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(eTag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Evaluates If-None-Match and If-Modified-Since before any file is opened or impression is recorded.
+     * Requests that also carry If-Match or If-Unmodified-Since are left to the regular response handling,
+     * which answers them with 412 where needed.
+     */
+    private static boolean isNotModified(HttpServletRequest request, String eTag, long lastModified) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null && request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+            return false;
+        }
+        if (request.getHeader(HttpHeaders.IF_MATCH) != null || request.getHeader(HttpHeaders.IF_UNMODIFIED_SINCE) != null) {
+            return false;
+        }
+        return new ServletWebRequest(request).checkNotModified(eTag, lastModified);
+    }
+
+    private static ResponseEntity<?> notModified(String eTag, long lastModified) {
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.status(HttpStatus.NOT_MODIFIED);
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        return response.build();
+    }
+
+    /**
+     * Dates are stored without a time, so Last-Modified is the start of that day in UTC.
+     */
+    private static long toEpochMilli(LocalDate date) {
+        return date != null ? date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli() : -1;
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Load video meta data by id.")
     @ApiResponse(responseCode = "200", description = "Video meta data is found.")
+    @ApiResponse(responseCode = "304", description = "Video meta data has not changed since the cached copy (If-None-Match).")
     @ApiResponse(responseCode = "400", description = "Invalid request.")
     @ApiResponse(responseCode = "401", description = "User is not authenticated.")
     @ApiResponse(responseCode = "404", description = "Video meta data not found.")
@@ -184,11 +417,22 @@ public class VideoController {
         }
         log.info("Getting video meta data for user id: {}, video id: {}", user.getId(), id);
         try {
-            VideoMetaDataDTO videoMetaData = videoService.getVideoMetaData(user, request, id);
+            VideoMetaDataDTO videoMetaData = videoService.getVideoMetaData(user, null, id);
             if (videoMetaData == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Video metadata not found.");
             }
-            return ResponseEntity.ok(videoMetaData);
+            String eTag = videoMetaData.getVersion() != null
+                    ? "\"" + videoMetaData.getId() + "-" + videoMetaData.getVersion() + "\"" : null;
+            // Update dates have no time, so only the version based ETag tells two updates of the same day apart
+            if (isNotModified(request, eTag, -1)) {
+                return notModified(eTag, -1);
+            }
+            videoService.recordImpression(user, request, id);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (eTag != null) {
+                response.eTag(eTag);
+            }
+            return response.body(videoMetaData);
         } catch (Exception e) {
             log.error("Error getting video metadata with id {}: {}", id, e.getMessage());
             return ResponseEntity.internalServerError().body("An internal error occurred.");
@@ -245,60 +489,337 @@ public class VideoController {
         }
     }
 
+    @PostMapping("/impressions:batch")
+    @Operation(summary = "Record the impressions of several videos shown together, such as the tiles of a screen. "
+            + "All ids are validated at once and the impressions are written in one batch.")
+    @ApiResponse(responseCode = "202", description = "Impressions are queued.")
+    @ApiResponse(responseCode = "400", description = "Invalid request or too many videos.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "404", description = "One or more videos not found.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> recordImpressions(@RequestBody @Valid ImpressionBatchDTO impressionBatchDTO,
+                                               HttpServletRequest request) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.debug("Recording {} impressions for user id: {}", impressionBatchDTO.getVideoIds().size(), user.getId());
+        try {
+            return ResponseEntity.accepted().body(videoService.recordImpressions(user, request, impressionBatchDTO.getVideoIds()));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error recording impressions: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body("An internal error occurred.");
+        }
+    }
+
+    @GetMapping("/trending")
+    @Operation(summary = "Rank videos by plays and impressions in a recent window such as 15m, 1h or 24h. Answered "
+            + "from in-memory sketches, scores are upper bounds of the exact counts.")
+    @ApiResponse(responseCode = "200", description = "Trending videos are returned.")
+    @ApiResponse(responseCode = "400", description = "Invalid window or limit.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> getTrendingVideos(@RequestParam(defaultValue = "1h") String window,
+                                               @RequestParam(defaultValue = "10") int limit) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.debug("Getting trending videos of the last {} for user id: {}", window, user.getId());
+        try {
+            return ResponseEntity.ok(videoService.getTrendingVideos(DurationStyle.detectAndParse(window), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid window: " + window);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error getting trending videos: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body("An internal error occurred.");
+        }
+    }
+
     @GetMapping("/{id}/impressions")
-    @Operation(summary = "Get all impressions of a video.")
+    @Operation(summary = "Get the impressions of a video one page at a time, ordered by date. Pass the nextCursor "
+            + "of a page to get the following one.")
     @ApiResponse(responseCode = "200", description = "Impressions are found.")
     @ApiResponse(responseCode = "400", description = "Invalid request.")
     @ApiResponse(responseCode = "401", description = "User is not authenticated.")
     @ApiResponse(responseCode = "404", description = "Impressions not found.")
     @ApiResponse(responseCode = "500", description = "Internal server error.")
-    public ResponseEntity<?> findAllVideoImpressions(@PathVariable Long id) {
+    public ResponseEntity<?> findAllVideoImpressions(@PathVariable Long id,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "100") int limit) {
+        return findVideoEvents(VideoEventType.IMPRESSION, id, from, to, cursor, limit);
+    }
+
+    @GetMapping("/{id}/views")
+    @Operation(summary = "Get the views of a video one page at a time, ordered by date. Pass the nextCursor "
+            + "of a page to get the following one.")
+    @ApiResponse(responseCode = "200", description = "Views are found.")
+    @ApiResponse(responseCode = "400", description = "Invalid request.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "404", description = "Views not found.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> findAllVideoViews(@PathVariable Long id,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "100") int limit) {
+        return findVideoEvents(VideoEventType.VIEW, id, from, to, cursor, limit);
+    }
+
+    private ResponseEntity<?> findVideoEvents(VideoEventType type, Long id, LocalDateTime from, LocalDateTime to,
+                                              String cursor, int limit) {
         User user = userService.getLoggedInUser();
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        log.debug("Finding all impressions for video id: {} by user id: {}", id, user.getId());
+        log.debug("Finding {} events for video id: {} by user id: {}", type, id, user.getId());
         try {
-            List<VideoImpression> allVideoImpressions = videoService.getVideoImpressions(id);
-            if (allVideoImpressions != null && !allVideoImpressions.isEmpty()) {
-                return ResponseEntity.ok(allVideoImpressions);
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No impressions found.");
+            VideoEventPageDTO page = videoService.getVideoEvents(type, id, from, to, cursor, limit);
+            if (cursor == null && page.getItems().isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(type == VideoEventType.VIEW
+                        ? "No views found." : "No impressions found.");
             }
+            return ResponseEntity.ok(page);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            log.error("Error retrieving impressions for video id {}: {}", id, e.getMessage());
+            log.error("Error retrieving {} events for video id {}: {}", type, id, e.getMessage());
             return ResponseEntity.internalServerError().body("An internal error occurred.");
         }
     }
 
-    @GetMapping("/{id}/views")
-    @Operation(summary = "Get all views of a video.")
-    @ApiResponse(responseCode = "200", description = "Impressions are found.")
-    @ApiResponse(responseCode = "400", description = "Invalid request.")
+    @GetMapping(value = "/{id}/impressions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export the impressions of a video as newline-delimited JSON, streamed as they are read.")
+    @ApiResponse(responseCode = "200", description = "Impressions are streamed.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    public ResponseEntity<?> exportVideoImpressions(@PathVariable Long id,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return exportVideoEvents(VideoEventType.IMPRESSION, id, from, to);
+    }
+
+    @GetMapping(value = "/{id}/views/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export the views of a video as newline-delimited JSON, streamed as they are read.")
+    @ApiResponse(responseCode = "200", description = "Views are streamed.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    public ResponseEntity<?> exportVideoViews(@PathVariable Long id,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return exportVideoEvents(VideoEventType.VIEW, id, from, to);
+    }
+
+    /**
+     * The rows are written by the async request thread while the database cursor is open, each one is its own line.
+     */
+    private ResponseEntity<?> exportVideoEvents(VideoEventType type, Long id, LocalDateTime from, LocalDateTime to) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.info("Exporting {} events for video id: {} by user id: {}", type, id, user.getId());
+        StreamingResponseBody body = outputStream -> {
+            try {
+                videoService.exportVideoEvents(type, id, from, to, event -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(event));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(String.format("video-%d-%s.ndjson", id, type == VideoEventType.VIEW ? "views" : "impressions"))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping("/{id}/stats/counts")
+    @Operation(summary = "Get the total number of impressions and views of a video, read from the daily counters.")
+    @ApiResponse(responseCode = "200", description = "Counts are found.")
     @ApiResponse(responseCode = "401", description = "User is not authenticated.")
-    @ApiResponse(responseCode = "404", description = "Impressions not found.")
     @ApiResponse(responseCode = "500", description = "Internal server error.")
-    public ResponseEntity<?> findAllVideoViews(@PathVariable Long id) {
+    public ResponseEntity<?> getVideoStatsCounts(@PathVariable Long id) {
         User user = userService.getLoggedInUser();
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        log.debug("Finding all views for video id: {} by user id: {}", id, user.getId());
+        log.debug("Getting stats counts for video id: {} by user id: {}", id, user.getId());
         try {
-            List<VideoView> allVideoViews = videoService.getVideoViews(id);
-            if (allVideoViews != null && !allVideoViews.isEmpty()) {
-                return ResponseEntity.ok(allVideoViews);
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No views found.");
-            }
+            return ResponseEntity.ok(videoService.getVideoStatsCounts(id));
+        } catch (Exception e) {
+            log.error("Error retrieving stats counts for video id {}: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().body("An internal error occurred.");
+        }
+    }
+
+    @GetMapping("/{id}/stats/timeseries")
+    @Operation(summary = "Get impressions and views of a video per hour or per day, read from the rollup counters. "
+            + "Buckets without events are omitted.")
+    @ApiResponse(responseCode = "200", description = "Time series is returned.")
+    @ApiResponse(responseCode = "400", description = "Invalid time range.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> getVideoStatsTimeSeries(@PathVariable Long id,
+                                                     @RequestParam(defaultValue = "HOUR") StatsGranularity granularity,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.debug("Getting {} stats for video id: {} from {} to {} by user id: {}", granularity, id, from, to, user.getId());
+        try {
+            return ResponseEntity.ok(videoService.getVideoStatsTimeSeries(id, granularity, from, to));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error retrieving stats time series for video id {}: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().body("An internal error occurred.");
+        }
+    }
+
+    @GetMapping("/{id}/stats/unique-viewers")
+    @Operation(summary = "Estimate the number of distinct users who played a video between two days, within about 1.6%.")
+    @ApiResponse(responseCode = "200", description = "Estimate is returned.")
+    @ApiResponse(responseCode = "400", description = "Invalid date range.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> getUniqueViewers(@PathVariable Long id,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.debug("Estimating unique viewers of video id: {} from {} to {} by user id: {}", id, from, to, user.getId());
+        try {
+            return ResponseEntity.ok(videoService.getUniqueViewers(id, from, to));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error estimating unique viewers of video id {}: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().body("An internal error occurred.");
+        }
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search videos by any combination of title, director, main actor, genres, year range and "
+            + "running time range. A video must have any of the genre values, all of the requiredGenre values and "
+            + "none of the excludedGenre values. Returns one page in the requested order with the number of matches per genre and "
+            + "per decade. Pass the nextCursor of a page, with the same filters and order, to get the following one.")
+    @ApiResponse(responseCode = "200", description = "Search result, possibly without items.")
+    @ApiResponse(responseCode = "400", description = "Invalid range, cursor or limit.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> searchVideos(@RequestParam(required = false) String title,
+                                          @RequestParam(required = false) String director,
+                                          @RequestParam(required = false) String mainActor,
+                                          @RequestParam(required = false) Set<Genre> genre,
+                                          @RequestParam(required = false) Set<Genre> requiredGenre,
+                                          @RequestParam(required = false) Set<Genre> excludedGenre,
+                                          @RequestParam(required = false) Integer yearFrom,
+                                          @RequestParam(required = false) Integer yearTo,
+                                          @RequestParam(required = false) Integer minRunningTime,
+                                          @RequestParam(required = false) Integer maxRunningTime,
+                                          @RequestParam(defaultValue = "ID") VideoSort sort,
+                                          @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int limit) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        VideoSearchCriteria criteria = VideoSearchCriteria.builder()
+                .title(title)
+                .directorName(director)
+                .mainActor(mainActor)
+                .genres(genre)
+                .requiredGenres(requiredGenre)
+                .excludedGenres(excludedGenre)
+                .yearFrom(yearFrom)
+                .yearTo(yearTo)
+                .minRunningTime(minRunningTime)
+                .maxRunningTime(maxRunningTime)
+                .build();
+        log.debug("Searching videos by {} for user id: {}", criteria, user.getId());
+        try {
+            return ResponseEntity.ok(videoService.searchVideos(criteria, sort, direction.isDescending(), cursor, limit));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error searching videos by {}: {}", criteria, e.getMessage());
+            return ResponseEntity.internalServerError().body("An internal error occurred.");
+        }
+    }
+
+    @GetMapping("/search/text")
+    @Operation(summary = "Full-text search over titles, synopses, directors and cast, most relevant first by BM25. "
+            + "Pages are chained with the returned cursor.")
+    @ApiResponse(responseCode = "200", description = "A page of matching videos, possibly empty.")
+    @ApiResponse(responseCode = "400", description = "Blank query, invalid cursor or invalid limit.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "503", description = "The full-text index is still loading.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> searchFullText(@RequestParam String q,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(videoService.searchFullText(q, cursor, limit));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error searching the full text for {}: {}", q, e.getMessage());
+            return ResponseEntity.internalServerError().body("An internal error occurred.");
+        }
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Complete a search box query with titles, directors and actor names having a word that "
+            + "starts with it, most popular first. Answered from an in-memory prefix trie.")
+    @ApiResponse(responseCode = "200", description = "Suggestions, possibly none.")
+    @ApiResponse(responseCode = "400", description = "Blank query or invalid limit.")
+    @ApiResponse(responseCode = "401", description = "User is not authenticated.")
+    @ApiResponse(responseCode = "500", description = "Internal server error.")
+    public ResponseEntity<?> suggest(@RequestParam String q,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(videoService.suggest(q, limit));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            log.error("Error retrieving views for video id {}: {}", id, e.getMessage());
+            log.error("Error suggesting completions of {}: {}", q, e.getMessage());
             return ResponseEntity.internalServerError().body("An internal error occurred.");
         }
     }
 
     @GetMapping("/search/title")
-    @Operation(summary = "Search videos by title.")
+    @Operation(summary = "Search videos by title. When no title contains it, videos with the most similar titles are "
+            + "returned, so misspellings still match.")
     @ApiResponse(responseCode = "200", description = "Videos are found.")
     @ApiResponse(responseCode = "400", description = "Invalid request.")
     @ApiResponse(responseCode = "401", description = "User is not authenticated.")
@@ -327,7 +848,8 @@ public class VideoController {
     }
 
     @GetMapping("/search/director")
-    @Operation(summary = "Search videos by director.")
+    @Operation(summary = "Search videos by director. When no director contains it, videos with the most similar "
+            + "directors are returned, so misspellings still match.")
     @ApiResponse(responseCode = "200", description = "Videos are found.")
     @ApiResponse(responseCode = "400", description = "Invalid request.")
     @ApiResponse(responseCode = "401", description = "User is not authenticated.")
@@ -356,7 +878,8 @@ public class VideoController {
     }
 
     @GetMapping("/search/mainActor")
-    @Operation(summary = "Search videos by main actor.")
+    @Operation(summary = "Search videos by main actor. When no main actor contains it, videos with the most similar "
+            + "main actors are returned, so misspellings still match.")
     @ApiResponse(responseCode = "200", description = "Videos are found.")
     @ApiResponse(responseCode = "400", description = "Invalid request.")
     @ApiResponse(responseCode = "401", description = "User is not authenticated.")
@@ -0,0 +1,70 @@
+package com.nevc.api.video_streaming.converters;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Stores IP addresses as their 4 or 16 network bytes in a {@code VARBINARY(16)} column instead of up to 45
+ * characters of text. Values that are not an IP literal are stored as null, host names are never resolved.
+ */
+@Converter
+public class IpAddressConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String address) {
+        return toBytes(address);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return fromBytes(bytes);
+    }
+
+    public static byte[] toBytes(String address) {
+        if (address == null || address.isEmpty()) {
+            return null;
+        }
+        if (address.indexOf(':') < 0) {
+            return parseIpv4(address);
+        }
+        try {
+            // An address with a colon is always parsed as an IPv6 literal, no lookup is made
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException | SecurityException e) {
+            return null;
+        }
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return InetAddress.getByAddress(bytes).getHostAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static byte[] parseIpv4(String address) {
+        String[] parts = address.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        byte[] bytes = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            if (parts[i].isEmpty() || parts[i].length() > 3 || !parts[i].chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+            int octet = Integer.parseInt(parts[i]);
+            if (octet > 255) {
+                return null;
+            }
+            bytes[i] = (byte) octet;
+        }
+        return bytes;
+    }
+}
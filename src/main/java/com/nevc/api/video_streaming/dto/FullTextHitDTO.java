@@ -0,0 +1,33 @@
+package com.nevc.api.video_streaming.dto;
+
+import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class FullTextHitDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1414213L;
+
+    @Schema(description = "The matching video")
+    private VideoMetaDataProjection video;
+
+    @Schema(description = "BM25 relevance of the video to the query, higher is more relevant", example = "7.42")
+    private double score;
+}
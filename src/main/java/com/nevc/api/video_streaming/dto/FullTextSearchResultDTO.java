@@ -0,0 +1,36 @@
+package com.nevc.api.video_streaming.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class FullTextSearchResultDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1732050L;
+
+    @Schema(description = "One page of matching videos, most relevant first")
+    private List<FullTextHitDTO> items;
+
+    @Schema(description = "Cursor of the next page, absent on the last page", example = "Ny40MiwxMg")
+    private String nextCursor;
+
+    @Schema(description = "Number of videos matching any term of the query across all pages", example = "42")
+    private long total;
+}
@@ -0,0 +1,33 @@
+package com.nevc.api.video_streaming.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class ImpressionBatchDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1123581L;
+
+    @NotEmpty
+    @Schema(description = "Ids of the videos shown to the user", example = "[1, 2, 3]")
+    private List<@NotNull Long> videoIds;
+}
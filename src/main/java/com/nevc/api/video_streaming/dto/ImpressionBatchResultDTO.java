@@ -0,0 +1,32 @@
+package com.nevc.api.video_streaming.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class ImpressionBatchResultDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 3141592L;
+
+    @Schema(description = "Number of distinct video ids in the request", example = "60")
+    private int received;
+
+    @Schema(description = "Number of impressions queued, repeats within the deduplication window are not counted", example = "42")
+    private int recorded;
+}
@@ -0,0 +1,34 @@
+package com.nevc.api.video_streaming.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class PlaybackUrlDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 5318008L;
+
+    @Schema(description = "Signed playback URL, relative to the API root",
+            example = "/videos/play/1?uid=2&exp=1735689600&sig=q2Jm0c9T8ZcYp3nC0lq6HkqkF3vB1f8W2Qm9q7cXx4E")
+    private String url;
+
+    @Schema(description = "Time after which the URL is rejected", example = "2024-12-31T23:59:59Z")
+    private Instant expiresAt;
+}
@@ -0,0 +1,36 @@
+package com.nevc.api.video_streaming.dto;
+
+import com.nevc.api.video_streaming.enums.SuggestionType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class SuggestionDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2718281L;
+
+    @Schema(description = "Title, director or actor name to complete the query with", example = "The Dark Knight")
+    private String text;
+
+    @Schema(description = "Field the text comes from", example = "TITLE")
+    private SuggestionType type;
+
+    @Schema(description = "Popularity used for ranking: the number of active videos with the text plus their views", example = "1523")
+    private long weight;
+}
@@ -0,0 +1,32 @@
+package com.nevc.api.video_streaming.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class TrendingVideoDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 6021023L;
+
+    @Schema(description = "Video id", example = "1")
+    private Long videoId;
+
+    @Schema(description = "Weighted plays and impressions in the window, an upper bound of the exact value", example = "5230")
+    private long score;
+}
@@ -0,0 +1,42 @@
+package com.nevc.api.video_streaming.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class UniqueViewersDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2718281L;
+
+    @Schema(description = "Video id", example = "1")
+    private Long videoId;
+
+    @Schema(description = "First day counted", example = "2024-12-01")
+    private LocalDate from;
+
+    @Schema(description = "Last day counted", example = "2024-12-31")
+    private LocalDate to;
+
+    @Schema(description = "Estimated number of distinct users who played the video", example = "15230")
+    private long uniqueViewers;
+
+    @Schema(description = "Standard error of the estimate relative to the true count", example = "0.01625")
+    private double relativeError;
+}
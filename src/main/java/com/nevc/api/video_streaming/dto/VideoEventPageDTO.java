@@ -0,0 +1,34 @@
+package com.nevc.api.video_streaming.dto;
+
+import com.nevc.api.video_streaming.projections.VideoEventProjection;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class VideoEventPageDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 8675309L;
+
+    @Schema(description = "Impressions or views ordered by date and id")
+    private List<VideoEventProjection> items;
+
+    @Schema(description = "Cursor of the next page, absent on the last page", example = "MjAyNC0xMi0zMVQxMjowMCwxMjM0")
+    private String nextCursor;
+}
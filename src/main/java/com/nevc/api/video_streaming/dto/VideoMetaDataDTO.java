@@ -16,6 +16,7 @@ import lombok.ToString;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -73,4 +74,17 @@ public class VideoMetaDataDTO implements Serializable {
     @Schema(description = "File extension of the video", example = "mp4")
     @Column(name = "file_extension")
     private String fileExtension;
+
+    @Schema(description = "Strong entity tag of the video file", accessMode = Schema.AccessMode.READ_ONLY,
+            example = "3b4c1f0e9d7a2b6c8e5f4a3d2c1b0a9f8e7d6c5b4a3f2e1d0c9b8a7f6e5d4c3b")
+    private String etag;
+
+    @Schema(description = "Publish date of the video", accessMode = Schema.AccessMode.READ_ONLY, example = "2024-12-31")
+    private LocalDate publishedDate;
+
+    @Schema(description = "Last update date of the video", accessMode = Schema.AccessMode.READ_ONLY, example = "2024-12-31")
+    private LocalDate lastUpdatedDate;
+
+    @Schema(description = "Version of the metadata", accessMode = Schema.AccessMode.READ_ONLY, example = "3")
+    private Long version;
 }
@@ -0,0 +1,45 @@
+package com.nevc.api.video_streaming.dto;
+
+import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class VideoSearchResultDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1618033L;
+
+    @Schema(description = "One page of matching videos in the requested order")
+    private List<VideoMetaDataProjection> items;
+
+    @Schema(description = "Cursor of the next page, absent on the last page", example = "VGhlIERhcmsgS25pZ2h0LDQy")
+    private String nextCursor;
+
+    @Schema(description = "Number of videos matching the filters across all pages", example = "42")
+    private long total;
+
+    @Schema(description = "Number of matching videos per genre", example = "{\"ACTION\": 12, \"DRAMA\": 30}")
+    private Map<Genre, Long> genres;
+
+    @Schema(description = "Number of matching videos per decade of release", example = "{\"1990\": 8, \"2000\": 34}")
+    private Map<Integer, Long> decades;
+}
@@ -0,0 +1,40 @@
+package com.nevc.api.video_streaming.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class WatchProgressDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1414213L;
+
+    @Schema(description = "Video id", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long videoId;
+
+    @NotNull
+    @PositiveOrZero
+    @Schema(description = "Playback position in seconds from the start of the video", example = "754")
+    private Long positionSeconds;
+
+    @Schema(description = "When the position was reported", example = "2024-12-31T12:00:00", accessMode = Schema.AccessMode.READ_ONLY)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.nevc.api.video_streaming.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * A distinct User-Agent header, impressions and views reference it by id instead of repeating the text.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+@Entity
+@Table(name = "user_agents")
+public class UserAgent implements Serializable {
+
+    public static final int MAX_LENGTH = 512;
+
+    @Serial
+    private static final long serialVersionUID = 5120512L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Binary collation, agents differing only in case or trailing spaces are distinct
+    @Column(name = "user_agent", nullable = false, unique = true, length = MAX_LENGTH,
+            columnDefinition = "VARCHAR(512) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_bin")
+    private String value;
+}
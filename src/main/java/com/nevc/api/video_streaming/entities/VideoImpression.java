@@ -1,12 +1,16 @@
 package com.nevc.api.video_streaming.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nevc.api.video_streaming.converters.IpAddressConverter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -31,7 +35,7 @@ import java.time.LocalDateTime;
 @ToString
 @EqualsAndHashCode
 @Entity
-@Table(name = "videos_impressions")
+@Table(name = "videos_impressions", indexes = @Index(name = "idx_videos_impressions_video_date", columnList = "video_meta_data_id, impression_date, id"))
 public class VideoImpression implements Serializable {
 
     @Serial
@@ -57,11 +61,14 @@ public class VideoImpression implements Serializable {
     private LocalDateTime impressionDate;
 
     @Schema(description = "User IP", example = "34.221.34.123")
-    @Column(name = "user_ip")
+    @Convert(converter = IpAddressConverter.class)
+    @Column(name = "user_ip", columnDefinition = "VARBINARY(16)")
     private String userIp;
 
-    @Schema(description = "User agent",
-            example = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/58.0.3029.110 Safari/537.3")
-    @Column(name = "user_agent")
-    private String userAgent;
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_agent_id", referencedColumnName = "id")
+    private UserAgent userAgent;
 }
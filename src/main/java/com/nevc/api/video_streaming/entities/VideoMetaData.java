@@ -1,11 +1,14 @@
 package com.nevc.api.video_streaming.entities;
 
 import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.search.VideoSearchIndexListener;
+import com.nevc.api.video_streaming.services.VideoMetaDataCacheListener;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
@@ -15,7 +18,10 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
@@ -27,6 +33,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.Hibernate;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -42,6 +49,7 @@ import java.util.Set;
 @ToString
 @EqualsAndHashCode
 @Entity
+@EntityListeners({VideoSearchIndexListener.class, VideoMetaDataCacheListener.class})
 @Table(name = "videos_meta_data")
 public class VideoMetaData implements Serializable {
 
@@ -125,6 +133,10 @@ public class VideoMetaData implements Serializable {
     @CollectionTable(name = "videos_meta_data_genres", joinColumns = @JoinColumn(name = "video_meta_data_id"))
     private Set<Genre> genre = new HashSet<>();
 
+    @Schema(description = "Genres of the video as a bit mask, see Genre#bit", example = "129")
+    @Column(name = "genre_mask", nullable = false)
+    private long genreMask;
+
     @Schema(description = "Running time of the video in minutes", example = "152")
     @Column(name = "running_time", nullable = false)
     private int runningTime;
@@ -145,8 +157,30 @@ public class VideoMetaData implements Serializable {
     @Column(name = "file_extension", nullable = false)
     private String fileExtension;
 
+    @Schema(description = "Strong entity tag of the video file, the hex SHA-256 of its content",
+            example = "3b4c1f0e9d7a2b6c8e5f4a3d2c1b0a9f8e7d6c5b4a3f2e1d0c9b8a7f6e5d4c3b")
+    @Column(name = "etag", length = 64)
+    private String etag;
+
+    @Version
+    @Schema(description = "Version of the metadata, incremented on every update", example = "3")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Schema(description = "Active status of the video, (soft-deleted if false)", example = "true")
     @Builder.Default
     @Column(name = "active")
     private boolean active = true;
+
+    /**
+     * Keeps {@link #genreMask} in step with the genres. Genres that were never loaded cannot have changed, so the
+     * collection is not initialized during the flush just to recompute the same mask.
+     */
+    @PrePersist
+    @PreUpdate
+    void updateGenreMask() {
+        if (Hibernate.isInitialized(genre)) {
+            genreMask = Genre.mask(genre);
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package com.nevc.api.video_streaming.entities;
+
+import com.nevc.api.video_streaming.enums.StatsGranularity;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Impressions and views of a video counted per hour or per day. Rows are upserted by the analytics writer as events
+ * are ingested, so reading the counts of a video never touches the raw event tables.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+@Entity
+@Table(name = "videos_stats", uniqueConstraints = @UniqueConstraint(name = "uk_videos_stats_bucket",
+        columnNames = {"video_meta_data_id", "granularity", "bucket_start"}))
+public class VideoStats implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 7718290L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "video_meta_data_id", nullable = false)
+    private Long videoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private StatsGranularity granularity;
+
+    @Schema(description = "Start of the hour or day", example = "2024-12-31T12:00:00")
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "impressions", nullable = false)
+    private long impressions;
+
+    @Column(name = "views", nullable = false)
+    private long views;
+}
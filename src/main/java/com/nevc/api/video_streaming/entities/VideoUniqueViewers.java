@@ -0,0 +1,53 @@
+package com.nevc.api.video_streaming.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * The HyperLogLog registers of the viewers of a video on one day.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+@Entity
+@Table(name = "videos_unique_viewers", uniqueConstraints = @UniqueConstraint(name = "uk_videos_unique_viewers_day",
+        columnNames = {"video_meta_data_id", "view_day"}))
+public class VideoUniqueViewers implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 4096121L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "video_meta_data_id", nullable = false)
+    private Long videoId;
+
+    @Column(name = "view_day", nullable = false)
+    private LocalDate day;
+
+    @ToString.Exclude
+    @Column(name = "registers", nullable = false, length = 4096)
+    private byte[] registers;
+}
@@ -0,0 +1,55 @@
+package com.nevc.api.video_streaming.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * The last playback position a user reported for a video.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+@Entity
+@Table(name = "watch_progress", uniqueConstraints = @UniqueConstraint(name = "uk_watch_progress_user_video",
+        columnNames = {"user_id", "video_meta_data_id"}))
+public class WatchProgress implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 5772156L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "video_meta_data_id", nullable = false)
+    private Long videoId;
+
+    @Column(name = "position_seconds", nullable = false)
+    private long positionSeconds;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
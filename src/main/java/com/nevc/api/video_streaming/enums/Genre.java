@@ -1,5 +1,13 @@
 package com.nevc.api.video_streaming.enums;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Genres of a video. A set of genres is also stored as a 64-bit mask in which the bit at the ordinal of a genre is set,
+ * so new genres must be appended and there can be at most 64.
+ */
 public enum Genre {
     ACTION,
     COMEDY,
@@ -64,4 +72,29 @@ public enum Genre {
     FANTASY_SUPERHERO,
     FANTASY_SLICE_OF_LIFE,
     FANTASY_MECHA,
+    ;
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public static long mask(Collection<Genre> genres) {
+        long mask = 0;
+        if (genres != null) {
+            for (Genre genre : genres) {
+                mask |= genre.bit();
+            }
+        }
+        return mask;
+    }
+
+    public static Set<Genre> fromMask(long mask) {
+        Set<Genre> genres = EnumSet.noneOf(Genre.class);
+        for (Genre genre : values()) {
+            if ((mask & genre.bit()) != 0) {
+                genres.add(genre);
+            }
+        }
+        return genres;
+    }
 }
@@ -0,0 +1,6 @@
+package com.nevc.api.video_streaming.enums;
+
+public enum StatsGranularity {
+    HOUR,
+    DAY,
+}
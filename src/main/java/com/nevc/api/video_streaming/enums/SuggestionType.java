@@ -0,0 +1,7 @@
+package com.nevc.api.video_streaming.enums;
+
+public enum SuggestionType {
+    TITLE,
+    DIRECTOR,
+    ACTOR,
+}
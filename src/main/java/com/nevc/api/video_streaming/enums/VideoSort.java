@@ -0,0 +1,8 @@
+package com.nevc.api.video_streaming.enums;
+
+public enum VideoSort {
+    ID,
+    TITLE,
+    YEAR_OF_RELEASE,
+    RUNNING_TIME,
+}
@@ -0,0 +1,17 @@
+package com.nevc.api.video_streaming.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+public class RangeNotSatisfiableException extends RuntimeException {
+
+    private final long totalLength;
+
+    public RangeNotSatisfiableException(String message, long totalLength) {
+        super(message);
+        this.totalLength = totalLength;
+    }
+}
@@ -34,6 +34,10 @@ public class VideoMetaDataMapper {
                 .directorName(videoMetaData.getDirectorName())
                 .mainActor(videoMetaData.getMainActor())
                 .runningTime(videoMetaData.getRunningTime())
+                .etag(videoMetaData.getEtag())
+                .publishedDate(videoMetaData.getPublishedDate())
+                .lastUpdatedDate(videoMetaData.getLastUpdatedDate())
+                .version(videoMetaData.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,10 @@
+package com.nevc.api.video_streaming.projections;
+
+public interface CatalogFingerprintProjection {
+
+    long getVideos();
+
+    long getVersions();
+
+    long getMaxId();
+}
@@ -0,0 +1,16 @@
+package com.nevc.api.video_streaming.projections;
+
+import java.time.LocalDateTime;
+
+public interface VideoEventProjection {
+
+    Long getId();
+
+    Long getUserId();
+
+    LocalDateTime getEventDate();
+
+    String getUserIp();
+
+    String getUserAgent();
+}
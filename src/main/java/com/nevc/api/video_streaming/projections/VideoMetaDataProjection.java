@@ -6,6 +6,8 @@ import java.util.Set;
 
 public interface VideoMetaDataProjection {
 
+    Long getId();
+
     String getTitle();
 
     String getDirectorName();
@@ -0,0 +1,12 @@
+package com.nevc.api.video_streaming.projections;
+
+import java.time.LocalDateTime;
+
+public interface VideoStatsProjection {
+
+    LocalDateTime getBucketStart();
+
+    long getImpressions();
+
+    long getViews();
+}
@@ -0,0 +1,8 @@
+package com.nevc.api.video_streaming.projections;
+
+public interface VideoStatsTotalsProjection {
+
+    long getImpressions();
+
+    long getViews();
+}
@@ -0,0 +1,8 @@
+package com.nevc.api.video_streaming.projections;
+
+public interface VideoViewsProjection {
+
+    Long getVideoId();
+
+    long getViews();
+}
@@ -1,12 +1,42 @@
 package com.nevc.api.video_streaming.repositories;
 
 import com.nevc.api.video_streaming.entities.VideoImpression;
+import com.nevc.api.video_streaming.projections.VideoEventProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface VideoImpressionRepository extends JpaRepository<VideoImpression, Long> {
-    List<VideoImpression> findAllByVideoMetaData_Id(Long videoId);
+
+    /**
+     * The impressions after the (date, id) keyset position and before {@code to}, served by the index on
+     * (video_meta_data_id, impression_date, id) without loading users.
+     */
+    @Query("SELECT e.id AS id, e.user.id AS userId, e.impressionDate AS eventDate, e.userIp AS userIp, ua.value AS userAgent "
+            + "FROM VideoImpression e LEFT JOIN e.userAgent ua WHERE e.videoMetaData.id = :videoId AND e.impressionDate < :to "
+            + "AND (e.impressionDate > :afterDate OR (e.impressionDate = :afterDate AND e.id > :afterId)) "
+            + "ORDER BY e.impressionDate, e.id")
+    List<VideoEventProjection> findPage(@Param("videoId") Long videoId, @Param("afterDate") LocalDateTime afterDate,
+                                        @Param("afterId") Long afterId, @Param("to") LocalDateTime to, Limit limit);
+
+    /**
+     * Streams the impressions of a date range row by row, a fetch size of Integer.MIN_VALUE makes the MySQL driver read
+     * the result set incrementally instead of buffering it. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT e.id AS id, e.user.id AS userId, e.impressionDate AS eventDate, e.userIp AS userIp, ua.value AS userAgent "
+            + "FROM VideoImpression e LEFT JOIN e.userAgent ua WHERE e.videoMetaData.id = :videoId AND e.impressionDate >= :from AND e.impressionDate < :to "
+            + "ORDER BY e.impressionDate, e.id")
+    Stream<VideoEventProjection> streamByVideoId(@Param("videoId") Long videoId, @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
 }
@@ -1,12 +1,19 @@
 package com.nevc.api.video_streaming.repositories;
 
 import com.nevc.api.video_streaming.entities.VideoMetaData;
-import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.projections.CatalogFingerprintProjection;
+import com.nevc.api.video_streaming.projections.VideoCastProjection;
 import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,8 +21,34 @@ import java.util.Optional;
 public interface VideoMetaDataRepository extends JpaRepository<VideoMetaData, Long>, JpaSpecificationExecutor<VideoMetaData> {
     Optional<VideoMetaData> findByIdAndActiveTrue(Long videoId);
 
+    @Query("SELECT v.id FROM VideoMetaData v WHERE v.id IN :ids AND v.active = true")
+    List<Long> findActiveIds(@Param("ids") Collection<Long> ids);
+
     List<VideoMetaDataProjection> findAllByActiveTrue();
 
+    @Query("SELECT v.id AS videoId, a.fullName AS fullName FROM VideoMetaData v JOIN v.cast a WHERE v.active = true")
+    List<VideoCastProjection> findActiveCast();
+
+    List<VideoMetaDataProjection> findByIdInAndActiveTrue(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "cast")
+    @Query("SELECT v FROM VideoMetaData v WHERE v.active = true")
+    List<VideoMetaData> findActiveWithCast();
+
+    /**
+     * Changes whenever an active video is published, updated or deleted, since every update increments a version.
+     */
+    @Query("SELECT COUNT(v) AS videos, COALESCE(SUM(v.version), 0L) AS versions, COALESCE(MAX(v.id), 0L) AS maxId "
+            + "FROM VideoMetaData v WHERE v.active = true")
+    CatalogFingerprintProjection fingerprintActive();
+
+    /**
+     * Loads the matching videos with their genres and users in one query.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"genre", "publishedBy", "lastUpdatedBy", "deletedBy"})
+    List<VideoMetaData> findAll(Specification<VideoMetaData> specification);
+
     List<VideoMetaDataProjection> findByTitleContainingIgnoreCaseAndActiveTrue(String title);
 
     List<VideoMetaDataProjection> findByDirectorNameContainingIgnoreCaseAndActiveTrue(String directorName);
@@ -28,5 +61,17 @@ public interface VideoMetaDataRepository extends JpaRepository<VideoMetaData, Lo
 
     List<VideoMetaDataProjection> findByRunningTimeAndActiveTrue(int runningTime);
 
-    List<VideoMetaDataProjection> findByGenreContainingAndActiveTrue(Genre genre);
+    /**
+     * Active videos whose genre mask has any of the bits, tested on the {@code genre_mask} column without joining
+     * the genres table.
+     */
+    @Query("SELECT v FROM VideoMetaData v WHERE bitand(v.genreMask, :bits) <> 0 AND v.active = true ORDER BY v.id")
+    List<VideoMetaDataProjection> findActiveByGenreMask(@Param("bits") long bits);
+
+    @Query("SELECT DISTINCT v FROM VideoMetaData v JOIN FETCH v.genre WHERE v.genreMask = 0")
+    List<VideoMetaData> findAllWithoutGenreMask();
+
+    @Modifying
+    @Query("UPDATE VideoMetaData v SET v.genreMask = :genreMask WHERE v.id = :id")
+    int updateGenreMask(@Param("id") Long id, @Param("genreMask") long genreMask);
 }
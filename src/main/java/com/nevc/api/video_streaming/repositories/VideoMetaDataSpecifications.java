@@ -0,0 +1,66 @@
+package com.nevc.api.video_streaming.repositories;
+
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.search.VideoSearchCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the {@link Specification} of a {@link VideoSearchCriteria} over active videos, with the same semantics as
+ * {@link VideoSearchCriteria#matches}. Genre filters are bitwise tests of the {@code genre_mask} column, so they need
+ * no join with the genres table.
+ */
+public final class VideoMetaDataSpecifications {
+
+    private VideoMetaDataSpecifications() {
+    }
+
+    public static Specification<VideoMetaData> matching(VideoSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isTrue(root.get("active")));
+            addContains(predicates, cb, root.get("title"), criteria.getTitle());
+            addContains(predicates, cb, root.get("directorName"), criteria.getDirectorName());
+            addContains(predicates, cb, root.get("mainActor"), criteria.getMainActor());
+            Expression<Long> genreMask = root.get("genreMask");
+            if (criteria.getAnyGenreMask() != 0) {
+                predicates.add(cb.notEqual(bitand(cb, genreMask, criteria.getAnyGenreMask()), 0L));
+            }
+            if (criteria.getRequiredGenreMask() != 0) {
+                predicates.add(cb.equal(bitand(cb, genreMask, criteria.getRequiredGenreMask()), criteria.getRequiredGenreMask()));
+            }
+            if (criteria.getExcludedGenreMask() != 0) {
+                predicates.add(cb.equal(bitand(cb, genreMask, criteria.getExcludedGenreMask()), 0L));
+            }
+            addRange(predicates, cb, root.get("yearOfRelease"), criteria.getYearFrom(), criteria.getYearTo());
+            addRange(predicates, cb, root.get("runningTime"), criteria.getMinRunningTime(), criteria.getMaxRunningTime());
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static void addContains(List<Predicate> predicates, CriteriaBuilder cb, Expression<String> field, String value) {
+        if (value != null) {
+            String escaped = value.toLowerCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            predicates.add(cb.like(cb.lower(field), "%" + escaped + "%", '\\'));
+        }
+    }
+
+    private static Expression<Long> bitand(CriteriaBuilder cb, Expression<Long> mask, long bits) {
+        return cb.function("bitand", Long.class, mask, cb.literal(bits));
+    }
+
+    private static void addRange(List<Predicate> predicates, CriteriaBuilder cb, Expression<Integer> field, Integer min, Integer max) {
+        if (min != null) {
+            predicates.add(cb.greaterThanOrEqualTo(field, min));
+        }
+        if (max != null) {
+            predicates.add(cb.lessThanOrEqualTo(field, max));
+        }
+    }
+}
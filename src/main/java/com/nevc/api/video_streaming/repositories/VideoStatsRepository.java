@@ -0,0 +1,30 @@
+package com.nevc.api.video_streaming.repositories;
+
+import com.nevc.api.video_streaming.entities.VideoStats;
+import com.nevc.api.video_streaming.enums.StatsGranularity;
+import com.nevc.api.video_streaming.projections.VideoStatsProjection;
+import com.nevc.api.video_streaming.projections.VideoStatsTotalsProjection;
+import com.nevc.api.video_streaming.projections.VideoViewsProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VideoStatsRepository extends JpaRepository<VideoStats, Long> {
+
+    List<VideoStatsProjection> findByVideoIdAndGranularityAndBucketStartBetweenOrderByBucketStart(
+            Long videoId, StatsGranularity granularity, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(s.impressions), 0L) AS impressions, COALESCE(SUM(s.views), 0L) AS views "
+            + "FROM VideoStats s WHERE s.videoId = :videoId "
+            + "AND s.granularity = com.nevc.api.video_streaming.enums.StatsGranularity.DAY")
+    VideoStatsTotalsProjection sumByVideoId(@Param("videoId") Long videoId);
+
+    @Query("SELECT s.videoId AS videoId, SUM(s.views) AS views FROM VideoStats s "
+            + "WHERE s.granularity = com.nevc.api.video_streaming.enums.StatsGranularity.DAY GROUP BY s.videoId")
+    List<VideoViewsProjection> sumViewsByVideo();
+}
@@ -0,0 +1,20 @@
+package com.nevc.api.video_streaming.repositories;
+
+import com.nevc.api.video_streaming.entities.VideoUniqueViewers;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface VideoUniqueViewersRepository extends JpaRepository<VideoUniqueViewers, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<VideoUniqueViewers> findByVideoIdAndDay(Long videoId, LocalDate day);
+
+    List<VideoUniqueViewers> findByVideoIdAndDayBetween(Long videoId, LocalDate from, LocalDate to);
+}
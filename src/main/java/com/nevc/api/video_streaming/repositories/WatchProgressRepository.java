@@ -0,0 +1,12 @@
+package com.nevc.api.video_streaming.repositories;
+
+import com.nevc.api.video_streaming.entities.WatchProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface WatchProgressRepository extends JpaRepository<WatchProgress, Long> {
+    Optional<WatchProgress> findByUserIdAndVideoId(Long userId, Long videoId);
+}
@@ -0,0 +1,115 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.dto.VideoSearchResultDTO;
+import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.enums.VideoSort;
+import com.nevc.api.video_streaming.exceptions.BadRequestException;
+import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A single pass over the videos matching a search. Each match is counted per genre and per decade, and only the
+ * page following the cursor is kept, in a heap bounded by the page size, so the matches are never sorted as a whole.
+ * The cursor is the sort value and id of the last video of the previous page.
+ */
+public class FacetedSearch {
+
+    private final VideoSort sort;
+    private final Comparator<VideoDocument> order;
+    private final VideoDocument after;
+    private final int limit;
+    private final PriorityQueue<VideoDocument> page;
+    private final Map<Genre, Long> genres = new EnumMap<>(Genre.class);
+    private final Map<Integer, Long> decades = new TreeMap<>();
+    private long total;
+
+    public FacetedSearch(VideoSort sort, boolean descending, String cursor, int limit) {
+        this.sort = sort;
+        this.order = descending ? comparator(sort).reversed() : comparator(sort);
+        this.after = cursor != null ? decodeCursor(sort, cursor) : null;
+        this.limit = limit;
+        this.page = new PriorityQueue<>(limit + 1, order.reversed());
+    }
+
+    public void accept(VideoDocument video) {
+        total++;
+        for (Genre genre : video.getGenre()) {
+            genres.merge(genre, 1L, Long::sum);
+        }
+        decades.merge(video.getYearOfRelease() / 10 * 10, 1L, Long::sum);
+        if (after != null && order.compare(video, after) <= 0) {
+            return;
+        }
+        if (page.size() <= limit) {
+            page.add(video);
+        } else if (order.compare(video, page.peek()) < 0) {
+            page.poll();
+            page.add(video);
+        }
+    }
+
+    public VideoSearchResultDTO result() {
+        List<VideoDocument> items = new ArrayList<>(page);
+        items.sort(order);
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            nextCursor = encodeCursor(items.getLast());
+        }
+        return VideoSearchResultDTO.builder()
+                .items(new ArrayList<VideoMetaDataProjection>(items))
+                .nextCursor(nextCursor)
+                .total(total)
+                .genres(genres)
+                .decades(decades)
+                .build();
+    }
+
+    private static Comparator<VideoDocument> comparator(VideoSort sort) {
+        Comparator<VideoDocument> byId = Comparator.comparing(VideoDocument::getId);
+        return switch (sort) {
+            case ID -> byId;
+            case TITLE -> Comparator.comparing(VideoDocument::getTitle, String.CASE_INSENSITIVE_ORDER).thenComparing(byId);
+            case YEAR_OF_RELEASE -> Comparator.comparingInt(VideoDocument::getYearOfRelease).thenComparing(byId);
+            case RUNNING_TIME -> Comparator.comparingInt(VideoDocument::getRunningTime).thenComparing(byId);
+        };
+    }
+
+    private String encodeCursor(VideoDocument last) {
+        String value = switch (sort) {
+            case ID -> "";
+            case TITLE -> last.getTitle();
+            case YEAR_OF_RELEASE -> String.valueOf(last.getYearOfRelease());
+            case RUNNING_TIME -> String.valueOf(last.getRunningTime());
+        };
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((value + "," + last.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static VideoDocument decodeCursor(VideoSort sort, String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf(',');
+            String value = position.substring(0, Math.max(0, separator));
+            long id = Long.parseLong(position.substring(separator + 1));
+            return switch (sort) {
+                case ID -> new VideoDocument(id, "", "", "", 0, Set.of(), 0);
+                case TITLE -> new VideoDocument(id, value, "", "", 0, Set.of(), 0);
+                case YEAR_OF_RELEASE -> new VideoDocument(id, "", "", "", Integer.parseInt(value), Set.of(), 0);
+                case RUNNING_TIME -> new VideoDocument(id, "", "", "", 0, Set.of(), Integer.parseInt(value));
+            };
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.entities.Actor;
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.exceptions.BadRequestException;
+import com.nevc.api.video_streaming.projections.CatalogFingerprintProjection;
+import com.nevc.api.video_streaming.repositories.VideoMetaDataRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Relevance-ranked full-text search over the title, synopsis, director and cast of the active videos.
+ * <p>
+ * The terms of a video, see {@link TextAnalyzer}, go to an inverted index of term frequencies, and a query scores
+ * every video holding one of its terms with BM25: {@code idf(t) * tf * (k1 + 1) / (tf + k1 * (1 - b + b * dl / avgdl))}
+ * summed over the query terms, with {@code idf(t) = ln(1 + (N - df + 0.5) / (df + 0.5))}. Only the page following the
+ * cursor is kept, in a heap bounded by the page size. The cursor is the score and id of the last hit of the previous
+ * page.
+ * <p>
+ * The index is kept up to date by {@link VideoSearchIndexListener} and written to {@code video.search.fullText.path}
+ * every {@code video.search.fullText.persistInterval} when it changed, and on shutdown. At startup the file is loaded
+ * if its fingerprint, the count, version sum and highest id of the indexed videos, still matches the active videos
+ * in the database. Otherwise the index is rebuilt from the database. Until then searches are refused.
+ */
+@Slf4j
+@Component
+public class FullTextIndex implements MeterBinder {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    private static final int MAGIC = 0x424D3235;
+    /**
+     * Version of the file layout and of the {@link TextAnalyzer}, a file of another version is rebuilt.
+     */
+    static final int FORMAT = 1;
+
+    private final VideoMetaDataRepository videoMetaDataRepository;
+    private final Path file;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private long totalLength;
+    /**
+     * Changes applied while {@link #load()} runs, by video id, null for a removal. The file or rows it reads may
+     * predate them, so they are applied again over the loaded documents. Null when no load is running.
+     */
+    private Map<Long, FullTextDocument> changedDuringLoad;
+    private volatile boolean ready;
+    private volatile boolean dirty;
+
+    @Autowired
+    public FullTextIndex(VideoMetaDataRepository videoMetaDataRepository,
+                         @Value("${video.search.fullText.path:search-index/}") String path) {
+        this.videoMetaDataRepository = videoMetaDataRepository;
+        this.file = Paths.get(path).resolve("fulltext.idx");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        trackChanges(new HashMap<>());
+        try {
+            loadOrRebuild();
+        } finally {
+            trackChanges(null);
+        }
+    }
+
+    private void loadOrRebuild() {
+        CatalogFingerprintProjection catalog = videoMetaDataRepository.fingerprintActive();
+        Fingerprint expected = new Fingerprint(catalog.getVideos(), catalog.getVersions(), catalog.getMaxId());
+        if (Files.exists(file)) {
+            try {
+                if (read(expected)) {
+                    ready = true;
+                    log.info("Full-text index loaded from {} with {} videos", file, size());
+                    return;
+                }
+                log.info("Full-text index at {} is stale, rebuilding it", file);
+            } catch (IOException e) {
+                log.warn("Full-text index at {} could not be read, rebuilding it", file, e);
+            }
+        }
+        List<VideoMetaData> active = videoMetaDataRepository.findActiveWithCast();
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (VideoMetaData video : active) {
+                add(snapshot(video));
+            }
+            replayChanges();
+            ready = true;
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Full-text index rebuilt with {} videos", active.size());
+        persist();
+    }
+
+    public void put(FullTextDocument document) {
+        lock.writeLock().lock();
+        try {
+            subtract(document.getVideoId());
+            add(document);
+            dirty = true;
+            if (changedDuringLoad != null) {
+                changedDuringLoad.put(document.getVideoId(), document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long videoId) {
+        lock.writeLock().lock();
+        try {
+            dirty |= subtract(videoId);
+            if (changedDuringLoad != null) {
+                changedDuringLoad.put(videoId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The page of hits following the cursor, highest score first, then by id, and the number of matching videos.
+     */
+    public Page search(String query, String cursor, int limit) {
+        Hit after = cursor != null ? decodeCursor(cursor) : null;
+        Comparator<Hit> order = Comparator.comparingDouble(Hit::getScore).reversed().thenComparing(Hit::getVideoId);
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = score(new LinkedHashSet<>(TextAnalyzer.terms(query)));
+            PriorityQueue<Hit> page = new PriorityQueue<>(limit + 1, order.reversed());
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                Hit hit = new Hit(entry.getKey(), entry.getValue());
+                if (after != null && order.compare(hit, after) <= 0) {
+                    continue;
+                }
+                if (page.size() <= limit) {
+                    page.add(hit);
+                } else if (order.compare(hit, page.peek()) < 0) {
+                    page.poll();
+                    page.add(hit);
+                }
+            }
+            List<Hit> hits = new ArrayList<>(page);
+            hits.sort(order);
+            String nextCursor = null;
+            if (hits.size() > limit) {
+                hits = hits.subList(0, limit);
+                nextCursor = encodeCursor(hits.getLast());
+            }
+            return new Page(List.copyOf(hits), nextCursor, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the index to disk if it changed since it was last written. The file is replaced atomically, so a crash
+     * leaves the previous one, whose fingerprint no longer matches and gets rebuilt.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${video.search.fullText.persistInterval:1m}")
+    public void persist() {
+        if (!ready || !dirty) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            dirty = false;
+            Files.createDirectories(file.getParent());
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            write(temporary);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Full-text index could not be written to {}", file, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the searchable text of a video being flushed. A cast that was never loaded cannot have changed, so the
+     * indexed actors are kept instead of initializing the collection during the flush.
+     */
+    FullTextDocument snapshot(VideoMetaData video) {
+        List<String> cast;
+        if (Hibernate.isInitialized(video.getCast())) {
+            cast = video.getCast() != null ? video.getCast().stream().map(Actor::getFullName).toList() : List.of();
+        } else {
+            lock.readLock().lock();
+            try {
+                IndexedDocument indexed = documents.get(video.getId());
+                cast = indexed != null ? indexed.cast : List.of();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return new FullTextDocument(video.getId(), video.getVersion() != null ? video.getVersion() : 0,
+                video.getTitle(), video.getSynopsis(), video.getDirectorName(), video.getMainActor(), cast);
+    }
+
+    private Map<Long, Double> score(Set<String> terms) {
+        Map<Long, Double> scores = new HashMap<>();
+        if (documents.isEmpty()) {
+            return scores;
+        }
+        int count = documents.size();
+        double averageLength = Math.max(1.0, (double) totalLength / count);
+        for (String term : terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (count - posting.size() + 0.5) / (posting.size() + 0.5));
+            for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                int frequency = entry.getValue();
+                int length = documents.get(entry.getKey()).length;
+                double score = idf * frequency * (K1 + 1)
+                        / (frequency + K1 * (1 - B + B * length / averageLength));
+                scores.merge(entry.getKey(), score, Double::sum);
+            }
+        }
+        return scores;
+    }
+
+    private void trackChanges(Map<Long, FullTextDocument> changes) {
+        lock.writeLock().lock();
+        try {
+            changedDuringLoad = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the changes made during the load again over the loaded documents, under the write lock.
+     */
+    private void replayChanges() {
+        changedDuringLoad.forEach((videoId, document) -> {
+            subtract(videoId);
+            if (document != null) {
+                add(document);
+            }
+        });
+        dirty |= !changedDuringLoad.isEmpty();
+    }
+
+    private void add(FullTextDocument document) {
+        Set<String> names = new LinkedHashSet<>();
+        if (document.getMainActor() != null) {
+            names.add(document.getMainActor());
+        }
+        names.addAll(document.getCast());
+        List<String> terms = new ArrayList<>();
+        terms.addAll(TextAnalyzer.terms(document.getTitle()));
+        terms.addAll(TextAnalyzer.terms(document.getSynopsis()));
+        terms.addAll(TextAnalyzer.terms(document.getDirectorName()));
+        names.forEach(name -> terms.addAll(TextAnalyzer.terms(name)));
+        Map<String, Integer> frequencies = new HashMap<>();
+        terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        index(document.getVideoId(), new IndexedDocument(document.getVersion(), List.copyOf(document.getCast()),
+                frequencies));
+    }
+
+    private void index(long videoId, IndexedDocument document) {
+        documents.put(videoId, document);
+        totalLength += document.length;
+        document.frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(videoId, frequency));
+    }
+
+    private boolean subtract(Long videoId) {
+        IndexedDocument document = documents.remove(videoId);
+        if (document == null) {
+            return false;
+        }
+        totalLength -= document.length;
+        for (String term : document.frequencies.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null && posting.remove(videoId) != null && posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        return true;
+    }
+
+    private void clear() {
+        documents.clear();
+        postings.clear();
+        totalLength = 0;
+    }
+
+    private Fingerprint fingerprint() {
+        long versions = 0;
+        long maxId = 0;
+        for (Map.Entry<Long, IndexedDocument> entry : documents.entrySet()) {
+            versions += entry.getValue().version;
+            maxId = Math.max(maxId, entry.getKey());
+        }
+        return new Fingerprint(documents.size(), versions, maxId);
+    }
+
+    private void write(Path target) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(target)), new CRC32());
+        try (DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            Fingerprint fingerprint = fingerprint();
+            out.writeLong(fingerprint.getVideos());
+            out.writeLong(fingerprint.getVersions());
+            out.writeLong(fingerprint.getMaxId());
+            out.writeInt(documents.size());
+            for (Map.Entry<Long, IndexedDocument> entry : documents.entrySet()) {
+                IndexedDocument document = entry.getValue();
+                out.writeLong(entry.getKey());
+                out.writeLong(document.version);
+                out.writeInt(document.cast.size());
+                for (String actor : document.cast) {
+                    out.writeUTF(actor);
+                }
+                out.writeInt(document.frequencies.size());
+                for (Map.Entry<String, Integer> term : document.frequencies.entrySet()) {
+                    out.writeUTF(term.getKey());
+                    out.writeInt(term.getValue());
+                }
+            }
+            out.writeLong(checked.getChecksum().getValue());
+        }
+    }
+
+    /**
+     * Loads the file if it was written in this format from the expected videos, and replaces the index with it.
+     */
+    private boolean read(Fingerprint expected) throws IOException {
+        Map<Long, IndexedDocument> loaded = new HashMap<>();
+        CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), new CRC32());
+        try (DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                return false;
+            }
+            Fingerprint stored = new Fingerprint(in.readLong(), in.readLong(), in.readLong());
+            if (!stored.equals(expected)) {
+                return false;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long videoId = in.readLong();
+                long version = in.readLong();
+                int actors = in.readInt();
+                List<String> cast = new ArrayList<>(actors);
+                for (int j = 0; j < actors; j++) {
+                    cast.add(in.readUTF());
+                }
+                int terms = in.readInt();
+                Map<String, Integer> frequencies = new HashMap<>(terms * 2);
+                for (int j = 0; j < terms; j++) {
+                    frequencies.put(in.readUTF(), in.readInt());
+                }
+                loaded.put(videoId, new IndexedDocument(version, List.copyOf(cast), frequencies));
+            }
+            long checksum = checked.getChecksum().getValue();
+            if (in.readLong() != checksum) {
+                throw new IOException("Checksum mismatch");
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded.forEach(this::index);
+            dirty = false;
+            replayChanges();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    private static String encodeCursor(Hit last) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((last.getScore() + "," + last.getVideoId()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Hit decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf(',');
+            return new Hit(Long.parseLong(position.substring(separator + 1)),
+                    Double.parseDouble(position.substring(0, Math.max(0, separator))));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("video.search.fulltext.documents", this, FullTextIndex::size)
+                .description("Active videos held in the full-text index")
+                .register(registry);
+        Gauge.builder("video.search.fulltext.terms", this, FullTextIndex::terms)
+                .description("Distinct terms held in the full-text index")
+                .register(registry);
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int terms() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The text a video is searchable by.
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class FullTextDocument {
+        private final Long videoId;
+        private final long version;
+        private final String title;
+        private final String synopsis;
+        private final String directorName;
+        private final String mainActor;
+        private final List<String> cast;
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class Hit {
+        private final long videoId;
+        private final double score;
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class Page {
+        private final List<Hit> hits;
+        private final String nextCursor;
+        private final long total;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    @Getter
+    private static class Fingerprint {
+        private final long videos;
+        private final long versions;
+        private final long maxId;
+    }
+
+    private static class IndexedDocument {
+        private final long version;
+        private final List<String> cast;
+        private final Map<String, Integer> frequencies;
+        private final int length;
+
+        IndexedDocument(long version, List<String> cast, Map<String, Integer> frequencies) {
+            this.version = version;
+            this.cast = cast;
+            this.frequencies = frequencies;
+            this.length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.nevc.api.video_streaming.search;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo-tolerant index of one text field, scored by the Dice similarity of word trigrams.
+ * <p>
+ * Every word is padded as {@code "  word "} and cut into trigrams, so "nolen" and "nolan" share the trigrams of
+ * their start. Each word of the query must be similar to some word of the text, {@code 2|Q ∩ W| / (|Q| + |W|)} at
+ * least the threshold t, and the text is scored by the mean of those best similarities. So "cristopher nolen" finds
+ * "Christopher Nolan" and "nolen" alone does too, while a query sharing only one of its words with a text does not.
+ * <p>
+ * Since {@code |Q ∩ W| <= |W|}, a word can only reach t if it shares at least {@code t|Q| / (2 - t)} trigrams with
+ * the query word. Only texts found in the postings of the {@code |Q| - minOverlap + 1} rarest trigrams of a query word
+ * can share that many, so candidates are taken from the query word whose rarest postings are the shortest, and only
+ * those are scored.
+ * Not thread-safe, {@link VideoSearchIndex} guards it with its lock.
+ */
+class FuzzyIndex {
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, List<Set<String>>> texts = new HashMap<>();
+
+    void put(long id, String text) {
+        remove(id);
+        List<Set<String>> words = new ArrayList<>();
+        for (String word : words(text)) {
+            Set<String> grams = trigrams(word);
+            words.add(grams);
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+            }
+        }
+        texts.put(id, words);
+    }
+
+    void remove(long id) {
+        List<Set<String>> words = texts.remove(id);
+        if (words == null) {
+            return;
+        }
+        for (Set<String> grams : words) {
+            for (String gram : grams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        texts.clear();
+    }
+
+    /**
+     * Ids whose text has a word at least {@code threshold} similar to every word of the query, most similar first,
+     * then by id.
+     */
+    List<Match> search(String query, double threshold) {
+        List<Set<String>> queryWords = new ArrayList<>();
+        for (String word : words(query)) {
+            queryWords.add(trigrams(word));
+        }
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+        List<Set<Long>> selective = null;
+        int selectiveSize = Integer.MAX_VALUE;
+        for (Set<String> grams : queryWords) {
+            List<Set<Long>> lists = rarestPostings(grams, threshold);
+            int size = lists.stream().mapToInt(Set::size).sum();
+            if (size < selectiveSize) {
+                selective = lists;
+                selectiveSize = size;
+            }
+        }
+        Set<Long> candidates = new HashSet<>();
+        selective.forEach(candidates::addAll);
+        List<Match> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            double score = score(queryWords, texts.get(id), threshold);
+            if (score >= threshold) {
+                matches.add(new Match(id, score));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::getScore).reversed().thenComparing(Match::getId));
+        return matches;
+    }
+
+    private List<Set<Long>> rarestPostings(Set<String> grams, double threshold) {
+        int minOverlap = Math.max(1, (int) Math.ceil(threshold * grams.size() / (2 - threshold)));
+        List<Set<Long>> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            lists.add(postings.getOrDefault(gram, Set.of()));
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        return lists.subList(0, grams.size() - minOverlap + 1);
+    }
+
+    /**
+     * The mean best similarity of the query words, or 0 as soon as one of them has no similar word.
+     */
+    private static double score(List<Set<String>> queryWords, List<Set<String>> words, double threshold) {
+        double total = 0;
+        for (Set<String> query : queryWords) {
+            double best = 0;
+            for (Set<String> word : words) {
+                best = Math.max(best, 2.0 * overlap(query, word) / (query.size() + word.size()));
+            }
+            if (best < threshold) {
+                return 0;
+            }
+            total += best;
+        }
+        return total / queryWords.size();
+    }
+
+    int size() {
+        return texts.size();
+    }
+
+    private static int overlap(Set<String> queryGrams, Set<String> grams) {
+        int count = 0;
+        for (String gram : queryGrams) {
+            if (grams.contains(gram)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String[] words(String text) {
+        return Arrays.stream(NGramIndex.normalize(text).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static Set<String> trigrams(String word) {
+        Set<String> grams = new HashSet<>();
+        String padded = "  " + word + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    static class Match {
+        private final long id;
+        private final double score;
+    }
+}
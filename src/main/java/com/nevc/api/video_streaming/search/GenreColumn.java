@@ -0,0 +1,80 @@
+package com.nevc.api.video_streaming.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * The genre masks of the indexed videos in one dense {@code long[]}, with the video ids in a parallel array. A genre
+ * filter is a tight loop over the masks, with no per-video object or collection to visit. A removed video is replaced
+ * by the last one, so the arrays stay dense and the order of the slots is arbitrary.
+ * Not thread-safe, {@link VideoSearchIndex} guards it with its lock.
+ */
+class GenreColumn {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] masks = new long[INITIAL_CAPACITY];
+    private int size;
+
+    void put(long id, long mask) {
+        Integer slot = slots.get(id);
+        if (slot != null) {
+            masks[slot] = mask;
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            masks = Arrays.copyOf(masks, size * 2);
+        }
+        ids[size] = id;
+        masks[size] = mask;
+        slots.put(id, size++);
+    }
+
+    void remove(long id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            masks[slot] = masks[last];
+            slots.put(ids[slot], slot);
+        }
+    }
+
+    void clear() {
+        slots.clear();
+        size = 0;
+    }
+
+    /**
+     * Ids of the videos whose mask matches, in ascending order.
+     */
+    List<Long> scan(LongPredicate filter) {
+        long[] matches = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(masks[i])) {
+                matches[count++] = ids[i];
+            }
+        }
+        Arrays.sort(matches, 0, count);
+        List<Long> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(matches[i]);
+        }
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+}
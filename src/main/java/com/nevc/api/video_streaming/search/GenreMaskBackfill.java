@@ -0,0 +1,37 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.repositories.VideoMetaDataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Sets the genre mask of videos stored before the {@code genre_mask} column existed, which was added with a mask of
+ * zero. The masks are written with bulk updates, so the version and entity tag of the metadata do not change.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GenreMaskBackfill {
+
+    private final VideoMetaDataRepository videoMetaDataRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        List<VideoMetaData> videos = videoMetaDataRepository.findAllWithoutGenreMask();
+        for (VideoMetaData video : videos) {
+            videoMetaDataRepository.updateGenreMask(video.getId(), Genre.mask(video.getGenre()));
+        }
+        if (!videos.isEmpty()) {
+            log.info("Set the genre mask of {} videos", videos.size());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.nevc.api.video_streaming.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Case-insensitive substring index of one text field.
+ * <p>
+ * Every 1, 2 and 3 character gram of a text points to the ids containing it. A query of up to three characters is a
+ * single posting lookup; a longer query intersects the postings of its trigrams, starting with the shortest, and the
+ * few candidates left are checked against the text, so the result is exactly that of {@code LIKE '%query%'}.
+ * Not thread-safe, {@link VideoSearchIndex} guards it with its lock.
+ */
+class NGramIndex {
+
+    static final int MAX_GRAM = 3;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, String> texts = new HashMap<>();
+
+    void put(long id, String text) {
+        remove(id);
+        String normalized = normalize(text);
+        texts.put(id, normalized);
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    void remove(long id) {
+        String normalized = texts.remove(id);
+        if (normalized == null) {
+            return;
+        }
+        for (String gram : grams(normalized)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        texts.clear();
+    }
+
+    /**
+     * Ids whose text contains the query, ignoring case, in ascending order.
+     */
+    List<Long> search(String query) {
+        String normalized = normalize(query);
+        List<Long> result;
+        if (normalized.isEmpty()) {
+            result = new ArrayList<>(texts.keySet());
+        } else if (normalized.length() <= MAX_GRAM) {
+            result = new ArrayList<>(postings.getOrDefault(normalized, Set.of()));
+        } else {
+            result = intersect(normalized);
+        }
+        result.sort(Comparator.naturalOrder());
+        return result;
+    }
+
+    private List<Long> intersect(String normalized) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (int i = 0; i + MAX_GRAM <= normalized.length(); i++) {
+            Set<Long> ids = postings.get(normalized.substring(i, i + MAX_GRAM));
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        List<Long> result = new ArrayList<>();
+        candidates:
+        for (Long id : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue candidates;
+                }
+            }
+            if (texts.get(id).contains(normalized)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return texts.size();
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= normalized.length(); i++) {
+                grams.add(normalized.substring(i, i + n));
+            }
+        }
+        return grams;
+    }
+}
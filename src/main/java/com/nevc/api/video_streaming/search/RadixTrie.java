@@ -0,0 +1,192 @@
+package com.nevc.api.video_streaming.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compressed prefix trie from normalized keys to {@link Suggestion}s.
+ * <p>
+ * Edges hold whole substrings, so a node exists only where keys branch or end. Every node also keeps the best
+ * {@code capacity} suggestions of its subtree. A query therefore walks at most the length of the prefix and returns a
+ * list that is already ranked. After any insert, removal or weight change, the ranked lists on the path of the key are
+ * rebuilt bottom-up from the children's lists.
+ * Not thread-safe, {@link SuggestionIndex} guards it with its lock.
+ */
+class RadixTrie {
+
+    static final Comparator<Suggestion> RANKING = Comparator.comparingLong(Suggestion::getWeight).reversed()
+            .thenComparing(Suggestion::getText)
+            .thenComparing(Suggestion::getType);
+
+    private final int capacity;
+    private final Node root = new Node("");
+
+    RadixTrie(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(String key, Suggestion suggestion) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        path.push(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+                i = key.length();
+            } else {
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.children.put(child.label.charAt(0), child);
+                    node.children.put(key.charAt(i), split);
+                    child = split;
+                }
+                i += common;
+            }
+            node = child;
+            path.push(node);
+        }
+        if (!node.suggestions.contains(suggestion)) {
+            node.suggestions.add(suggestion);
+        }
+        rank(path);
+    }
+
+    void remove(String key, Suggestion suggestion) {
+        Deque<Node> path = find(key);
+        if (path == null || !path.peek().suggestions.remove(suggestion)) {
+            return;
+        }
+        List<Node> nodes = new ArrayList<>(path);
+        for (int i = 0; i < nodes.size() - 1; i++) {
+            Node node = nodes.get(i);
+            Node parent = nodes.get(i + 1);
+            if (!node.suggestions.isEmpty()) {
+                continue;
+            }
+            if (node.children.isEmpty()) {
+                parent.children.remove(node.label.charAt(0));
+            } else if (node.children.size() == 1) {
+                Node child = node.children.values().iterator().next();
+                node.label = node.label + child.label;
+                node.children = child.children;
+                node.suggestions.addAll(child.suggestions);
+                node.ranked = child.ranked;
+            }
+        }
+        rank(path);
+    }
+
+    /**
+     * Re-ranks the path of a key after the weight of one of its suggestions changed.
+     */
+    void reweigh(String key) {
+        Deque<Node> path = find(key);
+        if (path != null) {
+            rank(path);
+        }
+    }
+
+    /**
+     * Re-ranks every node, cheaper than {@link #reweigh} per key after many weights changed.
+     */
+    void rankAll() {
+        rankSubtree(root);
+    }
+
+    void clear() {
+        root.children.clear();
+        root.suggestions.clear();
+        root.ranked = List.of();
+    }
+
+    /**
+     * The best suggestions having a key that starts with the prefix, highest weight first.
+     */
+    List<Suggestion> top(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(i));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                return child.ranked;
+            }
+            if (common < child.label.length()) {
+                return List.of();
+            }
+            node = child;
+            i += common;
+        }
+        return node.ranked;
+    }
+
+    private Deque<Node> find(String key) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        path.push(node);
+        int i = 0;
+        while (i < key.length()) {
+            node = node.children.get(key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) {
+                return null;
+            }
+            i += node.label.length();
+            path.push(node);
+        }
+        return path;
+    }
+
+    private void rank(Deque<Node> path) {
+        for (Node node : path) {
+            node.ranked = best(node);
+        }
+    }
+
+    private void rankSubtree(Node node) {
+        for (Node child : node.children.values()) {
+            rankSubtree(child);
+        }
+        node.ranked = best(node);
+    }
+
+    private List<Suggestion> best(Node node) {
+        List<Suggestion> candidates = new ArrayList<>(node.suggestions);
+        for (Node child : node.children.values()) {
+            candidates.addAll(child.ranked);
+        }
+        return candidates.stream().distinct().sorted(RANKING).limit(capacity).toList();
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        private String label;
+        private Map<Character, Node> children = new HashMap<>();
+        private final List<Suggestion> suggestions = new ArrayList<>(1);
+        private List<Suggestion> ranked = List.of();
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+}
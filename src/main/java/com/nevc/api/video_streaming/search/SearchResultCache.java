@@ -0,0 +1,250 @@
+package com.nevc.api.video_streaming.search;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Results of the video searches, least recently used first out once their total weight, one per result plus one per
+ * video or facet it holds, exceeds {@code video.search.cache.maxWeight}.
+ * <p>
+ * Concurrent misses of the same search are coalesced: the first one runs the search and the others wait for its
+ * result, so a burst of identical searches costs one query. Each result is stored with a predicate telling which
+ * {@link VideoChange} makes it stale, and {@link #invalidate(VideoChange)} drops only those. A search still running
+ * when any change is invalidated is not stored, since it may have read the video before the change.
+ */
+@Component
+public class SearchResultCache implements MeterBinder {
+
+    private final long maxWeight;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, CachedResult> results = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private long weight;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public SearchResultCache(@Value("${video.search.cache.maxWeight:100000}") long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the cached result of the search, or runs it once for all concurrent callers and caches its result.
+     *
+     * @param weigher    the number of videos or facets a result holds
+     * @param dependency the changes that make a result stale
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader, ToIntFunction<T> weigher,
+                     Function<T, Predicate<VideoChange>> dependency) {
+        long loadGeneration;
+        lock.lock();
+        try {
+            CachedResult cached = results.get(key);
+            if (cached != null) {
+                hits.increment();
+                return (T) cached.value;
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> leader = loading.putIfAbsent(key, load);
+        if (leader != null) {
+            coalesced.increment();
+            return (T) await(leader);
+        }
+        misses.increment();
+        try {
+            T value = loader.get();
+            store(key, new CachedResult(value, 1L + weigher.applyAsInt(value), dependency.apply(value)), loadGeneration);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    /**
+     * Drops the results made stale by a committed change. {@link VideoSearchIndexListener} calls it once the search
+     * index has applied the change, so a search run after it reads the new metadata.
+     */
+    public void invalidate(VideoChange change) {
+        if (!change.isEffective()) {
+            return;
+        }
+        lock.lock();
+        try {
+            generation++;
+            loading.clear();
+            Iterator<CachedResult> iterator = results.values().iterator();
+            while (iterator.hasNext()) {
+                CachedResult cached = iterator.next();
+                if (cached.staleAfter.test(change)) {
+                    iterator.remove();
+                    weight -= cached.weight;
+                    invalidations.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every result, for changes whose previous metadata is unknown.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            loading.clear();
+            invalidations.add(results.size());
+            results.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(Key key, CachedResult cached, long loadGeneration) {
+        if (cached.weight > maxWeight) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (generation != loadGeneration) {
+                return;
+            }
+            CachedResult previous = results.put(key, cached);
+            weight += cached.weight - (previous != null ? previous.weight : 0);
+            Iterator<CachedResult> eldest = results.values().iterator();
+            while (weight > maxWeight) {
+                weight -= eldest.next().weight;
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return results.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long weight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("video.search.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Searches answered from the result cache")
+                .register(registry);
+        FunctionCounter.builder("video.search.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Searches that ran and cached their result")
+                .register(registry);
+        FunctionCounter.builder("video.search.cache.requests", coalesced, LongAdder::sum)
+                .tag("result", "coalesced")
+                .description("Searches that waited for an identical search already running")
+                .register(registry);
+        FunctionCounter.builder("video.search.cache.evictions", evictions, LongAdder::sum)
+                .tag("cause", "size")
+                .description("Search results evicted from the cache")
+                .register(registry);
+        FunctionCounter.builder("video.search.cache.evictions", invalidations, LongAdder::sum)
+                .tag("cause", "invalidation")
+                .description("Search results evicted from the cache")
+                .register(registry);
+        Gauge.builder("video.search.cache.weight", this, SearchResultCache::weight)
+                .description("Cached search results plus the videos and facets they hold")
+                .register(registry);
+    }
+
+    /**
+     * A search and its arguments.
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    public static class Key {
+        private final String search;
+        private final List<Object> arguments;
+
+        public Key(String search, Object... arguments) {
+            this.search = search;
+            this.arguments = Arrays.asList(arguments);
+        }
+    }
+
+    private static class CachedResult {
+        private final Object value;
+        private final long weight;
+        private final Predicate<VideoChange> staleAfter;
+
+        CachedResult(Object value, long weight, Predicate<VideoChange> staleAfter) {
+            this.value = value;
+            this.weight = weight;
+            this.staleAfter = staleAfter;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.dto.SuggestionDTO;
+import com.nevc.api.video_streaming.enums.SuggestionType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A completion held by the {@link RadixTrie}, shared by every video with the same text. Its weight is the number of
+ * those videos plus their views. Identity matters: the trie compares suggestions by reference.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+class Suggestion {
+
+    private final SuggestionType type;
+    private final String text;
+    private long weight;
+    private int videos;
+
+    void add(long weight) {
+        this.weight += weight;
+        videos++;
+    }
+
+    void subtract(long weight) {
+        this.weight -= weight;
+        videos--;
+    }
+
+    void adjust(long delta) {
+        weight += delta;
+    }
+
+    SuggestionDTO toDTO() {
+        return new SuggestionDTO(text, type, weight);
+    }
+}
@@ -0,0 +1,369 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.dto.SuggestionDTO;
+import com.nevc.api.video_streaming.entities.Actor;
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.enums.SuggestionType;
+import com.nevc.api.video_streaming.projections.VideoCastProjection;
+import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import com.nevc.api.video_streaming.projections.VideoViewsProjection;
+import com.nevc.api.video_streaming.repositories.VideoMetaDataRepository;
+import com.nevc.api.video_streaming.repositories.VideoStatsRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Autocompletion of titles, directors and actor names of the active videos from a {@link RadixTrie}.
+ * <p>
+ * Every distinct text is one {@link Suggestion}, reachable from the start of each of its words, so "kni" completes
+ * "The Dark Knight". Its weight is the number of active videos with the text plus the views of those videos, which
+ * are reloaded from the daily stats every {@code video.search.suggest.popularityRefreshInterval}. The trie is loaded
+ * once the application is ready and kept up to date by {@link VideoSearchIndexListener}. Until it is loaded there are
+ * no suggestions.
+ */
+@Slf4j
+@Component
+public class SuggestionIndex implements MeterBinder {
+
+    private final VideoMetaDataRepository videoMetaDataRepository;
+    private final VideoStatsRepository videoStatsRepository;
+    private final int maxResults;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RadixTrie trie;
+    private final Map<Term, Suggestion> suggestions = new HashMap<>();
+    private final Map<Long, IndexedVideo> videos = new HashMap<>();
+    /**
+     * Changes applied while {@link #rebuild()} runs, by video id, null for a removal. The rows it reads may predate
+     * them, so they are applied again over the loaded rows. Null when no rebuild is running.
+     */
+    private Map<Long, VideoTerms> changedDuringRebuild;
+    private volatile boolean ready;
+
+    @Autowired
+    public SuggestionIndex(VideoMetaDataRepository videoMetaDataRepository,
+                           VideoStatsRepository videoStatsRepository,
+                           @Value("${video.search.suggest.maxResults:10}") int maxResults) {
+        this.videoMetaDataRepository = videoMetaDataRepository;
+        this.videoStatsRepository = videoStatsRepository;
+        this.maxResults = maxResults;
+        this.trie = new RadixTrie(maxResults);
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        trackChanges(new HashMap<>());
+        try {
+            List<VideoMetaDataProjection> active = videoMetaDataRepository.findAllByActiveTrue();
+            Map<Long, Set<String>> cast = new HashMap<>();
+            for (VideoCastProjection actor : videoMetaDataRepository.findActiveCast()) {
+                cast.computeIfAbsent(actor.getVideoId(), id -> new LinkedHashSet<>()).add(actor.getFullName());
+            }
+            Map<Long, Long> views = loadViews();
+            lock.writeLock().lock();
+            try {
+                trie.clear();
+                suggestions.clear();
+                videos.clear();
+                for (VideoMetaDataProjection video : active) {
+                    add(new VideoTerms(video.getId(), video.getTitle(), video.getDirectorName(), video.getMainActor(),
+                            List.copyOf(cast.getOrDefault(video.getId(), Set.of()))), views.getOrDefault(video.getId(), 0L));
+                }
+                changedDuringRebuild.forEach((videoId, terms) -> {
+                    if (terms != null) {
+                        replace(terms);
+                    } else {
+                        subtract(videoId);
+                    }
+                });
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Suggestion index loaded with {} suggestions", suggestions.size());
+        } finally {
+            trackChanges(null);
+        }
+    }
+
+    /**
+     * Replaces the suggestions of a video, keeping its views.
+     */
+    public void put(VideoTerms terms) {
+        lock.writeLock().lock();
+        try {
+            replace(terms);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(terms.getVideoId(), terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long videoId) {
+        lock.writeLock().lock();
+        try {
+            subtract(videoId);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(videoId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} suggestions having a word that starts with the query, ignoring case, highest weight first.
+     */
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        lock.readLock().lock();
+        try {
+            List<Suggestion> top = trie.top(prefix);
+            List<SuggestionDTO> result = new ArrayList<>(Math.min(limit, top.size()));
+            for (int i = 0; i < top.size() && i < limit; i++) {
+                result.add(top.get(i).toDTO());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the views of every video and re-ranks the trie if any changed.
+     */
+    @Scheduled(fixedDelayString = "${video.search.suggest.popularityRefreshInterval:5m}")
+    public void refreshPopularity() {
+        if (!ready) {
+            return;
+        }
+        Map<Long, Long> views = loadViews();
+        lock.writeLock().lock();
+        try {
+            boolean changed = false;
+            for (Map.Entry<Long, IndexedVideo> entry : videos.entrySet()) {
+                IndexedVideo video = entry.getValue();
+                long delta = views.getOrDefault(entry.getKey(), 0L) - video.views;
+                if (delta != 0) {
+                    video.views += delta;
+                    video.terms.forEach(term -> suggestions.get(term).adjust(delta));
+                    changed = true;
+                }
+            }
+            if (changed) {
+                trie.rankAll();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the suggestion texts of a video being flushed. A cast that was never loaded cannot have changed, so the
+     * indexed actors are kept instead of initializing the collection during the flush.
+     */
+    VideoTerms snapshot(VideoMetaData video) {
+        List<String> cast;
+        if (Hibernate.isInitialized(video.getCast())) {
+            cast = video.getCast() != null ? video.getCast().stream().map(Actor::getFullName).toList() : List.of();
+        } else {
+            lock.readLock().lock();
+            try {
+                IndexedVideo indexed = videos.get(video.getId());
+                cast = indexed != null ? indexed.source.getCast() : List.of();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return new VideoTerms(video.getId(), video.getTitle(), video.getDirectorName(), video.getMainActor(), cast);
+    }
+
+    static String normalize(String text) {
+        return NGramIndex.normalize(text).strip().replaceAll("\\s+", " ");
+    }
+
+    private static Set<Term> terms(VideoTerms video) {
+        Set<Term> terms = new LinkedHashSet<>();
+        addTerm(terms, SuggestionType.TITLE, video.getTitle());
+        addTerm(terms, SuggestionType.DIRECTOR, video.getDirectorName());
+        addTerm(terms, SuggestionType.ACTOR, video.getMainActor());
+        video.getCast().forEach(actor -> addTerm(terms, SuggestionType.ACTOR, actor));
+        return terms;
+    }
+
+    private static void addTerm(Set<Term> terms, SuggestionType type, String text) {
+        String key = normalize(text);
+        if (!key.isEmpty()) {
+            terms.add(new Term(type, key, text.strip()));
+        }
+    }
+
+    private void trackChanges(Map<Long, VideoTerms> changes) {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the suggestions of a video, keeping its views.
+     */
+    private void replace(VideoTerms terms) {
+        IndexedVideo previous = videos.get(terms.getVideoId());
+        long views = previous != null ? previous.views : 0;
+        if (previous != null && previous.source.equals(terms)) {
+            return;
+        }
+        subtract(terms.getVideoId());
+        add(terms, views);
+    }
+
+    private void add(VideoTerms source, long views) {
+        IndexedVideo video = new IndexedVideo(source, terms(source), views);
+        videos.put(source.getVideoId(), video);
+        for (Term term : video.terms) {
+            Suggestion suggestion = suggestions.get(term);
+            boolean added = suggestion == null;
+            if (added) {
+                suggestion = new Suggestion(term.getType(), term.getText());
+                suggestions.put(term, suggestion);
+            }
+            suggestion.add(1 + views);
+            for (String key : wordStarts(term.getKey())) {
+                if (added) {
+                    trie.add(key, suggestion);
+                } else {
+                    trie.reweigh(key);
+                }
+            }
+        }
+    }
+
+    private void subtract(Long videoId) {
+        IndexedVideo video = videos.remove(videoId);
+        if (video == null) {
+            return;
+        }
+        for (Term term : video.terms) {
+            Suggestion suggestion = suggestions.get(term);
+            suggestion.subtract(1 + video.views);
+            boolean removed = suggestion.getVideos() == 0;
+            if (removed) {
+                suggestions.remove(term);
+            }
+            for (String key : wordStarts(term.getKey())) {
+                if (removed) {
+                    trie.remove(key, suggestion);
+                } else {
+                    trie.reweigh(key);
+                }
+            }
+        }
+    }
+
+    private static List<String> wordStarts(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            keys.add(key.substring(i + 1));
+        }
+        return keys;
+    }
+
+    private Map<Long, Long> loadViews() {
+        Map<Long, Long> views = new HashMap<>();
+        for (VideoViewsProjection row : videoStatsRepository.sumViewsByVideo()) {
+            views.put(row.getVideoId(), row.getViews());
+        }
+        return views;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("video.search.suggestions", this, SuggestionIndex::size)
+                .description("Distinct titles, directors and actors held in the suggestion trie")
+                .register(registry);
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return suggestions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The texts a video contributes suggestions from.
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class VideoTerms {
+        private final Long videoId;
+        private final String title;
+        private final String directorName;
+        private final String mainActor;
+        private final List<String> cast;
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    static class Term {
+        private final SuggestionType type;
+        private final String key;
+        @EqualsAndHashCode.Exclude
+        private final String text;
+    }
+
+    private static class IndexedVideo {
+        private final VideoTerms source;
+        private final Set<Term> terms;
+        private long views;
+
+        IndexedVideo(VideoTerms source, Set<Term> terms, long views) {
+            this.source = source;
+            this.terms = terms;
+            this.views = views;
+        }
+    }
+}
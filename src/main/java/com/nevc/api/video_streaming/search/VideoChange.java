@@ -0,0 +1,57 @@
+package com.nevc.api.video_streaming.search;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The searchable metadata of a video before and after it was published, updated or deleted. {@code before} is null
+ * for a published video and {@code after} for a deleted one.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class VideoChange {
+    private final Long videoId;
+    private final VideoDocument before;
+    private final VideoDocument after;
+
+    public static VideoChange published(VideoDocument after) {
+        return new VideoChange(after.getId(), null, after);
+    }
+
+    public static VideoChange updated(VideoDocument before, VideoDocument after) {
+        return new VideoChange(after.getId(), before, after);
+    }
+
+    public static VideoChange deleted(VideoDocument before) {
+        return new VideoChange(before.getId(), before, null);
+    }
+
+    /**
+     * Whether any searchable field changed.
+     */
+    public boolean isEffective() {
+        return !Objects.equals(before, after);
+    }
+
+    /**
+     * Whether the video matched a search before or after the change, in which case the result of the search changed.
+     */
+    public boolean affects(Predicate<VideoDocument> matches) {
+        return (before != null && matches.test(before)) || (after != null && matches.test(after));
+    }
+
+    /**
+     * Whether the video was published or deleted, or one of its fields changed.
+     */
+    public boolean changes(Function<VideoDocument, ?> field) {
+        return before == null || after == null || !Objects.equals(field.apply(before), field.apply(after));
+    }
+}
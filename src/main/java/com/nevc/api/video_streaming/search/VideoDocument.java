@@ -0,0 +1,63 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Set;
+
+/**
+ * An immutable copy of the searchable metadata of an active video, returned by the search index in place of a
+ * repository projection.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class VideoDocument implements VideoMetaDataProjection {
+
+    private final Long id;
+    private final String title;
+    private final String directorName;
+    private final String mainActor;
+    private final int yearOfRelease;
+    private final Set<Genre> genre;
+    private final int runningTime;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final long genreMask;
+
+    public VideoDocument(Long id, String title, String directorName, String mainActor, int yearOfRelease,
+                         Set<Genre> genre, int runningTime) {
+        this.id = id;
+        this.title = title;
+        this.directorName = directorName;
+        this.mainActor = mainActor;
+        this.yearOfRelease = yearOfRelease;
+        this.genre = genre;
+        this.runningTime = runningTime;
+        this.genreMask = Genre.mask(genre);
+    }
+
+    public static VideoDocument of(VideoMetaDataProjection video) {
+        return new VideoDocument(video.getId(), video.getTitle(), video.getDirectorName(), video.getMainActor(),
+                video.getYearOfRelease(), genres(video.getGenre()), video.getRunningTime());
+    }
+
+    public static VideoDocument of(VideoMetaData video) {
+        return new VideoDocument(video.getId(), video.getTitle(), video.getDirectorName(), video.getMainActor(),
+                video.getYearOfRelease(), genres(video.getGenre()), video.getRunningTime());
+    }
+
+    long genreMask() {
+        return genreMask;
+    }
+
+    private static Set<Genre> genres(Set<Genre> genre) {
+        return genre != null ? Set.copyOf(genre) : Set.of();
+    }
+}
@@ -0,0 +1,81 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.enums.Genre;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Set;
+
+/**
+ * Filters of the faceted video search. Every filter that is set must match: text filters are case-insensitive
+ * substrings, a video must have any of {@code genres}, all of {@code requiredGenres} and none of
+ * {@code excludedGenres}, and ranges include their bounds. Genre filters are evaluated on genre masks, see
+ * {@link Genre#bit()}.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class VideoSearchCriteria {
+    private final String title;
+    private final String directorName;
+    private final String mainActor;
+    private final Set<Genre> genres;
+    private final Set<Genre> requiredGenres;
+    private final Set<Genre> excludedGenres;
+    private final Integer yearFrom;
+    private final Integer yearTo;
+    private final Integer minRunningTime;
+    private final Integer maxRunningTime;
+    @ToString.Exclude
+    private final long anyGenreMask;
+    @ToString.Exclude
+    private final long requiredGenreMask;
+    @ToString.Exclude
+    private final long excludedGenreMask;
+
+    @Builder
+    public VideoSearchCriteria(String title, String directorName, String mainActor, Set<Genre> genres,
+                               Set<Genre> requiredGenres, Set<Genre> excludedGenres, Integer yearFrom, Integer yearTo,
+                               Integer minRunningTime, Integer maxRunningTime) {
+        this.title = title;
+        this.directorName = directorName;
+        this.mainActor = mainActor;
+        this.genres = genres;
+        this.requiredGenres = requiredGenres;
+        this.excludedGenres = excludedGenres;
+        this.yearFrom = yearFrom;
+        this.yearTo = yearTo;
+        this.minRunningTime = minRunningTime;
+        this.maxRunningTime = maxRunningTime;
+        this.anyGenreMask = Genre.mask(genres);
+        this.requiredGenreMask = Genre.mask(requiredGenres);
+        this.excludedGenreMask = Genre.mask(excludedGenres);
+    }
+
+    public boolean hasGenreFilter() {
+        return (anyGenreMask | requiredGenreMask | excludedGenreMask) != 0;
+    }
+
+    public boolean matchesGenres(long genreMask) {
+        return (anyGenreMask == 0 || (genreMask & anyGenreMask) != 0)
+                && (genreMask & requiredGenreMask) == requiredGenreMask
+                && (genreMask & excludedGenreMask) == 0;
+    }
+
+    public boolean matches(VideoDocument video) {
+        return contains(video.getTitle(), title)
+                && contains(video.getDirectorName(), directorName)
+                && contains(video.getMainActor(), mainActor)
+                && matchesGenres(video.genreMask())
+                && (yearFrom == null || video.getYearOfRelease() >= yearFrom)
+                && (yearTo == null || video.getYearOfRelease() <= yearTo)
+                && (minRunningTime == null || video.getRunningTime() >= minRunningTime)
+                && (maxRunningTime == null || video.getRunningTime() <= maxRunningTime);
+    }
+
+    private static boolean contains(String text, String query) {
+        return query == null || NGramIndex.normalize(text).contains(NGramIndex.normalize(query));
+    }
+}
@@ -0,0 +1,315 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.enums.SearchField;
+import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import com.nevc.api.video_streaming.repositories.VideoMetaDataRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory n-gram index of the title, director and main actor of every active video.
+ * <p>
+ * The index is loaded from the database once the application is ready and then kept up to date by
+ * {@link VideoSearchIndexListener} after every committed insert, update or delete of video metadata. Searches take a
+ * read lock and touch only the postings of the query, so they do not grow with the size of the catalog. Until the
+ * index is loaded {@link #isReady()} is false and callers query the database instead. Genre filters scan a
+ * {@link GenreColumn} of genre masks, and misspelled queries are matched by trigram similarity in a
+ * {@link FuzzyIndex}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VideoSearchIndex implements MeterBinder {
+
+    private final VideoMetaDataRepository videoMetaDataRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, VideoDocument> documents = new HashMap<>();
+    private final Map<SearchField, NGramIndex> indexes = newIndexes();
+    private final Map<SearchField, FuzzyIndex> fuzzyIndexes = newFuzzyIndexes();
+    private final GenreColumn genres = new GenreColumn();
+    /**
+     * Changes applied while {@link #rebuild()} runs, by video id, null for a removal. The rows it reads may predate
+     * them, so they are applied again over the loaded rows. Null when no rebuild is running.
+     */
+    private Map<Long, VideoDocument> changedDuringRebuild;
+    private volatile boolean ready;
+
+    @Value("${video.search.fuzzy.threshold:0.4}")
+    private double fuzzyThreshold = 0.4;
+
+    @Value("${video.search.fuzzy.maxResults:50}")
+    private int maxFuzzyResults = 50;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        trackChanges(new HashMap<>());
+        try {
+            List<VideoMetaDataProjection> videos = videoMetaDataRepository.findAllByActiveTrue();
+            lock.writeLock().lock();
+            try {
+                documents.clear();
+                indexes.values().forEach(NGramIndex::clear);
+                fuzzyIndexes.values().forEach(FuzzyIndex::clear);
+                genres.clear();
+                videos.forEach(video -> add(VideoDocument.of(video)));
+                changedDuringRebuild.forEach((videoId, document) -> {
+                    if (document != null) {
+                        add(document);
+                    } else {
+                        delete(videoId);
+                    }
+                });
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Search index loaded with {} videos", videos.size());
+        } finally {
+            trackChanges(null);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(VideoDocument document) {
+        lock.writeLock().lock();
+        try {
+            add(document);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(document.getId(), document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long videoId) {
+        lock.writeLock().lock();
+        try {
+            delete(videoId);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(videoId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Active videos whose field contains the query ignoring case, ordered by id.
+     */
+    public List<VideoMetaDataProjection> search(SearchField field, String query) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = indexes.get(field).search(query);
+            List<VideoMetaDataProjection> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                result.add(documents.get(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The indexed videos with the given ids, in the same order, skipping those that are not indexed.
+     */
+    public List<VideoMetaDataProjection> findAll(List<Long> ids) {
+        lock.readLock().lock();
+        try {
+            List<VideoMetaDataProjection> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                VideoDocument document = documents.get(id);
+                if (document != null) {
+                    result.add(document);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Active videos whose field is at least {@code video.search.fuzzy.threshold} similar to a misspelled query, most
+     * similar first, at most {@code video.search.fuzzy.maxResults}.
+     */
+    public List<VideoMetaDataProjection> searchSimilar(SearchField field, String query) {
+        lock.readLock().lock();
+        try {
+            List<FuzzyIndex.Match> matches = fuzzyIndexes.get(field).search(query, fuzzyThreshold);
+            List<VideoMetaDataProjection> result = new ArrayList<>(Math.min(matches.size(), maxFuzzyResults));
+            for (int i = 0; i < matches.size() && i < maxFuzzyResults; i++) {
+                result.add(documents.get(matches.get(i).getId()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Active videos having the genre, ordered by id.
+     */
+    public List<VideoMetaDataProjection> searchByGenre(Genre genre) {
+        long bit = genre.bit();
+        lock.readLock().lock();
+        try {
+            List<Long> ids = genres.scan(mask -> (mask & bit) != 0);
+            List<VideoMetaDataProjection> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                result.add(documents.get(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hands every active video matching the criteria to the consumer. A text filter first narrows the candidates to
+     * its n-gram postings, otherwise a genre filter narrows them with a scan of the genre masks, and the other
+     * filters are checked on those only.
+     */
+    public void forEachMatch(VideoSearchCriteria criteria, Consumer<VideoDocument> consumer) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = null;
+            if (criteria.getTitle() != null) {
+                ids = indexes.get(SearchField.TITLE).search(criteria.getTitle());
+            } else if (criteria.getDirectorName() != null) {
+                ids = indexes.get(SearchField.DIRECTOR).search(criteria.getDirectorName());
+            } else if (criteria.getMainActor() != null) {
+                ids = indexes.get(SearchField.MAIN_ACTOR).search(criteria.getMainActor());
+            } else if (criteria.hasGenreFilter()) {
+                ids = genres.scan(criteria::matchesGenres);
+            }
+            Iterable<VideoDocument> candidates = ids == null ? documents.values() : ids.stream().map(documents::get).toList();
+            for (VideoDocument video : candidates) {
+                if (criteria.matches(video)) {
+                    consumer.accept(video);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The indexed metadata of an active video, null if it is not indexed.
+     */
+    VideoDocument document(Long videoId) {
+        lock.readLock().lock();
+        try {
+            return documents.get(videoId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the searchable fields of a video being flushed. Genres that were never loaded cannot have changed, so
+     * those already indexed are kept instead of initializing the collection during the flush.
+     */
+    VideoDocument snapshot(VideoMetaData video) {
+        Set<Genre> genre;
+        if (Hibernate.isInitialized(video.getGenre())) {
+            genre = video.getGenre() != null ? Set.copyOf(video.getGenre()) : Set.of();
+        } else {
+            lock.readLock().lock();
+            try {
+                VideoDocument indexed = documents.get(video.getId());
+                genre = indexed != null ? indexed.getGenre() : Set.of();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return new VideoDocument(video.getId(), video.getTitle(), video.getDirectorName(), video.getMainActor(),
+                video.getYearOfRelease(), genre, video.getRunningTime());
+    }
+
+    private static Map<SearchField, NGramIndex> newIndexes() {
+        Map<SearchField, NGramIndex> indexes = new EnumMap<>(SearchField.class);
+        for (SearchField field : SearchField.values()) {
+            indexes.put(field, new NGramIndex());
+        }
+        return indexes;
+    }
+
+    private static Map<SearchField, FuzzyIndex> newFuzzyIndexes() {
+        Map<SearchField, FuzzyIndex> indexes = new EnumMap<>(SearchField.class);
+        for (SearchField field : SearchField.values()) {
+            indexes.put(field, new FuzzyIndex());
+        }
+        return indexes;
+    }
+
+    private void trackChanges(Map<Long, VideoDocument> changes) {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void delete(Long videoId) {
+        if (documents.remove(videoId) != null) {
+            indexes.values().forEach(index -> index.remove(videoId));
+            fuzzyIndexes.values().forEach(index -> index.remove(videoId));
+            genres.remove(videoId);
+        }
+    }
+
+    private void add(VideoDocument document) {
+        documents.put(document.getId(), document);
+        indexes.get(SearchField.TITLE).put(document.getId(), document.getTitle());
+        indexes.get(SearchField.DIRECTOR).put(document.getId(), document.getDirectorName());
+        indexes.get(SearchField.MAIN_ACTOR).put(document.getId(), document.getMainActor());
+        genres.put(document.getId(), document.genreMask());
+        fuzzyIndexes.get(SearchField.TITLE).put(document.getId(), document.getTitle());
+        fuzzyIndexes.get(SearchField.DIRECTOR).put(document.getId(), document.getDirectorName());
+        fuzzyIndexes.get(SearchField.MAIN_ACTOR).put(document.getId(), document.getMainActor());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("video.search.documents", this, VideoSearchIndex::size)
+                .description("Active videos held in the search index")
+                .register(registry);
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Applies every insert, update and delete of {@link VideoMetaData} to the {@link VideoSearchIndex}, the
+ * {@link SuggestionIndex} and the {@link FullTextIndex} once the transaction has committed, so rolled back changes
+ * never become searchable. Soft-deleted videos leave every index. The {@link SearchResultCache} is invalidated
+ * afterwards, with the metadata the search index held before the change, or entirely while the index is loading.
+ */
+@RequiredArgsConstructor
+public class VideoSearchIndexListener {
+
+    private final ObjectProvider<VideoSearchIndex> videoSearchIndex;
+    private final ObjectProvider<SuggestionIndex> suggestionIndex;
+    private final ObjectProvider<FullTextIndex> fullTextIndex;
+    private final ObjectProvider<SearchResultCache> searchResultCache;
+
+    @PostPersist
+    @PostUpdate
+    void onSave(VideoMetaData video) {
+        VideoSearchIndex index = videoSearchIndex.getObject();
+        SuggestionIndex suggestions = suggestionIndex.getObject();
+        FullTextIndex fullText = fullTextIndex.getObject();
+        Long videoId = video.getId();
+        VideoDocument document = video.isActive() ? index.snapshot(video) : null;
+        Runnable invalidate = invalidation(index, videoId, document);
+        if (document != null) {
+            SuggestionIndex.VideoTerms terms = suggestions.snapshot(video);
+            FullTextIndex.FullTextDocument text = fullText.snapshot(video);
+            afterCommit(() -> {
+                index.put(document);
+                suggestions.put(terms);
+                fullText.put(text);
+                invalidate.run();
+            });
+        } else {
+            afterCommit(() -> {
+                index.remove(videoId);
+                suggestions.remove(videoId);
+                fullText.remove(videoId);
+                invalidate.run();
+            });
+        }
+    }
+
+    @PostRemove
+    void onRemove(VideoMetaData video) {
+        VideoSearchIndex index = videoSearchIndex.getObject();
+        SuggestionIndex suggestions = suggestionIndex.getObject();
+        FullTextIndex fullText = fullTextIndex.getObject();
+        Long videoId = video.getId();
+        Runnable invalidate = invalidation(index, videoId, null);
+        afterCommit(() -> {
+            index.remove(videoId);
+            suggestions.remove(videoId);
+            fullText.remove(videoId);
+            invalidate.run();
+        });
+    }
+
+    /**
+     * Captures the indexed metadata of the video before the change, which the index still holds until the commit.
+     */
+    private Runnable invalidation(VideoSearchIndex index, Long videoId, VideoDocument after) {
+        SearchResultCache cache = searchResultCache.getObject();
+        if (!index.isReady()) {
+            return cache::invalidateAll;
+        }
+        VideoChange change = new VideoChange(videoId, index.document(videoId), after);
+        return () -> cache.invalidate(change);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.nevc.api.video_streaming.services;
 
+import com.nevc.api.video_streaming.auth.PlaybackPrincipal;
 import com.nevc.api.video_streaming.entities.User;
 import com.nevc.api.video_streaming.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,10 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     @Override
     public User getLoggedInUser() {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof PlaybackPrincipal playbackPrincipal) {
+            // Signed playback URLs carry the user id, a reference avoids loading the user on every range request
+            return userRepository.getReferenceById(playbackPrincipal.getUserId());
+        }
         String userEmailAddress;
         if (principal instanceof UserDetails) {
             userEmailAddress = ((UserDetails) principal).getUsername();
@@ -0,0 +1,211 @@
+package com.nevc.api.video_streaming.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the metadata of active videos, so playing a video or reading its metadata does not query the
+ * database once the video is cached.
+ * <p>
+ * Videos are spread over {@code video.metadata.cache.shards} least recently used maps, each behind its own lock, so
+ * concurrent readers of different videos rarely wait for each other. Entries expire {@code video.metadata.cache.ttl}
+ * after they were loaded. An update replaces the cached snapshot with the saved one, and a snapshot never replaces one
+ * of a higher version, so a read racing with an update cannot bring the old metadata back. A deleted video is kept as
+ * a tombstone until it expires, for the same reason. Changes committed without going through {@link VideoService} are
+ * applied by {@link VideoMetaDataCacheListener}.
+ */
+@Component
+public class VideoMetaDataCache implements MeterBinder {
+
+    private final Clock clock;
+    private final long ttlMillis;
+    private final int maxEntriesPerShard;
+    private final Shard[] shards;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    @Autowired
+    public VideoMetaDataCache(@Value("${video.metadata.cache.maxSize:10000}") int maxSize,
+                              @Value("${video.metadata.cache.shards:16}") int shards,
+                              @Value("${video.metadata.cache.ttl:5m}") Duration ttl) {
+        this(Clock.systemUTC(), maxSize, shards, ttl);
+    }
+
+    VideoMetaDataCache(Clock clock, int maxSize, int shards, Duration ttl) {
+        if (shards < 1 || Integer.bitCount(shards) != 1) {
+            throw new IllegalArgumentException("The number of shards must be a power of two, not " + shards);
+        }
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntriesPerShard = Math.max(1, maxSize / shards);
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Returns the cached metadata of an active video, or loads and caches it. Empty when the video does not exist or
+     * was deleted.
+     */
+    public Optional<VideoMetaDataSnapshot> get(Long videoId, Supplier<Optional<VideoMetaDataSnapshot>> loader) {
+        Shard shard = shardOf(videoId);
+        long now = clock.millis();
+        shard.lock.lock();
+        try {
+            Entry entry = shard.entries.get(videoId);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return Optional.ofNullable(entry.snapshot);
+            }
+            if (entry != null) {
+                shard.entries.remove(videoId);
+                expirations.increment();
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        misses.increment();
+        Optional<VideoMetaDataSnapshot> loaded = loader.get();
+        loaded.ifPresent(snapshot -> put(videoId, snapshot));
+        return loaded;
+    }
+
+    /**
+     * Caches the metadata of an active video unless a newer version, or the video's deletion, is already cached.
+     */
+    public void put(VideoMetaDataSnapshot snapshot) {
+        put(snapshot.getId(), snapshot);
+    }
+
+    private void put(Long videoId, VideoMetaDataSnapshot snapshot) {
+        Shard shard = shardOf(videoId);
+        long now = clock.millis();
+        shard.lock.lock();
+        try {
+            Entry current = shard.entries.get(videoId);
+            if (current != null && current.expiresAt > now
+                    && (current.snapshot == null || version(current.snapshot) > version(snapshot))) {
+                return;
+            }
+            shard.entries.put(videoId, new Entry(snapshot, now + ttlMillis));
+            evictEldest(shard);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Marks a video as deleted, so it is neither returned nor cached again until the tombstone expires.
+     */
+    public void evict(Long videoId) {
+        Shard shard = shardOf(videoId);
+        shard.lock.lock();
+        try {
+            shard.entries.put(videoId, new Entry(null, clock.millis() + ttlMillis));
+            evictEldest(shard);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the cached metadata of a video if it is older than the committed version, so the next read loads it.
+     */
+    public void invalidate(Long videoId, Long version) {
+        long committed = version != null ? version : 0;
+        Shard shard = shardOf(videoId);
+        shard.lock.lock();
+        try {
+            Entry current = shard.entries.get(videoId);
+            if (current != null && (current.snapshot == null || version(current.snapshot) < committed)) {
+                shard.entries.remove(videoId);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private void evictEldest(Shard shard) {
+        while (shard.entries.size() > maxEntriesPerShard) {
+            shard.entries.pollFirstEntry();
+            evictions.increment();
+        }
+    }
+
+    private static long version(VideoMetaDataSnapshot snapshot) {
+        return snapshot.getVersion() != null ? snapshot.getVersion() : 0;
+    }
+
+    private Shard shardOf(Long videoId) {
+        long hash = videoId * 0x9E3779B97F4A7C15L;
+        return shards[(int) (hash >>> 32) & (shards.length - 1)];
+    }
+
+    int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.entries.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("video.metadata.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Video metadata lookups served from the cache")
+                .register(registry);
+        FunctionCounter.builder("video.metadata.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Video metadata lookups that went to the database")
+                .register(registry);
+        FunctionCounter.builder("video.metadata.cache.evictions", evictions, LongAdder::sum)
+                .tag("cause", "size")
+                .description("Video metadata evicted from the cache")
+                .register(registry);
+        FunctionCounter.builder("video.metadata.cache.evictions", expirations, LongAdder::sum)
+                .tag("cause", "expired")
+                .description("Video metadata evicted from the cache")
+                .register(registry);
+        Gauge.builder("video.metadata.cache.size", this, VideoMetaDataCache::size)
+                .description("Videos and tombstones held in the metadata cache")
+                .register(registry);
+    }
+
+    private static class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private static class Entry {
+        private final VideoMetaDataSnapshot snapshot;
+        private final long expiresAt;
+
+        Entry(VideoMetaDataSnapshot snapshot, long expiresAt) {
+            this.snapshot = snapshot;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.nevc.api.video_streaming.services;
+
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Applies every committed insert, update and delete of {@link VideoMetaData} to the {@link VideoMetaDataCache}, so
+ * metadata written straight through the repository is not served stale until it expires. Saved videos drop any older
+ * cached version, soft-deleted and removed videos become tombstones.
+ */
+@RequiredArgsConstructor
+public class VideoMetaDataCacheListener {
+
+    private final ObjectProvider<VideoMetaDataCache> videoMetaDataCache;
+
+    @PostPersist
+    @PostUpdate
+    void onSave(VideoMetaData video) {
+        VideoMetaDataCache cache = videoMetaDataCache.getObject();
+        Long videoId = video.getId();
+        if (video.isActive()) {
+            Long version = video.getVersion();
+            afterCommit(() -> cache.invalidate(videoId, version));
+        } else {
+            afterCommit(() -> cache.evict(videoId));
+        }
+    }
+
+    @PostRemove
+    void onRemove(VideoMetaData video) {
+        VideoMetaDataCache cache = videoMetaDataCache.getObject();
+        Long videoId = video.getId();
+        afterCommit(() -> cache.evict(videoId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.nevc.api.video_streaming.services;
+
+import com.nevc.api.video_streaming.dto.VideoMetaDataDTO;
+import com.nevc.api.video_streaming.entities.Actor;
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.enums.Genre;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable copy of the metadata of an active video, without the users who published, updated or deleted it, as
+ * held by the {@link VideoMetaDataCache}. Actors are kept as (id, name) pairs and copied into new entities for every
+ * DTO, so callers cannot change the cached metadata.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class VideoMetaDataSnapshot {
+    private final Long id;
+    private final String title;
+    private final String synopsis;
+    private final String directorName;
+    private final String mainActor;
+    private final List<CastMember> cast;
+    private final int yearOfRelease;
+    private final Set<Genre> genre;
+    private final int runningTime;
+    private final String filePath;
+    private final String fileName;
+    private final String fileExtension;
+    private final String etag;
+    private final LocalDate publishedDate;
+    private final LocalDate lastUpdatedDate;
+    private final Long version;
+
+    public static VideoMetaDataSnapshot of(VideoMetaData video) {
+        List<CastMember> cast = video.getCast() != null
+                ? video.getCast().stream().map(actor -> new CastMember(actor.getId(), actor.getFullName())).toList()
+                : List.of();
+        return new VideoMetaDataSnapshot(video.getId(), video.getTitle(), video.getSynopsis(), video.getDirectorName(),
+                video.getMainActor(), cast, video.getYearOfRelease(),
+                video.getGenre() != null ? Set.copyOf(video.getGenre()) : Set.of(), video.getRunningTime(),
+                video.getFilePath(), video.getFileName(), video.getFileExtension(), video.getEtag(),
+                video.getPublishedDate(), video.getLastUpdatedDate(), video.getVersion());
+    }
+
+    public VideoMetaDataDTO toDTO() {
+        return VideoMetaDataDTO.builder()
+                .id(id)
+                .title(title)
+                .synopsis(synopsis)
+                .fileName(fileName)
+                .fileExtension(fileExtension)
+                .yearOfRelease(yearOfRelease)
+                .genre(new HashSet<>(genre))
+                .cast(cast.stream().map(member -> new Actor(member.getId(), member.getFullName(), null))
+                        .collect(Collectors.toCollection(HashSet::new)))
+                .directorName(directorName)
+                .mainActor(mainActor)
+                .runningTime(runningTime)
+                .etag(etag)
+                .publishedDate(publishedDate)
+                .lastUpdatedDate(lastUpdatedDate)
+                .version(version)
+                .build();
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class CastMember {
+        private final Long id;
+        private final String fullName;
+    }
+}
@@ -1,37 +1,81 @@
 package com.nevc.api.video_streaming.services;
 
+import com.nevc.api.video_streaming.dto.FullTextSearchResultDTO;
+import com.nevc.api.video_streaming.dto.ImpressionBatchResultDTO;
+import com.nevc.api.video_streaming.dto.SuggestionDTO;
+import com.nevc.api.video_streaming.dto.TrendingVideoDTO;
+import com.nevc.api.video_streaming.dto.UniqueViewersDTO;
+import com.nevc.api.video_streaming.dto.VideoEventPageDTO;
 import com.nevc.api.video_streaming.dto.VideoMetaDataDTO;
+import com.nevc.api.video_streaming.dto.VideoSearchResultDTO;
+import com.nevc.api.video_streaming.dto.WatchProgressDTO;
 import com.nevc.api.video_streaming.entities.User;
-import com.nevc.api.video_streaming.entities.VideoImpression;
-import com.nevc.api.video_streaming.entities.VideoView;
 import com.nevc.api.video_streaming.enums.Genre;
 import com.nevc.api.video_streaming.enums.SearchComparator;
+import com.nevc.api.video_streaming.enums.StatsGranularity;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import com.nevc.api.video_streaming.enums.VideoSort;
 import com.nevc.api.video_streaming.exceptions.ResourceNotFoundException;
+import com.nevc.api.video_streaming.projections.VideoEventProjection;
 import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import com.nevc.api.video_streaming.projections.VideoStatsProjection;
+import com.nevc.api.video_streaming.projections.VideoStatsTotalsProjection;
+import com.nevc.api.video_streaming.search.VideoSearchCriteria;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface VideoService {
 
     VideoMetaDataDTO getVideoMetaData(User user, HttpServletRequest request, Long videoId);
 
+    void recordImpression(User user, HttpServletRequest request, Long videoId);
+
+    ImpressionBatchResultDTO recordImpressions(User user, HttpServletRequest request, List<Long> videoIds);
+
+    void recordView(User user, HttpServletRequest request, Long videoId);
+
+    void recordWatchProgress(User user, Long videoId, long positionSeconds);
+
+    WatchProgressDTO getWatchProgress(User user, Long videoId);
+
     VideoMetaDataDTO saveVideoMetaData(User user, VideoMetaDataDTO videoMetaDataDTO);
 
     VideoMetaDataDTO publishVideo(User user, MultipartFile file, VideoMetaDataDTO videoMetaDataDTO);
 
-    Resource playVideoAsResource(User user, HttpServletRequest request, Long videoId);
+    Resource playVideoAsResource(User user, Long videoId);
 
     void deleteVideo(User user, Long videoId) throws ResourceNotFoundException;
 
-    List<VideoView> getVideoViews(Long videoId);
+    VideoEventPageDTO getVideoEvents(VideoEventType type, Long videoId, LocalDateTime from, LocalDateTime to,
+                                     String cursor, int limit);
+
+    void exportVideoEvents(VideoEventType type, Long videoId, LocalDateTime from, LocalDateTime to,
+                           Consumer<VideoEventProjection> consumer);
 
-    List<VideoImpression> getVideoImpressions(Long videoId);
+    VideoStatsTotalsProjection getVideoStatsCounts(Long videoId);
+
+    List<VideoStatsProjection> getVideoStatsTimeSeries(Long videoId, StatsGranularity granularity,
+                                                       LocalDateTime from, LocalDateTime to);
+
+    UniqueViewersDTO getUniqueViewers(Long videoId, LocalDate from, LocalDate to);
+
+    List<TrendingVideoDTO> getTrendingVideos(Duration window, int limit);
 
     List<VideoMetaDataProjection> getAllVideos();
 
+    VideoSearchResultDTO searchVideos(VideoSearchCriteria criteria, VideoSort sort, boolean descending, String cursor, int limit);
+
+    List<SuggestionDTO> suggest(String query, int limit);
+
+    FullTextSearchResultDTO searchFullText(String query, String cursor, int limit);
+
     List<VideoMetaDataProjection> searchByTitle(String title);
 
     List<VideoMetaDataProjection> searchByDirector(String directorName);
@@ -1,68 +1,239 @@
 package com.nevc.api.video_streaming.services;
 
+import com.nevc.api.video_streaming.analytics.HyperLogLog;
+import com.nevc.api.video_streaming.analytics.ImpressionDeduplicator;
+import com.nevc.api.video_streaming.analytics.TrendingTracker;
+import com.nevc.api.video_streaming.analytics.UniqueViewerCounter;
+import com.nevc.api.video_streaming.analytics.VideoEvent;
+import com.nevc.api.video_streaming.analytics.VideoEventQueue;
+import com.nevc.api.video_streaming.analytics.WatchProgressStore;
+import com.nevc.api.video_streaming.dto.FullTextHitDTO;
+import com.nevc.api.video_streaming.dto.FullTextSearchResultDTO;
+import com.nevc.api.video_streaming.dto.ImpressionBatchResultDTO;
+import com.nevc.api.video_streaming.dto.SuggestionDTO;
+import com.nevc.api.video_streaming.dto.TrendingVideoDTO;
+import com.nevc.api.video_streaming.dto.UniqueViewersDTO;
+import com.nevc.api.video_streaming.dto.VideoEventPageDTO;
 import com.nevc.api.video_streaming.dto.VideoMetaDataDTO;
+import com.nevc.api.video_streaming.dto.VideoSearchResultDTO;
+import com.nevc.api.video_streaming.dto.WatchProgressDTO;
 import com.nevc.api.video_streaming.entities.User;
-import com.nevc.api.video_streaming.entities.VideoImpression;
 import com.nevc.api.video_streaming.entities.VideoMetaData;
-import com.nevc.api.video_streaming.entities.VideoView;
+import com.nevc.api.video_streaming.entities.WatchProgress;
 import com.nevc.api.video_streaming.enums.Genre;
 import com.nevc.api.video_streaming.enums.SearchComparator;
+import com.nevc.api.video_streaming.enums.SearchField;
+import com.nevc.api.video_streaming.enums.StatsGranularity;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import com.nevc.api.video_streaming.enums.VideoSort;
 import com.nevc.api.video_streaming.exceptions.BadRequestException;
 import com.nevc.api.video_streaming.exceptions.ResourceNotFoundException;
+import com.nevc.api.video_streaming.exceptions.ServiceUnavailableException;
 import com.nevc.api.video_streaming.exceptions.UnAuthorizedException;
 import com.nevc.api.video_streaming.exceptions.VideoProcessingException;
 import com.nevc.api.video_streaming.mapper.VideoMetaDataMapper;
+import com.nevc.api.video_streaming.projections.VideoEventProjection;
 import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import com.nevc.api.video_streaming.projections.VideoStatsProjection;
+import com.nevc.api.video_streaming.projections.VideoStatsTotalsProjection;
 import com.nevc.api.video_streaming.repositories.VideoImpressionRepository;
 import com.nevc.api.video_streaming.repositories.VideoMetaDataRepository;
+import com.nevc.api.video_streaming.repositories.VideoMetaDataSpecifications;
+import com.nevc.api.video_streaming.repositories.VideoStatsRepository;
 import com.nevc.api.video_streaming.repositories.VideoViewRepository;
+import com.nevc.api.video_streaming.search.FacetedSearch;
+import com.nevc.api.video_streaming.search.FullTextIndex;
+import com.nevc.api.video_streaming.search.SearchResultCache;
+import com.nevc.api.video_streaming.search.SuggestionIndex;
+import com.nevc.api.video_streaming.search.VideoDocument;
+import com.nevc.api.video_streaming.search.VideoSearchCriteria;
+import com.nevc.api.video_streaming.search.VideoSearchIndex;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class VideoServiceImpl implements VideoService {
 
+    private static final LocalDateTime EVENTS_FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime EVENTS_TO = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final VideoMetaDataRepository videoMetaDataRepository;
     private final VideoImpressionRepository videoImpressionRepository;
     private final VideoViewRepository videoViewRepository;
+    private final VideoStatsRepository videoStatsRepository;
+    private final VideoEventQueue videoEventQueue;
+    private final UniqueViewerCounter uniqueViewerCounter;
+    private final TrendingTracker trendingTracker;
+    private final ImpressionDeduplicator impressionDeduplicator;
+    private final WatchProgressStore watchProgressStore;
+    private final VideoSearchIndex videoSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final FullTextIndex fullTextIndex;
+    private final SearchResultCache searchResultCache;
+    private final VideoMetaDataCache videoMetaDataCache;
 
     @Value("${video.publishPath:uploads/}")
     private String publishPath;
 
+    @Value("${video.analytics.maxPageSize:1000}")
+    private int maxEventPageSize = 1000;
+
+    @Value("${video.analytics.stats.maxBuckets:1000}")
+    private int maxStatsBuckets = 1000;
+
+    @Value("${video.search.maxPageSize:100}")
+    private int maxSearchPageSize = 100;
+
+    @Value("${video.analytics.impressions.maxBatchSize:200}")
+    private int maxImpressionBatchSize = 200;
+
     @Override
     public VideoMetaDataDTO getVideoMetaData(User user, HttpServletRequest request, Long videoId) {
-        VideoMetaData videoMetaData = videoMetaDataRepository.findByIdAndActiveTrue(videoId).orElseThrow(
-                () -> new ResourceNotFoundException(String.format("Video with id:%d not found", videoId)));
+        VideoMetaDataSnapshot videoMetaData = findActive(videoId);
         if (request != null) {
-            VideoImpression videoImpression = VideoImpression.builder()
-                    .user(user)
-                    .videoMetaData(videoMetaData)
-                    .userIp(request.getRemoteAddr())
-                    .impressionDate(LocalDateTime.now())
-                    .userAgent(request.getHeader("User-Agent"))
-                    .build();
-            videoImpressionRepository.save(videoImpression);
+            recordImpression(user, request, videoId);
+        }
+        return videoMetaData.toDTO();
+    }
+
+    /**
+     * Reads the metadata of an active video through the {@link VideoMetaDataCache}.
+     */
+    private VideoMetaDataSnapshot findActive(Long videoId) {
+        return videoMetaDataCache.get(videoId,
+                        () -> videoMetaDataRepository.findByIdAndActiveTrue(videoId).map(VideoMetaDataSnapshot::of))
+                .orElseThrow(() -> new ResourceNotFoundException(String.format("Video with id:%d not found", videoId)));
+    }
+
+    /**
+     * Queues an impression of a video whose metadata was already loaded, it is written in the background.
+     * Repeated impressions by the same user within the deduplication window are dropped.
+     */
+    @Override
+    public void recordImpression(User user, HttpServletRequest request, Long videoId) {
+        if (impressionDeduplicator.accept(user.getId(), videoId)) {
+            record(toVideoEvent(VideoEventType.IMPRESSION, user, request, videoId));
+        }
+    }
+
+    /**
+     * Queues the impressions of a list of tiles. Every id is checked with one query, an unknown or inactive id
+     * rejects the whole batch, and the events are queued together so they end up in the same batch insert.
+     */
+    @Override
+    public ImpressionBatchResultDTO recordImpressions(User user, HttpServletRequest request, List<Long> videoIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(videoIds);
+        if (distinctIds.size() > maxImpressionBatchSize) {
+            throw new BadRequestException(String.format("At most %d videos can be sent in one batch", maxImpressionBatchSize));
+        }
+        Set<Long> missingIds = new LinkedHashSet<>(distinctIds);
+        videoMetaDataRepository.findActiveIds(distinctIds).forEach(missingIds::remove);
+        if (!missingIds.isEmpty()) {
+            throw new ResourceNotFoundException(String.format("Videos with ids:%s not found", missingIds));
+        }
+        List<VideoEvent> events = new ArrayList<>(distinctIds.size());
+        for (Long videoId : distinctIds) {
+            if (impressionDeduplicator.accept(user.getId(), videoId)) {
+                events.add(toVideoEvent(VideoEventType.IMPRESSION, user, request, videoId));
+            }
+        }
+        if (!events.isEmpty()) {
+            videoEventQueue.offerAll(events);
+            events.forEach(trendingTracker::record);
+        }
+        return ImpressionBatchResultDTO.builder()
+                .received(distinctIds.size())
+                .recorded(events.size())
+                .build();
+    }
+
+    /**
+     * Queues a view of a video whose file is about to be served, it is written in the background. The caller decides
+     * which requests start a view, players fetch a single video with many range requests.
+     */
+    @Override
+    public void recordView(User user, HttpServletRequest request, Long videoId) {
+        record(toVideoEvent(VideoEventType.VIEW, user, request, videoId));
+    }
+
+    /**
+     * Keeps the position reported by a player heartbeat in memory, it is written to the database in the background.
+     */
+    @Override
+    public void recordWatchProgress(User user, Long videoId, long positionSeconds) {
+        if (positionSeconds < 0) {
+            throw new BadRequestException("The position must not be negative");
         }
-        return VideoMetaDataMapper.mapToVideoMetaDataDto(videoMetaData);
+        findActive(videoId);
+        watchProgressStore.report(user.getId(), videoId, positionSeconds);
+    }
+
+    @Override
+    public WatchProgressDTO getWatchProgress(User user, Long videoId) {
+        WatchProgress progress = watchProgressStore.find(user.getId(), videoId).orElseThrow(
+                () -> new ResourceNotFoundException(String.format("No watch progress for video with id:%d", videoId)));
+        return WatchProgressDTO.builder()
+                .videoId(progress.getVideoId())
+                .positionSeconds(progress.getPositionSeconds())
+                .updatedAt(progress.getUpdatedAt())
+                .build();
+    }
+
+    private void record(VideoEvent event) {
+        videoEventQueue.offer(event);
+        trendingTracker.record(event);
+    }
+
+    private static VideoEvent toVideoEvent(VideoEventType type, User user, HttpServletRequest request, Long videoId) {
+        return VideoEvent.builder()
+                .type(type)
+                .videoId(videoId)
+                .userId(user.getId())
+                .timestamp(LocalDateTime.now())
+                .userIp(request.getRemoteAddr())
+                .userAgent(request.getHeader("User-Agent"))
+                .build();
     }
 
     @Override
@@ -78,7 +249,9 @@ public class VideoServiceImpl implements VideoService {
         videoMetaData.setRunningTime(videoMetaDataDTO.getRunningTime());
         videoMetaData.setLastUpdatedDate(LocalDate.now());
         videoMetaData.setLastUpdatedBy(user);
-        return VideoMetaDataMapper.mapToVideoMetaDataDto(videoMetaDataRepository.save(videoMetaData));
+        VideoMetaData savedMetaData = videoMetaDataRepository.save(videoMetaData);
+        videoMetaDataCache.put(VideoMetaDataSnapshot.of(savedMetaData));
+        return VideoMetaDataMapper.mapToVideoMetaDataDto(savedMetaData);
     }
 
     @Override
@@ -94,15 +267,22 @@ public class VideoServiceImpl implements VideoService {
         log.info("Publishing video with metadata:{} by user with id:{}", videoMetaData, user.getId());
 
         String fileName = file.getOriginalFilename();
-        Path filePath = Paths.get(Objects.requireNonNullElse(publishPath, "uploads/"), fileName);
+        // Every upload gets its own file, the entity tag and cached bytes of a video never change with a later upload
+        Path filePath = Paths.get(Objects.requireNonNullElse(publishPath, "uploads/"),
+                UUID.randomUUID() + "-" + Paths.get(Objects.requireNonNullElse(fileName, "video")).getFileName());
         log.info("File path:{}", filePath);
 
         String publishStage = "createDirectory";
+        String etag;
         try {
             Files.createDirectories(filePath.getParent());
             publishStage = "copyFile";
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(inputStream, filePath);
+            }
+            etag = HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
             log.error("Failed to save file during {} : {}", publishStage, e.getMessage());
             throw new VideoProcessingException("Failed to save file during " + publishStage + " : " + e.getMessage());
         }
@@ -119,6 +299,7 @@ public class VideoServiceImpl implements VideoService {
                 .filePath(filePath.toString())
                 .fileExtension(file.getContentType())
                 .fileName(fileName)
+                .etag(etag)
                 .runningTime(videoMetaData.getRunningTime())
                 .publishedDate(LocalDate.now())
                 .publishedBy(user)
@@ -126,24 +307,14 @@ public class VideoServiceImpl implements VideoService {
                 .build();
 
         VideoMetaData savedMetaData = videoMetaDataRepository.save(video);
+        videoMetaDataCache.put(VideoMetaDataSnapshot.of(savedMetaData));
         log.info("Video with id:{} is published by user with id:{}", savedMetaData.getId(), user.getId());
         return VideoMetaDataMapper.mapToVideoMetaDataDto(savedMetaData);
     }
 
     @Override
-    public Resource playVideoAsResource(User user, HttpServletRequest request, Long videoId) {
-        VideoMetaData videoMetaData = videoMetaDataRepository.findByIdAndActiveTrue(videoId).orElseThrow(
-                () -> new ResourceNotFoundException(String.format("Video with id:%d not found", videoId)));
-        if (request != null) {
-            VideoView videoView = VideoView.builder()
-                    .user(user)
-                    .videoMetaData(videoMetaData)
-                    .userIp(request.getRemoteAddr())
-                    .viewDate(LocalDateTime.now())
-                    .userAgent(request.getHeader("User-Agent"))
-                    .build();
-            videoViewRepository.save(videoView);
-        }
+    public Resource playVideoAsResource(User user, Long videoId) {
+        VideoMetaDataSnapshot videoMetaData = findActive(videoId);
         log.info("Loading video file by user id: {}, video id: {}", user.getId(), videoId);
         Path path = Paths.get(videoMetaData.getFilePath());
         try {
@@ -161,16 +332,134 @@ public class VideoServiceImpl implements VideoService {
         videoMetaData.setDeletedBy(user);
         videoMetaData.setActive(false);
         videoMetaDataRepository.save(videoMetaData);
+        videoMetaDataCache.evict(videoId);
+    }
+
+    /**
+     * Reads one page of impressions or views ordered by (date, id). The cursor is the keyset position of the last
+     * row of the previous page, so every page is an index range scan however deep the client has paged.
+     */
+    @Override
+    public VideoEventPageDTO getVideoEvents(VideoEventType type, Long videoId, LocalDateTime from, LocalDateTime to,
+                                            String cursor, int limit) {
+        if (limit < 1 || limit > maxEventPageSize) {
+            throw new BadRequestException(String.format("The limit must be between 1 and %d", maxEventPageSize));
+        }
+        LocalDateTime afterDate = from != null ? from : EVENTS_FROM;
+        long afterId = 0;
+        if (cursor != null) {
+            String position = decodeCursor(cursor);
+            int separator = position.lastIndexOf(',');
+            try {
+                afterDate = LocalDateTime.parse(position.substring(0, Math.max(0, separator)));
+                afterId = Long.parseLong(position.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+        LocalDateTime end = to != null ? to : EVENTS_TO;
+        Limit pageLimit = Limit.of(limit + 1);
+        List<VideoEventProjection> events = type == VideoEventType.VIEW
+                ? videoViewRepository.findPage(videoId, afterDate, afterId, end, pageLimit)
+                : videoImpressionRepository.findPage(videoId, afterDate, afterId, end, pageLimit);
+        String nextCursor = null;
+        if (events.size() > limit) {
+            events = events.subList(0, limit);
+            VideoEventProjection last = events.getLast();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getEventDate() + "," + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return VideoEventPageDTO.builder()
+                .items(events)
+                .nextCursor(nextCursor)
+                .build();
     }
 
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Hands every impression or view of a date range to the consumer as the database cursor produces it, without
+     * holding the result in memory.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportVideoEvents(VideoEventType type, Long videoId, LocalDateTime from, LocalDateTime to,
+                                  Consumer<VideoEventProjection> consumer) {
+        LocalDateTime start = from != null ? from : EVENTS_FROM;
+        LocalDateTime end = to != null ? to : EVENTS_TO;
+        try (Stream<VideoEventProjection> events = type == VideoEventType.VIEW
+                ? videoViewRepository.streamByVideoId(videoId, start, end)
+                : videoImpressionRepository.streamByVideoId(videoId, start, end)) {
+            events.forEach(consumer);
+        }
+    }
+
+    /**
+     * Totals are summed from the daily counters, at most one row per day the video has been watched.
+     */
     @Override
-    public List<VideoView> getVideoViews(Long videoId) {
-        return videoViewRepository.findAllByVideoMetaData_Id(videoId);
+    public VideoStatsTotalsProjection getVideoStatsCounts(Long videoId) {
+        return videoStatsRepository.sumByVideoId(videoId);
     }
 
+    /**
+     * Reads the hourly or daily counters between two times, by default the last day of hours or the last 30 days.
+     * Buckets without any event are absent.
+     */
     @Override
-    public List<VideoImpression> getVideoImpressions(Long videoId) {
-        return videoImpressionRepository.findAllByVideoMetaData_Id(videoId);
+    public List<VideoStatsProjection> getVideoStatsTimeSeries(Long videoId, StatsGranularity granularity,
+                                                              LocalDateTime from, LocalDateTime to) {
+        ChronoUnit unit = granularity == StatsGranularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        LocalDateTime end = (to != null ? to : LocalDateTime.now()).truncatedTo(unit);
+        LocalDateTime start = from != null ? from.truncatedTo(unit)
+                : end.minus(granularity == StatsGranularity.HOUR ? 23 : 29, unit);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("The start of the time series must not be after its end");
+        }
+        if (unit.between(start, end) >= maxStatsBuckets) {
+            throw new BadRequestException(String.format("The time series must not span more than %d buckets", maxStatsBuckets));
+        }
+        return videoStatsRepository.findByVideoIdAndGranularityAndBucketStartBetweenOrderByBucketStart(
+                videoId, granularity, start, end);
+    }
+
+    /**
+     * Estimates the distinct viewers between two days, by default the last 30 days, from the daily sketches.
+     */
+    @Override
+    public UniqueViewersDTO getUniqueViewers(Long videoId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("The start of the range must not be after its end");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxStatsBuckets) {
+            throw new BadRequestException(String.format("The range must not span more than %d days", maxStatsBuckets));
+        }
+        return UniqueViewersDTO.builder()
+                .videoId(videoId)
+                .from(start)
+                .to(end)
+                .uniqueViewers(uniqueViewerCounter.estimate(videoId, start, end))
+                .relativeError(HyperLogLog.RELATIVE_ERROR)
+                .build();
+    }
+
+    @Override
+    public List<TrendingVideoDTO> getTrendingVideos(Duration window, int limit) {
+        if (window.isNegative() || window.isZero() || window.compareTo(trendingTracker.getMaxWindow()) > 0) {
+            throw new BadRequestException(String.format("The window must be positive and at most %s", trendingTracker.getMaxWindow()));
+        }
+        if (limit < 1 || limit > trendingTracker.getTopK()) {
+            throw new BadRequestException(String.format("The limit must be between 1 and %d", trendingTracker.getTopK()));
+        }
+        return trendingTracker.trending(window, limit);
     }
 
     @Override
@@ -178,33 +467,189 @@ public class VideoServiceImpl implements VideoService {
         return videoMetaDataRepository.findAllByActiveTrue();
     }
 
+    /**
+     * Combines any of the text, genre, year and running time filters. The matches come from the search index, or
+     * from one database query while the index is loading, and a single pass over them computes the facet counts
+     * and the page after the cursor.
+     */
+    @Override
+    public VideoSearchResultDTO searchVideos(VideoSearchCriteria criteria, VideoSort sort, boolean descending, String cursor, int limit) {
+        if (limit < 1 || limit > maxSearchPageSize) {
+            throw new BadRequestException(String.format("The limit must be between 1 and %d", maxSearchPageSize));
+        }
+        if (isReversed(criteria.getYearFrom(), criteria.getYearTo()) || isReversed(criteria.getMinRunningTime(), criteria.getMaxRunningTime())) {
+            throw new BadRequestException("The start of a range must not be after its end");
+        }
+        return searchResultCache.get(new SearchResultCache.Key("videos", criteria, sort, descending, cursor, limit),
+                () -> {
+                    FacetedSearch search = new FacetedSearch(sort, descending, cursor, limit);
+                    if (videoSearchIndex.isReady()) {
+                        videoSearchIndex.forEachMatch(criteria, search::accept);
+                    } else {
+                        videoMetaDataRepository.findAll(VideoMetaDataSpecifications.matching(criteria))
+                                .forEach(video -> search.accept(VideoDocument.of(video)));
+                    }
+                    return search.result();
+                },
+                result -> result.getItems().size() + result.getGenres().size() + result.getDecades().size(),
+                result -> change -> change.affects(criteria::matches));
+    }
+
+    private static boolean isReversed(Integer from, Integer to) {
+        return from != null && to != null && from > to;
+    }
+
+    /**
+     * Answered from the suggestion trie only, so there are no suggestions while it is still loading.
+     */
+    @Override
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("The query must not be blank");
+        }
+        if (limit < 1 || limit > suggestionIndex.getMaxResults()) {
+            throw new BadRequestException(String.format("The limit must be between 1 and %d", suggestionIndex.getMaxResults()));
+        }
+        return suggestionIndex.suggest(query, limit);
+    }
+
+    /**
+     * Ranks the videos by BM25 relevance to the query over their title, synopsis, director and cast. Refused while the
+     * full-text index is loading, since the database cannot rank them.
+     */
+    @Override
+    public FullTextSearchResultDTO searchFullText(String query, String cursor, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("The query must not be blank");
+        }
+        if (limit < 1 || limit > maxSearchPageSize) {
+            throw new BadRequestException(String.format("The limit must be between 1 and %d", maxSearchPageSize));
+        }
+        if (!fullTextIndex.isReady()) {
+            throw new ServiceUnavailableException("The full-text index is loading, try again shortly");
+        }
+        FullTextIndex.Page page = fullTextIndex.search(query, cursor, limit);
+        List<Long> ids = page.getHits().stream().map(FullTextIndex.Hit::getVideoId).toList();
+        Map<Long, VideoMetaDataProjection> videos = new HashMap<>();
+        (videoSearchIndex.isReady() ? videoSearchIndex.findAll(ids) : videoMetaDataRepository.findByIdInAndActiveTrue(ids))
+                .forEach(video -> videos.put(video.getId(), video));
+        List<FullTextHitDTO> items = new ArrayList<>(ids.size());
+        for (FullTextIndex.Hit hit : page.getHits()) {
+            VideoMetaDataProjection video = videos.get(hit.getVideoId());
+            if (video != null) {
+                items.add(FullTextHitDTO.builder().video(video).score(hit.getScore()).build());
+            }
+        }
+        return FullTextSearchResultDTO.builder()
+                .items(items)
+                .nextCursor(page.getNextCursor())
+                .total(page.getTotal())
+                .build();
+    }
+
+    /**
+     * Answered from the in-memory search index, or from the database while the index is still loading. When no
+     * field contains the query, the index returns the videos whose field is most similar to it instead, so a
+     * misspelled name still finds its videos.
+     */
     @Override
     public List<VideoMetaDataProjection> searchByTitle(String title) {
-        return videoMetaDataRepository.findByTitleContainingIgnoreCaseAndActiveTrue(title);
+        return searchText(SearchField.TITLE, title,
+                videoMetaDataRepository::findByTitleContainingIgnoreCaseAndActiveTrue);
     }
 
     @Override
     public List<VideoMetaDataProjection> searchByDirector(String directorName) {
-        return videoMetaDataRepository.findByDirectorNameContainingIgnoreCaseAndActiveTrue(directorName);
+        return searchText(SearchField.DIRECTOR, directorName,
+                videoMetaDataRepository::findByDirectorNameContainingIgnoreCaseAndActiveTrue);
     }
 
     @Override
     public List<VideoMetaDataProjection> searchByMainActor(String mainActor) {
-        return videoMetaDataRepository.findByMainActorContainingIgnoreCaseAndActiveTrue(mainActor);
+        return searchText(SearchField.MAIN_ACTOR, mainActor,
+                videoMetaDataRepository::findByMainActorContainingIgnoreCaseAndActiveTrue);
+    }
+
+    /**
+     * A result whose videos all contain the query only goes stale when a video containing it changes. A result of
+     * similar videos goes stale when any of its videos changes or the field of any video does.
+     */
+    private List<VideoMetaDataProjection> searchText(SearchField field, String query,
+                                                     Function<String, List<VideoMetaDataProjection>> database) {
+        VideoSearchCriteria.VideoSearchCriteriaBuilder criteria = VideoSearchCriteria.builder();
+        Function<VideoDocument, String> value = switch (field) {
+            case TITLE -> {
+                criteria.title(query);
+                yield VideoDocument::getTitle;
+            }
+            case DIRECTOR -> {
+                criteria.directorName(query);
+                yield VideoDocument::getDirectorName;
+            }
+            case MAIN_ACTOR -> {
+                criteria.mainActor(query);
+                yield VideoDocument::getMainActor;
+            }
+        };
+        Predicate<VideoDocument> contains = criteria.build()::matches;
+        return searchResultCache.get(new SearchResultCache.Key(field.name(), query),
+                () -> {
+                    if (!videoSearchIndex.isReady()) {
+                        return detach(database.apply(query));
+                    }
+                    List<VideoMetaDataProjection> videos = videoSearchIndex.search(field, query);
+                    return videos.isEmpty() ? videoSearchIndex.searchSimilar(field, query) : videos;
+                },
+                List::size,
+                videos -> {
+                    if (videos.stream().map(VideoDocument::of).allMatch(contains)) {
+                        return change -> change.affects(contains);
+                    }
+                    Set<Long> ids = videos.stream().map(VideoMetaDataProjection::getId).collect(Collectors.toSet());
+                    return change -> ids.contains(change.getVideoId()) || change.changes(value);
+                });
     }
 
     @Override
     public List<VideoMetaDataProjection> searchByRunningTime(int runningTime, SearchComparator searchComparator) {
-        return switch (searchComparator) {
-            case GREATER_OR_EQUAL ->
-                    videoMetaDataRepository.findByRunningTimeGreaterThanEqualAndActiveTrue(runningTime);
-            case LESS_OR_EQUAL -> videoMetaDataRepository.findByRunningTimeLessThanEqualAndActiveTrue(runningTime);
-            default -> videoMetaDataRepository.findByRunningTimeAndActiveTrue(runningTime);
+        Predicate<VideoDocument> matches = switch (searchComparator) {
+            case GREATER_OR_EQUAL -> video -> video.getRunningTime() >= runningTime;
+            case LESS_OR_EQUAL -> video -> video.getRunningTime() <= runningTime;
+            default -> video -> video.getRunningTime() == runningTime;
         };
+        return searchResultCache.get(new SearchResultCache.Key("runningTime", runningTime, searchComparator),
+                () -> detach(switch (searchComparator) {
+                    case GREATER_OR_EQUAL ->
+                            videoMetaDataRepository.findByRunningTimeGreaterThanEqualAndActiveTrue(runningTime);
+                    case LESS_OR_EQUAL -> videoMetaDataRepository.findByRunningTimeLessThanEqualAndActiveTrue(runningTime);
+                    default -> videoMetaDataRepository.findByRunningTimeAndActiveTrue(runningTime);
+                }),
+                List::size,
+                videos -> change -> change.affects(matches));
     }
 
+    /**
+     * Answered from the genre masks of the search index, or from the {@code genre_mask} column while the index is
+     * still loading.
+     */
     @Override
     public List<VideoMetaDataProjection> searchByGenre(Genre genre) {
-        return videoMetaDataRepository.findByGenreContainingAndActiveTrue(genre);
+        return searchResultCache.get(new SearchResultCache.Key("genre", genre),
+                () -> videoSearchIndex.isReady()
+                        ? videoSearchIndex.searchByGenre(genre)
+                        : detach(videoMetaDataRepository.findActiveByGenreMask(genre.bit())),
+                List::size,
+                videos -> change -> change.affects(video -> video.getGenre().contains(genre)));
+    }
+
+    /**
+     * Copies database rows into {@link VideoDocument}s before they enter the {@link SearchResultCache}. A cached
+     * result is handed to requests on other threads, it must not hold entities or lazy collections of the session
+     * that loaded it.
+     */
+    private static List<VideoMetaDataProjection> detach(List<VideoMetaDataProjection> videos) {
+        return videos.stream()
+                .<VideoMetaDataProjection>map(video -> video instanceof VideoDocument document ? document : VideoDocument.of(video))
+                .toList();
     }
 }
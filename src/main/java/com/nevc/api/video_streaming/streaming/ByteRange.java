@@ -0,0 +1,105 @@
+package com.nevc.api.video_streaming.streaming;
+
+import com.nevc.api.video_streaming.exceptions.RangeNotSatisfiableException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An inclusive byte range of a video file, as requested through the HTTP {@code Range} header.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class ByteRange {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long start;
+    private final long end;
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public String toContentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+
+    /**
+     * Sorts the ranges and coalesces those that overlap or are at most {@code mergeGap} bytes apart, so that no
+     * byte is sent twice and many tiny ranges cannot inflate the response with part headers.
+     */
+    public static List<ByteRange> merge(List<ByteRange> ranges, long mergeGap) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        List<ByteRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(ByteRange::getStart));
+        List<ByteRange> merged = new ArrayList<>();
+        ByteRange current = sorted.getFirst();
+        for (ByteRange next : sorted.subList(1, sorted.size())) {
+            if (next.start <= current.end + 1 + mergeGap) {
+                current = new ByteRange(current.start, Math.max(current.end, next.end));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    /**
+     * Parses a {@code Range} header value against a file of the given length.
+     *
+     * @return the satisfiable ranges in request order, or an empty list when the header is absent or malformed
+     * and the whole file should be served instead (RFC 9110, section 14.2)
+     * @throws RangeNotSatisfiableException when the header is well-formed but none of its ranges overlap the file
+     */
+    public static List<ByteRange> parse(String rangeHeader, long totalLength) {
+        if (rangeHeader == null || !rangeHeader.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return List.of();
+        }
+        List<ByteRange> ranges = new ArrayList<>();
+        for (String spec : rangeHeader.substring(BYTES_UNIT.length()).split(",")) {
+            String trimmed = spec.trim();
+            int dash = trimmed.indexOf('-');
+            if (dash < 0) {
+                return List.of();
+            }
+            try {
+                String first = trimmed.substring(0, dash).trim();
+                String last = trimmed.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    // Suffix range: the last N bytes of the file
+                    long suffixLength = Long.parseLong(last);
+                    if (suffixLength > 0 && totalLength > 0) {
+                        ranges.add(new ByteRange(Math.max(0, totalLength - suffixLength), totalLength - 1));
+                    }
+                    continue;
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (start < 0 || end < start) {
+                    return List.of();
+                }
+                if (start < totalLength) {
+                    ranges.add(new ByteRange(start, Math.min(end, totalLength - 1)));
+                }
+            } catch (NumberFormatException e) {
+                return List.of();
+            }
+        }
+        if (ranges.isEmpty()) {
+            throw new RangeNotSatisfiableException("Requested range not satisfiable", totalLength);
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,106 @@
+package com.nevc.api.video_streaming.streaming;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves ranges from the {@link VideoChunkCache}, loading missing chunks from the file. The file is only opened
+ * when a chunk has to be read from disk, so a range served entirely from memory causes no file I/O at all.
+ * <p>
+ * Ranges longer than {@code maxRangeSize}, and ranges starting in a chunk that is neither cached nor requested often,
+ * are left to sendfile when the container offers it. Chunks are written from direct memory, which the servlet API
+ * can only take as a byte array, so they are copied once on their way to the response.
+ */
+@RequiredArgsConstructor
+public class CachingVideoReader implements VideoReader {
+
+    private final VideoChunkCache cache;
+    private final long maxRangeSize;
+
+    @Override
+    public boolean prefersSendfile(VideoStream videoStream, ByteRange range) {
+        if (videoStream.getVideoId() == null || range.length() > maxRangeSize) {
+            return true;
+        }
+        return !cache.isWorthReading(videoStream.getVideoId(), range.getStart() / cache.getChunkSize());
+    }
+
+    @Override
+    public void transferTo(VideoStream videoStream, long position, long count, WritableByteChannel target) throws IOException {
+        long chunkSize = cache.getChunkSize();
+        long end = position + count;
+        try (LazyFileChannel file = new LazyFileChannel(videoStream)) {
+            while (position < end) {
+                long chunkIndex = position / chunkSize;
+                long chunkStart = chunkIndex * chunkSize;
+                int offset = (int) (position - chunkStart);
+                int length = (int) Math.min(end - position, chunkSize - offset);
+                VideoChunk chunk = videoStream.getVideoId() == null ? null
+                        : cache.acquire(videoStream.getVideoId(), chunkIndex, buffer -> file.read(chunkStart, buffer));
+                if (chunk == null) {
+                    FileChannelVideoReader.transfer(file.get(), position, length, target);
+                } else {
+                    try {
+                        write(chunk, offset, length, target);
+                    } finally {
+                        cache.release(chunk);
+                    }
+                }
+                position += length;
+            }
+        }
+    }
+
+    private static void write(VideoChunk chunk, int offset, int length, WritableByteChannel target) throws IOException {
+        if (offset + length > chunk.getLength()) {
+            throw new IOException("Video file ended " + (offset + length - chunk.getLength()) + " bytes before the requested range");
+        }
+        ByteBuffer slice = chunk.slice(offset, length);
+        while (slice.hasRemaining()) {
+            target.write(slice);
+        }
+    }
+
+    private static class LazyFileChannel implements Closeable {
+
+        private final VideoStream videoStream;
+        private FileChannel channel;
+
+        LazyFileChannel(VideoStream videoStream) {
+            this.videoStream = videoStream;
+        }
+
+        FileChannel get() throws IOException {
+            if (channel == null) {
+                channel = FileChannel.open(videoStream.getFile(), StandardOpenOption.READ);
+            }
+            return channel;
+        }
+
+        int read(long position, ByteBuffer target) throws IOException {
+            FileChannel fileChannel = get();
+            int total = 0;
+            while (target.hasRemaining()) {
+                int read = fileChannel.read(target, position + total);
+                if (read < 0) {
+                    break;
+                }
+                total += read;
+            }
+            return total;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.nevc.api.video_streaming.streaming;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads video files with {@link FileChannel#transferTo}, which lets the kernel copy file pages to the target
+ * without going through heap buffers whenever the target channel allows it.
+ */
+public class FileChannelVideoReader implements VideoReader {
+
+    @Override
+    public void transferTo(VideoStream videoStream, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(videoStream.getFile(), StandardOpenOption.READ)) {
+            transfer(channel, position, count, target);
+        }
+    }
+
+    static void transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                throw new IOException("Video file ended " + remaining + " bytes before the requested range");
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+}
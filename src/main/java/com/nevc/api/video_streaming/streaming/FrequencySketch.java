@@ -0,0 +1,72 @@
+package com.nevc.api.video_streaming.streaming;
+
+/**
+ * Approximate access frequency of cache keys for TinyLFU admission: a count-min sketch of 4-bit counters that
+ * are all halved once the number of increments reaches the sample size, so old popularity fades away.
+ * Not thread-safe, callers hold the cache lock.
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int counters = Integer.highestOneBit(Math.max(16, expectedEntries * 16 - 1)) << 1;
+        this.table = new long[counters / 16];
+        this.counterMask = counters - 1;
+        this.sampleSize = Math.max(10, expectedEntries * 10);
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (long seed : SEEDS) {
+            int index = counterIndex(hash, seed);
+            frequency = Math.min(frequency, (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xF));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (long seed : SEEDS) {
+            int index = counterIndex(hash, seed);
+            int shift = (index & 15) << 2;
+            long count = (table[index >>> 4] >>> shift) & 0xF;
+            if (count < MAX_COUNT) {
+                table[index >>> 4] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int counterIndex(int hash, long seed) {
+        long h = (hash + seed) * seed;
+        h ^= h >>> 32;
+        return (int) h & counterMask;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 17;
+        hash *= 0xed5ad4bb;
+        hash ^= hash >>> 11;
+        return hash;
+    }
+}
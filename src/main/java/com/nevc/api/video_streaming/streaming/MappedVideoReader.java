@@ -0,0 +1,164 @@
+package com.nevc.api.video_streaming.streaming;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads video files through read-only memory mappings of a fixed window size. Mapped windows are kept in an LRU
+ * shared by all viewers, so concurrent sessions of the same title read the same pages without a syscall per read.
+ * Each reader works on its own {@link ByteBuffer#slice slice} of a window, the mapping itself is never modified.
+ * <p>
+ * Windows belong to a file's identity (its file key, size and modification time) rather than to its path. A file
+ * replaced under the same path is mapped again, and the windows of the old file are dropped the first time that
+ * happens.
+ * <p>
+ * Windows that fall out of the LRU are unmapped by the garbage collector once no response is still writing from them.
+ */
+@Slf4j
+public class MappedVideoReader implements VideoReader, MeterBinder {
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class FileIdentity {
+        private final Path file;
+        private final Object fileKey;
+        private final long size;
+        private final long lastModified;
+
+        static FileIdentity of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileIdentity(file, attributes.fileKey(), attributes.size(), attributes.lastModifiedTime().toMillis());
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class RegionKey {
+        private final FileIdentity file;
+        private final long windowIndex;
+    }
+
+    private final long windowSize;
+    private final int maxRegions;
+    private final Map<RegionKey, MappedByteBuffer> regions;
+    private final AtomicLong mappedBytes = new AtomicLong();
+    private final LongAdder reuses = new LongAdder();
+    private final LongAdder mappings = new LongAdder();
+
+    public MappedVideoReader(long windowSize, int maxRegions) {
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Mapping window size must be between 1 byte and 2GB");
+        }
+        this.windowSize = windowSize;
+        this.maxRegions = maxRegions;
+        this.regions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RegionKey, MappedByteBuffer> eldest) {
+                if (size() <= MappedVideoReader.this.maxRegions) {
+                    return false;
+                }
+                mappedBytes.addAndGet(-eldest.getValue().capacity());
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public void transferTo(VideoStream videoStream, long position, long count, WritableByteChannel target) throws IOException {
+        FileIdentity file = FileIdentity.of(videoStream.getFile().toAbsolutePath());
+        long end = position + count;
+        while (position < end) {
+            long windowIndex = position / windowSize;
+            MappedByteBuffer region = region(file, windowIndex);
+            int offset = (int) (position - windowIndex * windowSize);
+            int length = (int) Math.min(end - position, region.capacity() - offset);
+            if (length <= 0) {
+                throw new IOException("Video file ended " + (end - position) + " bytes before the requested range");
+            }
+            ByteBuffer slice = region.slice(offset, length);
+            while (slice.hasRemaining()) {
+                target.write(slice);
+            }
+            position += length;
+        }
+    }
+
+    private MappedByteBuffer region(FileIdentity file, long windowIndex) throws IOException {
+        RegionKey key = new RegionKey(file, windowIndex);
+        synchronized (regions) {
+            MappedByteBuffer region = regions.get(key);
+            if (region != null) {
+                reuses.increment();
+                return region;
+            }
+        }
+        MappedByteBuffer region;
+        try (FileChannel channel = FileChannel.open(file.file, StandardOpenOption.READ)) {
+            long start = windowIndex * windowSize;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(0, Math.min(windowSize, channel.size() - start)));
+        }
+        mappings.increment();
+        synchronized (regions) {
+            MappedByteBuffer existing = regions.putIfAbsent(key, region);
+            if (existing != null) {
+                return existing;
+            }
+            mappedBytes.addAndGet(region.capacity());
+            dropReplaced(file);
+        }
+        log.debug("Mapped window {} of {} ({} bytes)", windowIndex, file.file, region.capacity());
+        return region;
+    }
+
+    /**
+     * Unmaps the windows of earlier files at the same path. Only runs after a new window has been mapped, so reads of
+     * windows that are already mapped never scan the LRU.
+     */
+    private void dropReplaced(FileIdentity file) {
+        Iterator<Map.Entry<RegionKey, MappedByteBuffer>> iterator = regions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<RegionKey, MappedByteBuffer> entry = iterator.next();
+            FileIdentity mapped = entry.getKey().file;
+            if (mapped.file.equals(file.file) && !mapped.equals(file)) {
+                mappedBytes.addAndGet(-entry.getValue().capacity());
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("video.mmap.mapped", mappedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .description("Bytes of video files currently held in mapped windows")
+                .register(registry);
+        FunctionCounter.builder("video.mmap.regions", reuses, LongAdder::sum)
+                .tag("result", "reused")
+                .description("Reads served from an already mapped window")
+                .register(registry);
+        FunctionCounter.builder("video.mmap.regions", mappings, LongAdder::sum)
+                .tag("result", "mapped")
+                .description("Windows mapped from a video file")
+                .register(registry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.nevc.api.video_streaming.streaming;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed-size piece of a video file held in an off-heap slot of the {@link VideoChunkCache}.
+ * Readers must {@link VideoChunkCache#release(VideoChunk) release} a chunk they acquired, the slot is only
+ * reused once the cache has evicted the chunk and no reader holds it any more.
+ */
+public class VideoChunk {
+
+    enum Region { WINDOW, PROBATION, PROTECTED }
+
+    @Getter
+    private final VideoChunkCache.ChunkKey key;
+    final int slot;
+    private final ByteBuffer buffer;
+    final AtomicInteger references = new AtomicInteger(2);
+    Region region = Region.WINDOW;
+    private volatile boolean loaded;
+    @Getter
+    private volatile int length;
+
+    VideoChunk(VideoChunkCache.ChunkKey key, int slot, ByteBuffer buffer) {
+        this.key = key;
+        this.slot = slot;
+        this.buffer = buffer;
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    ByteBuffer loadTarget() {
+        return buffer.duplicate().clear();
+    }
+
+    void markLoaded(int length) {
+        this.length = length;
+        this.loaded = true;
+    }
+
+    /**
+     * An independent read-only view of part of the chunk, safe to hand to concurrent readers.
+     */
+    public ByteBuffer slice(int offset, int sliceLength) {
+        return buffer.slice(offset, sliceLength).asReadOnlyBuffer();
+    }
+}
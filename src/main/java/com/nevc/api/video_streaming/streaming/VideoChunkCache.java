@@ -0,0 +1,279 @@
+package com.nevc.api.video_streaming.streaming;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Off-heap cache of video file chunks keyed by (videoId, chunkIndex).
+ * <p>
+ * Chunk data lives in direct {@link ByteBuffer} slabs that are allocated lazily up to the configured budget and
+ * carved into fixed-size slots, so the cache does not grow the Java heap. Eviction follows W-TinyLFU: new chunks
+ * enter a small LRU window, and a chunk leaving the window only displaces the least recently used chunk of the
+ * main segmented LRU when the {@link FrequencySketch} has seen it more often. A burst of one-off reads therefore
+ * cannot flush the chunks of the titles everybody is watching.
+ */
+@Slf4j
+public class VideoChunkCache implements MeterBinder {
+
+    private static final int ADMISSION_FREQUENCY = 2;
+
+    @FunctionalInterface
+    public interface ChunkLoader {
+        /**
+         * Fills the target buffer with the chunk content and returns the number of bytes written.
+         */
+        int load(ByteBuffer target) throws IOException;
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class ChunkKey {
+        private final long videoId;
+        private final long chunkIndex;
+    }
+
+    @Getter
+    private final int chunkSize;
+    private final int capacity;
+    private final int chunksPerSlab;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+    private final ByteBuffer[] slabs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<ChunkKey, VideoChunk> chunks = new HashMap<>();
+    private final LinkedHashMap<ChunkKey, VideoChunk> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<ChunkKey, VideoChunk> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<ChunkKey, VideoChunk> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final Queue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile int allocatedSlabs;
+
+    public VideoChunkCache(long maxBytes, int chunkSize, long slabBytes) {
+        if (chunkSize <= 0 || maxBytes < chunkSize) {
+            throw new IllegalArgumentException("Cache size must hold at least one chunk of " + chunkSize + " bytes");
+        }
+        this.chunkSize = chunkSize;
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, maxBytes / chunkSize);
+        this.chunksPerSlab = (int) Math.max(1, Math.min(capacity, Math.min(Integer.MAX_VALUE / chunkSize, slabBytes / chunkSize)));
+        this.slabs = new ByteBuffer[(capacity + chunksPerSlab - 1) / chunksPerSlab];
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = mainCapacity * 4 / 5;
+        this.sketch = new FrequencySketch(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            freeSlots.add(slot);
+        }
+        log.info("Video chunk cache holds up to {} chunks of {} bytes in slabs of {} chunks", capacity, chunkSize, chunksPerSlab);
+    }
+
+    /**
+     * Returns the cached chunk, loading it on a miss. Returns {@code null} when the chunk cannot be cached right now
+     * (another reader is still loading it, or every slot is held by readers), in which case the caller should read
+     * the file directly. A non-null chunk must be passed to {@link #release(VideoChunk)} once written.
+     */
+    public VideoChunk acquire(long videoId, long chunkIndex, ChunkLoader loader) throws IOException {
+        ChunkKey key = new ChunkKey(videoId, chunkIndex);
+        VideoChunk chunk;
+        lock.lock();
+        try {
+            sketch.increment(key);
+            chunk = chunks.get(key);
+            if (chunk != null) {
+                if (!chunk.isLoaded()) {
+                    misses.increment();
+                    return null;
+                }
+                hits.increment();
+                onHit(chunk);
+                chunk.references.incrementAndGet();
+                return chunk;
+            }
+            misses.increment();
+            if (chunks.size() >= capacity) {
+                evict();
+            }
+            Integer slot = freeSlots.poll();
+            if (slot == null) {
+                return null;
+            }
+            chunk = new VideoChunk(key, slot, slotBuffer(slot));
+            chunks.put(key, chunk);
+            window.put(key, chunk);
+            drainWindow();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            chunk.markLoaded(loader.load(chunk.loadTarget()));
+            return chunk;
+        } catch (IOException | RuntimeException e) {
+            lock.lock();
+            try {
+                if (chunks.remove(key, chunk)) {
+                    regionOf(chunk).remove(key);
+                    release(chunk);
+                }
+            } finally {
+                lock.unlock();
+            }
+            release(chunk);
+            throw e;
+        }
+    }
+
+    /**
+     * Whether a read starting in the chunk should be served from the cache: the chunk is cached, or it has been
+     * requested often enough to compete for a slot. Otherwise the request is counted here, as the read will not go
+     * through {@link #acquire}, so a chunk that turns popular is cached on a later request.
+     */
+    public boolean isWorthReading(long videoId, long chunkIndex) {
+        ChunkKey key = new ChunkKey(videoId, chunkIndex);
+        lock.lock();
+        try {
+            VideoChunk chunk = chunks.get(key);
+            if ((chunk != null && chunk.isLoaded()) || sketch.frequency(key) >= ADMISSION_FREQUENCY) {
+                return true;
+            }
+            sketch.increment(key);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(VideoChunk chunk) {
+        if (chunk.references.decrementAndGet() == 0) {
+            freeSlots.add(chunk.slot);
+        }
+    }
+
+    private void onHit(VideoChunk chunk) {
+        switch (chunk.region) {
+            case WINDOW -> window.get(chunk.getKey());
+            case PROTECTED -> protectedSegment.get(chunk.getKey());
+            case PROBATION -> {
+                probation.remove(chunk.getKey());
+                chunk.region = VideoChunk.Region.PROTECTED;
+                protectedSegment.put(chunk.getKey(), chunk);
+                if (protectedSegment.size() > protectedCapacity) {
+                    VideoChunk demoted = removeEldest(protectedSegment);
+                    demoted.region = VideoChunk.Region.PROBATION;
+                    probation.put(demoted.getKey(), demoted);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps the window at its share of the capacity by moving its eldest chunks to probation while the main
+     * segment still has room.
+     */
+    private void drainWindow() {
+        while (window.size() > windowCapacity && probation.size() + protectedSegment.size() < mainCapacity) {
+            VideoChunk chunk = removeEldest(window);
+            chunk.region = VideoChunk.Region.PROBATION;
+            probation.put(chunk.getKey(), chunk);
+        }
+    }
+
+    /**
+     * Frees one entry. The eldest chunk of the window is the admission candidate for the main segment, and
+     * whichever of the candidate and the main segment's victim has the lower frequency is evicted.
+     */
+    private void evict() {
+        VideoChunk victim = eldest(probation.isEmpty() ? protectedSegment : probation);
+        if (window.isEmpty() || victim == null) {
+            evictChunk(removeEldest(window.isEmpty() ? (probation.isEmpty() ? protectedSegment : probation) : window));
+            return;
+        }
+        VideoChunk candidate = removeEldest(window);
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+            regionOf(victim).remove(victim.getKey());
+            candidate.region = VideoChunk.Region.PROBATION;
+            probation.put(candidate.getKey(), candidate);
+            evictChunk(victim);
+        } else {
+            evictChunk(candidate);
+        }
+    }
+
+    private void evictChunk(VideoChunk chunk) {
+        chunks.remove(chunk.getKey());
+        evictions.increment();
+        release(chunk);
+    }
+
+    private LinkedHashMap<ChunkKey, VideoChunk> regionOf(VideoChunk chunk) {
+        return switch (chunk.region) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            case PROTECTED -> protectedSegment;
+        };
+    }
+
+    private static VideoChunk eldest(LinkedHashMap<ChunkKey, VideoChunk> region) {
+        return region.isEmpty() ? null : region.values().iterator().next();
+    }
+
+    private static VideoChunk removeEldest(LinkedHashMap<ChunkKey, VideoChunk> region) {
+        Iterator<VideoChunk> iterator = region.values().iterator();
+        VideoChunk chunk = iterator.next();
+        iterator.remove();
+        return chunk;
+    }
+
+    private ByteBuffer slotBuffer(int slot) {
+        int slabIndex = slot / chunksPerSlab;
+        if (slabs[slabIndex] == null) {
+            slabs[slabIndex] = ByteBuffer.allocateDirect(chunksPerSlab * chunkSize);
+            allocatedSlabs++;
+        }
+        return slabs[slabIndex].slice((slot % chunksPerSlab) * chunkSize, chunkSize);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("video.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Video chunk reads served from the off-heap cache")
+                .register(registry);
+        FunctionCounter.builder("video.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Video chunk reads that went to the file")
+                .register(registry);
+        FunctionCounter.builder("video.cache.evictions", evictions, LongAdder::sum)
+                .description("Video chunks evicted from the off-heap cache")
+                .register(registry);
+        Gauge.builder("video.cache.allocated", this, cache -> (double) cache.allocatedSlabs * cache.chunksPerSlab * cache.chunkSize)
+                .baseUnit("bytes")
+                .description("Direct memory allocated for video chunk slabs")
+                .register(registry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.nevc.api.video_streaming.streaming;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Moves bytes of a video file to the response channel.
+ */
+public interface VideoReader {
+
+    void transferTo(VideoStream videoStream, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * Whether the range is better sent by the servlet container with sendfile than read by this reader. Published
+     * files are never rewritten, so sendfile always sends the right bytes; readers that keep bytes in memory only
+     * serve the ranges they hold.
+     */
+    default boolean prefersSendfile(VideoStream videoStream, ByteRange range) {
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+package com.nevc.api.video_streaming.streaming;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Response body for video playback: the file to stream and the byte ranges of it to send.
+ * An empty range list means the whole file, several ranges are sent as {@code multipart/byteranges}.
+ * Written by {@link VideoStreamHttpMessageConverter}.
+ */
+@Getter
+@Builder
+@ToString
+public class VideoStream {
+
+    private final Long videoId;
+
+    private final Path file;
+
+    private final long fileLength;
+
+    @Builder.Default
+    private final List<ByteRange> ranges = List.of();
+
+    /**
+     * Content type of the video itself, repeated in every part of a multipart response.
+     */
+    @Builder.Default
+    private final MediaType contentType = MediaType.APPLICATION_OCTET_STREAM;
+
+    /**
+     * Multipart boundary, only used when more than one range is sent.
+     */
+    private final String boundary;
+
+    public boolean isPartial() {
+        return !ranges.isEmpty();
+    }
+
+    public boolean isMultipart() {
+        return ranges.size() > 1;
+    }
+
+    public MediaType getMultipartContentType() {
+        return MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary);
+    }
+
+    public long getContentLength() {
+        if (ranges.isEmpty()) {
+            return fileLength;
+        }
+        if (!isMultipart()) {
+            return ranges.getFirst().length();
+        }
+        long length = getClosingDelimiter().length;
+        for (ByteRange range : ranges) {
+            length += getPartHeader(range).length + range.length();
+        }
+        return length;
+    }
+
+    public byte[] getPartHeader(ByteRange range) {
+        return ("\r\n--" + boundary + "\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + "Content-Range: " + range.toContentRange(fileLength) + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public byte[] getClosingDelimiter() {
+        return ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,166 @@
+package com.nevc.api.video_streaming.streaming;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes a {@link VideoStream} to the response body. Picked up by Spring Boot as an additional message converter.
+ * <p>
+ * When the servlet container supports sendfile (Tomcat's NIO connector does by default) the file and range are
+ * handed to the container, and the kernel moves the pages to the socket without copying them into the JVM, unless
+ * the configured {@link VideoReader} would rather serve the range itself, as the chunk cache does for hot ranges.
+ * Otherwise the bytes are moved with the reader. The servlet output only takes byte arrays, so bytes the reader holds
+ * in direct or mapped memory are copied through one 64KB array per response.
+ */
+@Slf4j
+@Component
+public class VideoStreamHttpMessageConverter extends AbstractHttpMessageConverter<VideoStream> {
+
+    static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final VideoReader videoReader;
+    private final boolean sendfileEnabled;
+    private final long sendfileMinSize;
+
+    public VideoStreamHttpMessageConverter(VideoReader videoReader,
+                                           @Value("${video.streaming.sendfile.enabled:true}") boolean sendfileEnabled,
+                                           @Value("${video.streaming.sendfile.minSize:48KB}") DataSize sendfileMinSize) {
+        super(MediaType.ALL);
+        this.videoReader = videoReader;
+        this.sendfileEnabled = sendfileEnabled;
+        this.sendfileMinSize = sendfileMinSize.toBytes();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return VideoStream.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected VideoStream readInternal(Class<? extends VideoStream> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Video streams cannot be read from a request", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(VideoStream videoStream, MediaType contentType) {
+        return videoStream.getContentLength();
+    }
+
+    @Override
+    protected void writeInternal(VideoStream videoStream, HttpOutputMessage outputMessage) throws IOException {
+        if (videoStream.isMultipart()) {
+            writeMultipart(videoStream, outputMessage.getBody());
+            return;
+        }
+        ByteRange range = videoStream.isPartial()
+                ? videoStream.getRanges().getFirst()
+                : new ByteRange(0, videoStream.getFileLength() - 1);
+        if (range.length() <= 0) {
+            return;
+        }
+        if (trySendfile(videoStream, range)) {
+            return;
+        }
+        WritableByteChannel channel = new OutputStreamChannel(outputMessage.getBody());
+        videoReader.transferTo(videoStream, range.getStart(), range.length(), channel);
+    }
+
+    private void writeMultipart(VideoStream videoStream, OutputStream body) throws IOException {
+        WritableByteChannel channel = new OutputStreamChannel(body);
+        for (ByteRange range : videoStream.getRanges()) {
+            body.write(videoStream.getPartHeader(range));
+            videoReader.transferTo(videoStream, range.getStart(), range.length(), channel);
+        }
+        body.write(videoStream.getClosingDelimiter());
+    }
+
+    /**
+     * Asks the container to send the range itself. The attributes are read when the response is committed, which
+     * happens when the converter flushes the (still empty) body right after this method returns.
+     */
+    private boolean trySendfile(VideoStream videoStream, ByteRange range) {
+        if (!sendfileEnabled || range.length() < sendfileMinSize) {
+            return false;
+        }
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))
+                || !videoReader.prefersSendfile(videoStream, range)) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME_ATTR, videoStream.getFile().toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START_ATTR, range.getStart());
+        request.setAttribute(SENDFILE_END_ATTR, range.getEnd() + 1);
+        log.debug("Sending bytes {}-{} of video id: {} with sendfile", range.getStart(), range.getEnd(), videoStream.getVideoId());
+        return true;
+    }
+
+    /**
+     * Writes buffers to the response stream. Heap buffers are written from their array, other buffers are copied
+     * through one 64KB array rather than the 8KB steps of
+     * {@link java.nio.channels.Channels#newChannel(OutputStream)}. Closing it leaves the response stream open.
+     */
+    static class OutputStreamChannel implements WritableByteChannel {
+
+        private final OutputStream out;
+        private byte[] copyBuffer;
+
+        OutputStreamChannel(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            int length = source.remaining();
+            if (source.hasArray()) {
+                out.write(source.array(), source.arrayOffset() + source.position(), length);
+                source.position(source.limit());
+                return length;
+            }
+            if (copyBuffer == null) {
+                copyBuffer = new byte[COPY_BUFFER_SIZE];
+            }
+            while (source.hasRemaining()) {
+                int count = Math.min(source.remaining(), copyBuffer.length);
+                source.get(copyBuffer, 0, count);
+                out.write(copyBuffer, 0, count);
+            }
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
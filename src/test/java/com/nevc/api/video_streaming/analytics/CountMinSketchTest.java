@@ -0,0 +1,40 @@
+package com.nevc.api.video_streaming.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void testEstimate_NeverBelowTrueCount() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (long key = 0; key < 5_000; key++) {
+            sketch.add(key, key % 10 + 1);
+        }
+
+        for (long key = 0; key < 5_000; key++) {
+            assertTrue(sketch.estimate(key) >= key % 10 + 1);
+        }
+    }
+
+    @Test
+    void testEstimate_HeavyHitterAccurate() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (long key = 0; key < 1_000; key++) {
+            sketch.add(key, 1);
+        }
+
+        assertEquals(10_001, sketch.add(7L, 10_000), 10_000 * 0.01);
+    }
+
+    @Test
+    void testClear() {
+        CountMinSketch sketch = new CountMinSketch(2, 16);
+        sketch.add(1L, 5);
+
+        sketch.clear();
+
+        assertEquals(0, sketch.estimate(1L));
+    }
+}
@@ -0,0 +1,59 @@
+package com.nevc.api.video_streaming.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void testEstimate_WithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long userId = 1; userId <= 100_000; userId++) {
+            sketch.add(userId);
+        }
+
+        assertEquals(100_000, sketch.estimate(), 100_000 * 3 * HyperLogLog.RELATIVE_ERROR);
+    }
+
+    @Test
+    void testEstimate_SmallCardinality() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int repeat = 0; repeat < 5; repeat++) {
+            for (long userId = 1; userId <= 50; userId++) {
+                sketch.add(userId);
+            }
+        }
+
+        assertEquals(50, sketch.estimate(), 1);
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void testMerge_EqualsUnion() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        for (long userId = 0; userId < 20_000; userId++) {
+            (userId < 12_000 ? monday : tuesday).add(userId);
+            if (userId >= 8_000 && userId < 12_000) {
+                tuesday.add(userId);
+            }
+            both.add(userId);
+        }
+
+        monday.merge(tuesday);
+
+        assertEquals(both, monday);
+    }
+
+    @Test
+    void testFromBytes_RoundTrip() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add(42L);
+
+        assertEquals(sketch, HyperLogLog.fromBytes(sketch.toBytes()));
+        assertEquals(HyperLogLog.REGISTERS, sketch.toBytes().length);
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[16]));
+    }
+}
@@ -0,0 +1,68 @@
+package com.nevc.api.video_streaming.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImpressionDeduplicatorTest {
+
+    private final Clock clock = mock(Clock.class);
+    private ImpressionDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.millis()).thenReturn(Duration.ofDays(1).toMillis());
+        deduplicator = new ImpressionDeduplicator(clock, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void testAccept_RepeatWithinWindowDropped() {
+        assertTrue(deduplicator.accept(1L, 10L));
+        advance(Duration.ofSeconds(10));
+
+        assertFalse(deduplicator.accept(1L, 10L));
+        assertTrue(deduplicator.accept(2L, 10L));
+        assertTrue(deduplicator.accept(1L, 11L));
+    }
+
+    @Test
+    void testAccept_RepeatAcrossBucketBoundaryDropped() {
+        advance(Duration.ofSeconds(25));
+        assertTrue(deduplicator.accept(1L, 10L));
+        advance(Duration.ofSeconds(10));
+
+        assertFalse(deduplicator.accept(1L, 10L));
+    }
+
+    @Test
+    void testAccept_AcceptedAgainAfterWindow() {
+        advance(Duration.ofSeconds(25));
+        assertTrue(deduplicator.accept(1L, 10L));
+        advance(Duration.ofSeconds(30));
+
+        assertTrue(deduplicator.accept(1L, 10L));
+        advance(Duration.ofSeconds(29));
+        assertFalse(deduplicator.accept(1L, 10L));
+        advance(Duration.ofMinutes(5));
+        assertTrue(deduplicator.accept(1L, 10L));
+    }
+
+    @Test
+    void testAccept_DisabledWithZeroWindow() {
+        ImpressionDeduplicator disabled = new ImpressionDeduplicator(clock, Duration.ZERO);
+
+        assertTrue(disabled.accept(1L, 10L));
+        assertTrue(disabled.accept(1L, 10L));
+    }
+
+    private void advance(Duration duration) {
+        long now = clock.millis();
+        when(clock.millis()).thenReturn(now + duration.toMillis());
+    }
+}
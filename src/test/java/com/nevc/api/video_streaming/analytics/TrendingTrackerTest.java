@@ -0,0 +1,85 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.dto.TrendingVideoDTO;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrendingTrackerTest {
+
+    private final Clock clock = mock(Clock.class);
+    private TrendingTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.millis()).thenReturn(Duration.ofDays(1).toMillis());
+        tracker = new TrendingTracker(clock, Duration.ofMinutes(1), 60, 3, 256, 3, 1, Duration.ZERO);
+    }
+
+    @Test
+    void testTrending_RankedByWeightedEvents() {
+        record(VideoEventType.IMPRESSION, 1L, 5);
+        record(VideoEventType.VIEW, 2L, 2);
+        record(VideoEventType.IMPRESSION, 3L, 1);
+
+        List<TrendingVideoDTO> trending = tracker.trending(Duration.ofMinutes(5), 10);
+
+        assertEquals(List.of(new TrendingVideoDTO(2L, 6), new TrendingVideoDTO(1L, 5), new TrendingVideoDTO(3L, 1)), trending);
+        assertEquals(2, tracker.trending(Duration.ofMinutes(5), 2).size());
+    }
+
+    @Test
+    void testTrending_SumsSlotsInWindow() {
+        record(VideoEventType.VIEW, 1L, 4);
+        advance(Duration.ofMinutes(10));
+        record(VideoEventType.VIEW, 2L, 3);
+
+        assertEquals(List.of(new TrendingVideoDTO(2L, 9)), tracker.trending(Duration.ofMinutes(5), 10));
+        assertEquals(List.of(new TrendingVideoDTO(1L, 12), new TrendingVideoDTO(2L, 9)), tracker.trending(Duration.ofMinutes(15), 10));
+    }
+
+    @Test
+    void testTrending_OldSlotsExpire() {
+        record(VideoEventType.VIEW, 1L, 4);
+        advance(Duration.ofMinutes(60));
+        record(VideoEventType.VIEW, 2L, 1);
+
+        assertEquals(List.of(new TrendingVideoDTO(2L, 3)), tracker.trending(Duration.ofHours(1), 10));
+    }
+
+    @Test
+    void testRecord_HeavyTitleDisplacesLightest() {
+        record(VideoEventType.IMPRESSION, 1L, 1);
+        record(VideoEventType.IMPRESSION, 2L, 2);
+        record(VideoEventType.IMPRESSION, 3L, 3);
+        record(VideoEventType.IMPRESSION, 4L, 4);
+
+        assertEquals(List.of(4L, 3L, 2L), tracker.trending(Duration.ofMinutes(1), 10).stream()
+                .map(TrendingVideoDTO::getVideoId)
+                .toList());
+    }
+
+    private void advance(Duration duration) {
+        long now = clock.millis();
+        when(clock.millis()).thenReturn(now + duration.toMillis());
+    }
+
+    private void record(VideoEventType type, long videoId, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(VideoEvent.builder()
+                    .type(type)
+                    .videoId(videoId)
+                    .userId(1L)
+                    .timestamp(LocalDateTime.of(2024, 12, 31, 12, 0))
+                    .build());
+        }
+    }
+}
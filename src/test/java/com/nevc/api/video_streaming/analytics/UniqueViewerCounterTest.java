@@ -0,0 +1,109 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.entities.VideoUniqueViewers;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import com.nevc.api.video_streaming.repositories.VideoUniqueViewersRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UniqueViewerCounterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 12, 31);
+
+    @Mock
+    private VideoUniqueViewersRepository videoUniqueViewersRepository;
+
+    private UniqueViewerCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        counter = new UniqueViewerCounter(videoUniqueViewersRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void testEstimate_CountsDistinctViewersNotPersistedYet() {
+        counter.add(List.of(view(1L, 10L), view(1L, 10L), view(1L, 11L), view(2L, 12L), impression(1L, 13L)));
+
+        assertEquals(2, counter.estimate(1L, DAY, DAY));
+        assertEquals(0, counter.estimate(1L, DAY.plusDays(1), DAY.plusDays(1)));
+    }
+
+    @Test
+    void testPersist_MergesIntoStoredSketch() {
+        HyperLogLog stored = new HyperLogLog();
+        stored.add(10L);
+        stored.add(20L);
+        when(videoUniqueViewersRepository.findByVideoIdAndDay(1L, DAY)).thenReturn(Optional.of(
+                VideoUniqueViewers.builder().id(5L).videoId(1L).day(DAY).registers(stored.toBytes()).build()));
+        counter.add(List.of(view(1L, 10L), view(1L, 11L)));
+
+        counter.persist();
+
+        ArgumentCaptor<VideoUniqueViewers> saved = ArgumentCaptor.forClass(VideoUniqueViewers.class);
+        verify(videoUniqueViewersRepository).save(saved.capture());
+        assertEquals(5L, saved.getValue().getId());
+        assertEquals(3, HyperLogLog.fromBytes(saved.getValue().getRegisters()).estimate());
+    }
+
+    @Test
+    void testPersist_FailureKeepsSketchPending() {
+        when(videoUniqueViewersRepository.findByVideoIdAndDay(1L, DAY)).thenReturn(Optional.empty());
+        when(videoUniqueViewersRepository.save(any())).thenThrow(new CannotAcquireLockException("timeout")).thenReturn(null);
+        counter.add(List.of(view(1L, 10L)));
+
+        counter.persist();
+        counter.add(List.of(view(1L, 11L)));
+        counter.persist();
+
+        ArgumentCaptor<VideoUniqueViewers> saved = ArgumentCaptor.forClass(VideoUniqueViewers.class);
+        verify(videoUniqueViewersRepository, times(2)).save(saved.capture());
+        assertEquals(2, HyperLogLog.fromBytes(saved.getValue().getRegisters()).estimate());
+    }
+
+    @Test
+    void testEstimate_MergesStoredDays() {
+        HyperLogLog monday = new HyperLogLog();
+        monday.add(10L);
+        HyperLogLog tuesday = new HyperLogLog();
+        tuesday.add(10L);
+        tuesday.add(11L);
+        when(videoUniqueViewersRepository.findByVideoIdAndDayBetween(1L, DAY.minusDays(1), DAY)).thenReturn(List.of(
+                VideoUniqueViewers.builder().videoId(1L).day(DAY.minusDays(1)).registers(monday.toBytes()).build(),
+                VideoUniqueViewers.builder().videoId(1L).day(DAY).registers(tuesday.toBytes()).build()));
+        counter.add(List.of(view(1L, 12L)));
+
+        assertEquals(3, counter.estimate(1L, DAY.minusDays(1), DAY));
+    }
+
+    private static VideoEvent view(long videoId, long userId) {
+        return event(VideoEventType.VIEW, videoId, userId);
+    }
+
+    private static VideoEvent impression(long videoId, long userId) {
+        return event(VideoEventType.IMPRESSION, videoId, userId);
+    }
+
+    private static VideoEvent event(VideoEventType type, long videoId, long userId) {
+        return VideoEvent.builder()
+                .type(type)
+                .videoId(videoId)
+                .userId(userId)
+                .timestamp(DAY.atTime(12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.nevc.api.video_streaming.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserAgentDictionaryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        Map<String, Long> table = Map.of("curl/8.5.0", 1L, "Mozilla/5.0", 2L, "x".repeat(512), 3L);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 2; i < invocation.getArguments().length; i++) {
+                String value = invocation.getArgument(i);
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getString(2)).thenReturn(value);
+                when(resultSet.getLong(1)).thenReturn(table.get(value));
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void testResolve_InsertsOnceThenCached() {
+        UserAgentDictionary dictionary = new UserAgentDictionary(jdbcTemplate, 100);
+
+        assertEquals(Map.of("curl/8.5.0", 1L, "Mozilla/5.0", 2L), dictionary.resolve(Set.of("curl/8.5.0", "Mozilla/5.0")));
+        assertEquals(Map.of("curl/8.5.0", 1L), dictionary.resolve(Set.of("curl/8.5.0")));
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testResolve_LongAgentTruncated() {
+        UserAgentDictionary dictionary = new UserAgentDictionary(jdbcTemplate, 100);
+        String longAgent = "x".repeat(600);
+
+        assertEquals(Map.of(longAgent, 3L), dictionary.resolve(Set.of(longAgent)));
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(List.of("x".repeat(512))), eq(1), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testResolve_CacheClearedWhenFull() {
+        UserAgentDictionary dictionary = new UserAgentDictionary(jdbcTemplate, 1);
+
+        dictionary.resolve(Set.of("curl/8.5.0"));
+        dictionary.resolve(Set.of("Mozilla/5.0"));
+        dictionary.resolve(Set.of("curl/8.5.0"));
+
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+}
@@ -0,0 +1,229 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class VideoEventJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private VideoEventWriter videoEventWriter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testReplay_WritesAndDeletesSegment() throws IOException {
+        VideoEventJournal journal = journal(DataSize.ofKilobytes(64), 500);
+        List<VideoEvent> written = captureWrites();
+
+        journal.append(List.of(event(1), event(2)));
+        journal.replay();
+
+        assertEquals(List.of(event(1), event(2)), written);
+        assertEquals(0, segments().size());
+    }
+
+    @Test
+    void testAppend_RotatesSegments() throws IOException {
+        VideoEventJournal journal = journal(DataSize.ofBytes(256), 500);
+        List<VideoEvent> written = captureWrites();
+        List<VideoEvent> events = LongStream.range(0, 20).mapToObj(VideoEventJournalTest::event).toList();
+
+        journal.append(events);
+        assertTrue(segments().size() > 1);
+        journal.replay();
+
+        assertEquals(events, written);
+        assertEquals(0, segments().size());
+    }
+
+    @Test
+    void testReplay_ResumesAfterFailure() throws IOException {
+        VideoEventJournal journal = journal(DataSize.ofKilobytes(64), 2);
+        List<VideoEvent> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).doThrow(new DataAccessResourceFailureException("down"))
+                .doAnswer(invocation -> {
+                    written.addAll(invocation.getArgument(0));
+                    return null;
+                }).when(videoEventWriter).write(anyList());
+
+        journal.append(List.of(event(1), event(2), event(3), event(4)));
+        journal.replay();
+        assertEquals(1, segments().size());
+
+        VideoEventJournal restarted = journal(DataSize.ofKilobytes(64), 2);
+        restarted.replay();
+
+        assertEquals(List.of(event(1), event(2), event(3), event(4)), written);
+        assertEquals(0, segments().size());
+    }
+
+    @Test
+    void testReplay_RejectedEventDeadLettered() throws IOException {
+        VideoEventJournal journal = journal(DataSize.ofKilobytes(64), 500);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        journal.bindTo(registry);
+        List<VideoEvent> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<VideoEvent> batch = invocation.getArgument(0);
+            if (batch.contains(event(2))) {
+                throw new DataIntegrityViolationException("Incorrect string value");
+            }
+            written.addAll(batch);
+            return null;
+        }).when(videoEventWriter).write(anyList());
+
+        journal.append(List.of(event(1), event(2), event(3)));
+        journal.replay();
+        journal.replay();
+
+        assertEquals(List.of(event(1), event(3)), written);
+        assertEquals(List.of(tempDir.resolve("dead-letters.journal")), segments());
+        assertEquals(1, registry.get("video.analytics.journal.records").tag("result", "dead-lettered").functionCounter().count());
+    }
+
+    @Test
+    void testReplay_UnavailableDatabaseKeepsEvents() throws IOException {
+        VideoEventJournal journal = journal(DataSize.ofKilobytes(64), 500);
+        doThrow(new DataAccessResourceFailureException("down")).when(videoEventWriter).write(anyList());
+
+        journal.append(List.of(event(1), event(2)));
+        journal.replay();
+
+        verify(videoEventWriter, times(1)).write(anyList());
+        assertEquals(1, segments().size());
+        assertFalse(Files.exists(tempDir.resolve("dead-letters.journal")));
+    }
+
+    @Test
+    void testReplay_CorruptRecordCounted() throws IOException {
+        VideoEventJournal journal = journal(DataSize.ofKilobytes(64), 500);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        journal.bindTo(registry);
+        List<VideoEvent> written = captureWrites();
+
+        journal.append(List.of(event(1)));
+        int secondRecord = Long.BYTES + 2 * Integer.BYTES + VideoEventJournal.encode(event(1)).length;
+        journal.append(List.of(event(2)));
+        journal.force();
+        try (RandomAccessFile file = new RandomAccessFile(segments().getFirst().toFile(), "rw")) {
+            file.seek(secondRecord + 2 * Integer.BYTES);
+            file.write(0x7f);
+        }
+        journal.replay();
+
+        assertEquals(List.of(event(1)), written);
+        assertEquals(1, registry.get("video.analytics.journal.records").tag("result", "corrupted").functionCounter().count());
+    }
+
+    @Test
+    void testReplay_RecordsAfterCorruptRecordReplayed() throws IOException {
+        VideoEventJournal journal = journal(DataSize.ofKilobytes(64), 500);
+        List<VideoEvent> written = captureWrites();
+        int recordSize = 2 * Integer.BYTES + VideoEventJournal.encode(event(1)).length;
+
+        journal.append(List.of(event(1), event(2), event(3), event(4)));
+        journal.force();
+        try (RandomAccessFile file = new RandomAccessFile(segments().getFirst().toFile(), "rw")) {
+            file.seek(Long.BYTES + recordSize + 2 * Integer.BYTES);
+            file.write(0x7f);
+        }
+        journal.replay();
+
+        assertEquals(List.of(event(1), event(3), event(4)), written);
+        assertEquals(0, segments().size());
+    }
+
+    @Test
+    void testReplay_TruncatedRecordKeepsSegment() throws IOException {
+        VideoEventJournal journal = journal(DataSize.ofKilobytes(64), 500);
+        List<VideoEvent> written = captureWrites();
+        int recordSize = 2 * Integer.BYTES + VideoEventJournal.encode(event(1)).length;
+
+        journal.append(List.of(event(1), event(2), event(3)));
+        journal.force();
+        Path segment = segments().getFirst();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(Long.BYTES + recordSize);
+            file.writeInt(Integer.MAX_VALUE);
+        }
+        journal.replay();
+
+        assertEquals(List.of(event(1)), written);
+        assertEquals(List.of(segment.resolveSibling(segment.getFileName() + ".corrupt")), segments());
+    }
+
+    @Test
+    void testEncode_RoundTrip() throws IOException {
+        VideoEvent event = VideoEvent.builder()
+                .type(VideoEventType.IMPRESSION)
+                .videoId(7L)
+                .userId(3L)
+                .timestamp(LocalDateTime.of(2025, 1, 2, 3, 4, 5, 6000))
+                .userIp("10.0.0.7")
+                .build();
+
+        assertEquals(event, VideoEventJournal.decode(VideoEventJournal.encode(event)));
+    }
+
+    private VideoEventJournal journal(DataSize segmentSize, int batchSize) throws IOException {
+        VideoEventJournal journal = new VideoEventJournal(videoEventWriter, tempDir.toString(), segmentSize, batchSize);
+        journal.init();
+        return journal;
+    }
+
+    private List<VideoEvent> captureWrites() {
+        List<VideoEvent> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).when(videoEventWriter).write(anyList());
+        return written;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static VideoEvent event(long videoId) {
+        return VideoEvent.builder()
+                .type(VideoEventType.VIEW)
+                .videoId(videoId)
+                .userId(1L)
+                .timestamp(LocalDateTime.of(2024, 12, 31, 12, 0))
+                .userAgent("curl/8.5.0")
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class VideoEventQueueTest {
+
+    @Mock
+    private VideoEventWriter videoEventWriter;
+
+    @Mock
+    private VideoEventJournal videoEventJournal;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testOffer_FlushedInBatches() throws InterruptedException {
+        VideoEventQueue queue = new VideoEventQueue(videoEventWriter, videoEventJournal, 100, 10, Duration.ofMinutes(1), Duration.ZERO);
+        List<List<VideoEvent>> batches = captureBatches();
+        queue.start();
+
+        for (int i = 0; i < 25; i++) {
+            assertTrue(queue.offer(event(i)));
+        }
+        verify(videoEventWriter, timeout(5000).atLeast(2)).write(anyList());
+        queue.stop();
+
+        assertEquals(25, batches.stream().mapToInt(List::size).sum());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 10));
+    }
+
+    @Test
+    void testOffer_FlushedAfterInterval() {
+        VideoEventQueue queue = new VideoEventQueue(videoEventWriter, videoEventJournal, 100, 500, Duration.ofMillis(50), Duration.ZERO);
+        queue.start();
+
+        queue.offer(event(1));
+
+        verify(videoEventWriter, timeout(5000)).write(List.of(event(1)));
+    }
+
+    @Test
+    void testOffer_JournaledWhenFull() throws IOException {
+        VideoEventQueue queue = new VideoEventQueue(videoEventWriter, videoEventJournal, 2, 10, Duration.ofSeconds(1), Duration.ofMillis(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queue.bindTo(registry);
+
+        assertTrue(queue.offer(event(1)));
+        assertTrue(queue.offer(event(2)));
+        assertTrue(queue.offer(event(3)));
+
+        verify(videoEventJournal).append(List.of(event(3)));
+        assertEquals(1, registry.get("video.analytics.events").tag("result", "journaled").functionCounter().count());
+        assertEquals(0, registry.get("video.analytics.events").tag("result", "dropped").functionCounter().count());
+        assertEquals(2, registry.get("video.analytics.queue.size").gauge().value());
+    }
+
+    @Test
+    void testOffer_DroppedWhenJournalFails() throws IOException {
+        VideoEventQueue queue = new VideoEventQueue(videoEventWriter, videoEventJournal, 1, 10, Duration.ofSeconds(1), Duration.ofMillis(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queue.bindTo(registry);
+        doThrow(new IOException("No space left on device")).when(videoEventJournal).append(anyList());
+
+        assertTrue(queue.offer(event(1)));
+        assertFalse(queue.offer(event(2)));
+
+        assertEquals(1, registry.get("video.analytics.events").tag("result", "dropped").functionCounter().count());
+    }
+
+    @Test
+    void testOfferAll_RemainderJournaledWhenFull() throws IOException {
+        VideoEventQueue queue = new VideoEventQueue(videoEventWriter, videoEventJournal, 2, 10, Duration.ofSeconds(1), Duration.ofMillis(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queue.bindTo(registry);
+
+        assertTrue(queue.offerAll(List.of(event(1), event(2), event(3), event(4))));
+
+        verify(videoEventJournal).append(List.of(event(3), event(4)));
+        assertEquals(2, registry.get("video.analytics.events").tag("result", "journaled").functionCounter().count());
+        assertEquals(2, registry.get("video.analytics.queue.size").gauge().value());
+    }
+
+    @Test
+    void testStop_FlushesQueuedEvents() throws InterruptedException {
+        VideoEventQueue queue = new VideoEventQueue(videoEventWriter, videoEventJournal, 100, 500, Duration.ofMinutes(1), Duration.ZERO);
+        queue.offer(event(1));
+        queue.offer(event(2));
+
+        queue.stop();
+
+        verify(videoEventWriter).write(List.of(event(1), event(2)));
+    }
+
+    @Test
+    void testFlush_WriteFailureJournaled() throws InterruptedException, IOException {
+        VideoEventQueue queue = new VideoEventQueue(videoEventWriter, videoEventJournal, 100, 500, Duration.ofMinutes(1), Duration.ZERO);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queue.bindTo(registry);
+        doThrow(new DataAccessResourceFailureException("down")).when(videoEventWriter).write(anyList());
+        queue.offer(event(1));
+
+        queue.stop();
+
+        verify(videoEventJournal).append(List.of(event(1)));
+        verify(videoEventJournal).force();
+        assertEquals(1, registry.get("video.analytics.events").tag("result", "journaled").functionCounter().count());
+    }
+
+    private List<List<VideoEvent>> captureBatches() {
+        List<List<VideoEvent>> batches = new ArrayList<>();
+        doAnswer(invocation -> {
+            synchronized (batches) {
+                batches.add(List.copyOf(invocation.getArgument(0)));
+            }
+            return null;
+        }).when(videoEventWriter).write(anyList());
+        return batches;
+    }
+
+    private static VideoEvent event(long videoId) {
+        return VideoEvent.builder()
+                .type(VideoEventType.VIEW)
+                .videoId(videoId)
+                .userId(1L)
+                .timestamp(LocalDateTime.of(2024, 12, 31, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.enums.StatsGranularity;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VideoEventWriterTest {
+
+    @Test
+    void testRollup_SummedPerBucket() {
+        List<VideoEvent> events = List.of(
+                event(VideoEventType.VIEW, 1L, LocalDateTime.of(2024, 12, 31, 12, 5)),
+                event(VideoEventType.VIEW, 1L, LocalDateTime.of(2024, 12, 31, 12, 55)),
+                event(VideoEventType.IMPRESSION, 1L, LocalDateTime.of(2024, 12, 31, 13, 0)),
+                event(VideoEventType.VIEW, 2L, LocalDateTime.of(2024, 12, 31, 12, 30)));
+
+        SortedMap<VideoEventWriter.StatsBucket, long[]> buckets = VideoEventWriter.rollup(events);
+
+        assertEquals(5, buckets.size());
+        assertArrayEquals(new long[]{0, 2}, buckets.get(bucket(1L, StatsGranularity.HOUR, LocalDateTime.of(2024, 12, 31, 12, 0))));
+        assertArrayEquals(new long[]{1, 0}, buckets.get(bucket(1L, StatsGranularity.HOUR, LocalDateTime.of(2024, 12, 31, 13, 0))));
+        assertArrayEquals(new long[]{1, 2}, buckets.get(bucket(1L, StatsGranularity.DAY, LocalDateTime.of(2024, 12, 31, 0, 0))));
+        assertArrayEquals(new long[]{0, 1}, buckets.get(bucket(2L, StatsGranularity.DAY, LocalDateTime.of(2024, 12, 31, 0, 0))));
+    }
+
+    @Test
+    void testRollup_SortedForLockOrder() {
+        List<VideoEvent> events = List.of(
+                event(VideoEventType.VIEW, 2L, LocalDateTime.of(2024, 12, 31, 12, 0)),
+                event(VideoEventType.VIEW, 1L, LocalDateTime.of(2024, 12, 31, 14, 0)),
+                event(VideoEventType.VIEW, 1L, LocalDateTime.of(2024, 12, 31, 13, 0)));
+
+        List<Long> videoIds = VideoEventWriter.rollup(events).keySet().stream()
+                .map(VideoEventWriter.StatsBucket::getVideoId)
+                .toList();
+
+        assertEquals(List.of(1L, 1L, 1L, 2L, 2L), videoIds);
+    }
+
+    private static VideoEventWriter.StatsBucket bucket(long videoId, StatsGranularity granularity, LocalDateTime start) {
+        return new VideoEventWriter.StatsBucket(videoId, granularity, start);
+    }
+
+    private static VideoEvent event(VideoEventType type, long videoId, LocalDateTime timestamp) {
+        return VideoEvent.builder()
+                .type(type)
+                .videoId(videoId)
+                .userId(1L)
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.nevc.api.video_streaming.analytics;
+
+import com.nevc.api.video_streaming.entities.WatchProgress;
+import com.nevc.api.video_streaming.repositories.WatchProgressRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WatchProgressStoreTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private WatchProgressRepository watchProgressRepository;
+
+    private final Clock clock = mock(Clock.class);
+    private WatchProgressStore store;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.instant()).thenReturn(Instant.parse("2024-12-31T12:00:00Z"));
+        store = new WatchProgressStore(jdbcTemplate, watchProgressRepository, clock, 500);
+    }
+
+    @Test
+    void testReport_LatestPositionWinsWithoutDatabase() {
+        store.report(1L, 10L, 30L);
+        when(clock.instant()).thenReturn(Instant.parse("2024-12-31T12:00:05Z"));
+        store.report(1L, 10L, 35L);
+
+        WatchProgress progress = store.find(1L, 10L).orElseThrow();
+
+        assertEquals(35L, progress.getPositionSeconds());
+        assertEquals(LocalDateTime.of(2024, 12, 31, 12, 0, 5), progress.getUpdatedAt());
+        verifyNoInteractions(jdbcTemplate, watchProgressRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_MergedPositionsWrittenOnce() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+        for (long position = 0; position < 10; position++) {
+            store.report(1L, 10L, position);
+        }
+        store.report(2L, 10L, 99L);
+
+        store.flush();
+
+        ArgumentCaptor<List<Map.Entry<WatchProgressStore.UserVideo, WatchProgressStore.Position>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture(), eq(500), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2, captor.getValue().size());
+        assertEquals(11, registry.get("video.analytics.progress.reports").functionCounter().count());
+        assertEquals(2, registry.get("video.analytics.progress.flushed").functionCounter().count());
+        assertEquals(0, registry.get("video.analytics.progress.pending").gauge().value());
+    }
+
+    @Test
+    void testFlush_StoredPositionReadAfterFlush() {
+        WatchProgress stored = WatchProgress.builder().userId(1L).videoId(10L).positionSeconds(30L).build();
+        when(watchProgressRepository.findByUserIdAndVideoId(1L, 10L)).thenReturn(Optional.of(stored));
+        store.report(1L, 10L, 30L);
+
+        store.flush();
+
+        assertEquals(Optional.of(stored), store.find(1L, 10L));
+    }
+
+    @Test
+    void testFlush_PositionReadableUntilWritten() {
+        store.report(1L, 10L, 30L);
+        doAnswer(invocation -> {
+            assertEquals(30L, store.find(1L, 10L).orElseThrow().getPositionSeconds());
+            when(clock.instant()).thenReturn(Instant.parse("2024-12-31T12:00:05Z"));
+            store.report(1L, 10L, 35L);
+            return new int[][]{{1}};
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        store.flush();
+
+        assertEquals(35L, store.find(1L, 10L).orElseThrow().getPositionSeconds());
+        verifyNoInteractions(watchProgressRepository);
+    }
+
+    @Test
+    void testFlush_FailureKeepsNewerPosition() {
+        store.report(1L, 10L, 30L);
+        doAnswer(invocation -> {
+            when(clock.instant()).thenReturn(Instant.parse("2024-12-31T12:00:05Z"));
+            store.report(1L, 10L, 35L);
+            throw new DataAccessResourceFailureException("down");
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        store.report(2L, 10L, 99L);
+
+        store.flush();
+
+        assertEquals(35L, store.find(1L, 10L).orElseThrow().getPositionSeconds());
+        assertEquals(99L, store.find(2L, 10L).orElseThrow().getPositionSeconds());
+        verifyNoInteractions(watchProgressRepository);
+    }
+}
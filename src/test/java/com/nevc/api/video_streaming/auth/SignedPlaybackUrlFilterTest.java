@@ -0,0 +1,108 @@
+package com.nevc.api.video_streaming.auth;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedPlaybackUrlFilterTest {
+
+    private PlaybackUrlSigner playbackUrlSigner;
+    private SignedPlaybackUrlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        playbackUrlSigner = new PlaybackUrlSigner();
+        playbackUrlSigner.setSecret("UGxheWJhY2tVcmxTaWduaW5nU2VjcmV0S2V5Rm9ySG1hY1NoYTI1Ng==");
+        playbackUrlSigner.init();
+        filter = new SignedPlaybackUrlFilter(playbackUrlSigner);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testInit_RejectsMissingOrShortSecret() {
+        PlaybackUrlSigner signer = new PlaybackUrlSigner();
+        assertThrows(IllegalStateException.class, signer::init);
+
+        signer.setSecret("");
+        assertThrows(IllegalStateException.class, signer::init);
+
+        signer.setSecret("c2hvcnQtc2VjcmV0");
+        assertThrows(IllegalStateException.class, signer::init);
+    }
+
+    @Test
+    void testDoFilter_ValidSignature() throws ServletException, IOException {
+        String url = playbackUrlSigner.createPlaybackUrl(1L, 2L, null, Instant.now().plus(1, ChronoUnit.HOURS));
+
+        Authentication authentication = filter(url, "127.0.0.1");
+
+        assertNotNull(authentication);
+        assertEquals(new PlaybackPrincipal(2L, 1L), authentication.getPrincipal());
+        assertEquals("ROLE_VIEWER", authentication.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void testDoFilter_Expired() throws ServletException, IOException {
+        String url = playbackUrlSigner.createPlaybackUrl(1L, 2L, null, Instant.now().minus(1, ChronoUnit.MINUTES));
+
+        assertNull(filter(url, "127.0.0.1"));
+    }
+
+    @Test
+    void testDoFilter_TamperedUser() throws ServletException, IOException {
+        String url = playbackUrlSigner.createPlaybackUrl(1L, 2L, null, Instant.now().plus(1, ChronoUnit.HOURS));
+
+        assertNull(filter(url.replace("uid=2", "uid=3"), "127.0.0.1"));
+    }
+
+    @Test
+    void testDoFilter_OtherVideo() throws ServletException, IOException {
+        String url = playbackUrlSigner.createPlaybackUrl(1L, 2L, null, Instant.now().plus(1, ChronoUnit.HOURS));
+
+        assertNull(filter(url.replace("/videos/play/1", "/videos/play/5"), "127.0.0.1"));
+    }
+
+    @Test
+    void testDoFilter_BoundIp() throws ServletException, IOException {
+        String url = playbackUrlSigner.createPlaybackUrl(1L, 2L, "10.0.0.7", Instant.now().plus(1, ChronoUnit.HOURS));
+
+        assertNull(filter(url, "10.0.0.8"));
+        assertNotNull(filter(url, "10.0.0.7"));
+    }
+
+    @Test
+    void testDoFilter_MalformedParameters() throws ServletException, IOException {
+        assertNull(filter("/videos/play/1?uid=abc&exp=1&sig=x", "127.0.0.1"));
+    }
+
+    private Authentication filter(String url, String remoteAddr) throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        String[] pathAndQuery = url.split("\\?", 2);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pathAndQuery[0]);
+        request.setRemoteAddr(remoteAddr);
+        for (String parameter : pathAndQuery[1].split("&")) {
+            String[] nameAndValue = parameter.split("=", 2);
+            request.addParameter(nameAndValue[0], nameAndValue[1]);
+        }
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -1,8 +1,10 @@
 package com.nevc.api.video_streaming.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevc.api.video_streaming.analytics.UserAgentDictionary;
 import com.nevc.api.video_streaming.auth.JwtUtil;
 import com.nevc.api.video_streaming.dto.VideoMetaDataDTO;
+import com.nevc.api.video_streaming.entities.UserAgent;
 import com.nevc.api.video_streaming.entities.VideoImpression;
 import com.nevc.api.video_streaming.entities.VideoMetaData;
 import com.nevc.api.video_streaming.entities.VideoView;
@@ -70,6 +72,9 @@ public class VideoControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserAgentDictionary userAgentDictionary;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -228,16 +233,18 @@ public class VideoControllerIntegrationTest {
                 .user(testUser)
                 .impressionDate(LocalDateTime.now())
                 .userIp("127.0.0.1")
-                .userAgent("Test Agent")
+                .userAgent(testUserAgent())
                 .build();
         videoImpressionRepository.save(impression);
 
         mockMvc.perform(get("/videos/{id}/impressions", testVideo.getId())
                         .header(HttpHeaders.AUTHORIZATION, "Bearer " + validToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].userIp").value("127.0.0.1"))
-                .andExpect(jsonPath("$[0].userAgent").value("Test Agent"));
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].userIp").value("127.0.0.1"))
+                .andExpect(jsonPath("$.items[0].userAgent").value("Test Agent"))
+                .andExpect(jsonPath("$.items[0].userId").value(testUser.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
@@ -261,16 +268,18 @@ public class VideoControllerIntegrationTest {
                 .user(testUser)
                 .viewDate(LocalDateTime.now())
                 .userIp("127.0.0.1")
-                .userAgent("Test Agent")
+                .userAgent(testUserAgent())
                 .build();
         videoViewRepository.save(view);
 
         mockMvc.perform(get("/videos/{id}/views", testVideo.getId())
                         .header(HttpHeaders.AUTHORIZATION, "Bearer " + validToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].userIp").value("127.0.0.1"))
-                .andExpect(jsonPath("$[0].userAgent").value("Test Agent"));
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].userIp").value("127.0.0.1"))
+                .andExpect(jsonPath("$.items[0].userAgent").value("Test Agent"))
+                .andExpect(jsonPath("$.items[0].userId").value(testUser.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
@@ -443,4 +452,9 @@ public class VideoControllerIntegrationTest {
                 .build();
         videoMetaDataRepository.save(testVideo);
     }
-}
\ No newline at end of file
+
+    private UserAgent testUserAgent() {
+        Long id = userAgentDictionary.resolve(Set.of("Test Agent")).get("Test Agent");
+        return UserAgent.builder().id(id).value("Test Agent").build();
+    }
+}
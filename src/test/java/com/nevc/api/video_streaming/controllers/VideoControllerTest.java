@@ -2,16 +2,38 @@ package com.nevc.api.video_streaming.controllers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevc.api.video_streaming.auth.PlaybackUrlSigner;
+import com.nevc.api.video_streaming.dto.FullTextSearchResultDTO;
+import com.nevc.api.video_streaming.dto.ImpressionBatchDTO;
+import com.nevc.api.video_streaming.dto.ImpressionBatchResultDTO;
+import com.nevc.api.video_streaming.dto.PlaybackUrlDTO;
+import com.nevc.api.video_streaming.dto.SuggestionDTO;
+import com.nevc.api.video_streaming.dto.TrendingVideoDTO;
+import com.nevc.api.video_streaming.dto.UniqueViewersDTO;
+import com.nevc.api.video_streaming.dto.VideoEventPageDTO;
 import com.nevc.api.video_streaming.dto.VideoMetaDataDTO;
+import com.nevc.api.video_streaming.dto.VideoSearchResultDTO;
+import com.nevc.api.video_streaming.dto.WatchProgressDTO;
 import com.nevc.api.video_streaming.entities.Actor;
 import com.nevc.api.video_streaming.entities.User;
-import com.nevc.api.video_streaming.entities.VideoImpression;
-import com.nevc.api.video_streaming.entities.VideoView;
 import com.nevc.api.video_streaming.enums.Genre;
 import com.nevc.api.video_streaming.enums.SearchComparator;
+import com.nevc.api.video_streaming.enums.StatsGranularity;
+import com.nevc.api.video_streaming.enums.SuggestionType;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import com.nevc.api.video_streaming.enums.VideoSort;
+import com.nevc.api.video_streaming.exceptions.BadRequestException;
+import com.nevc.api.video_streaming.exceptions.ResourceNotFoundException;
+import com.nevc.api.video_streaming.exceptions.ServiceUnavailableException;
+import com.nevc.api.video_streaming.projections.VideoEventProjection;
 import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import com.nevc.api.video_streaming.projections.VideoStatsProjection;
+import com.nevc.api.video_streaming.projections.VideoStatsTotalsProjection;
+import com.nevc.api.video_streaming.search.VideoSearchCriteria;
 import com.nevc.api.video_streaming.services.UserService;
 import com.nevc.api.video_streaming.services.VideoService;
+import com.nevc.api.video_streaming.streaming.ByteRange;
+import com.nevc.api.video_streaming.streaming.VideoStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Path;
@@ -20,19 +42,40 @@ import jakarta.validation.metadata.ConstraintDescriptor;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class VideoControllerTest {
@@ -57,10 +100,18 @@ class VideoControllerTest {
     @InjectMocks
     private VideoController videoController;
 
+    private PlaybackUrlSigner playbackUrlSigner;
+
+    @TempDir
+    java.nio.file.Path tempDir;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        videoController = new VideoController(videoService, userService, new ObjectMapper(), validator);
+        playbackUrlSigner = new PlaybackUrlSigner();
+        playbackUrlSigner.setSecret("UGxheWJhY2tVcmxTaWduaW5nU2VjcmV0S2V5Rm9ySG1hY1NoYTI1Ng==");
+        playbackUrlSigner.init();
+        videoController = new VideoController(videoService, userService, new ObjectMapper(), validator, playbackUrlSigner);
     }
 
     @Test
@@ -232,21 +283,203 @@ class VideoControllerTest {
     }
 
     @Test
-    void testPlayVideo_Success() {
-        User user = new User();
-        user.setId(1L);
-        VideoMetaDataDTO videoMetaDataDTO = new VideoMetaDataDTO();
-        Resource resource = mock(Resource.class);
-        when(userService.getLoggedInUser()).thenReturn(user);
-        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(videoMetaDataDTO);
-        when(videoService.playVideoAsResource(user, request, 1L)).thenReturn(resource);
+    void testPlayVideo_Success() throws IOException {
+        User user = mockPlayableVideo();
 
         ResponseEntity<?> response = videoController.playVideo(1L, request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(resource, response.getBody());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(MediaType.parseMediaType("video/mp4"), response.getHeaders().getContentType());
+        VideoStream videoStream = assertInstanceOf(VideoStream.class, response.getBody());
+        assertFalse(videoStream.isPartial());
+        assertEquals(100, videoStream.getContentLength());
         verify(videoService, times(1)).getVideoMetaData(user, null, 1L);
-        verify(videoService, times(1)).playVideoAsResource(user, request, 1L);
+        verify(videoService, times(1)).playVideoAsResource(user, 1L);
+        verify(videoService, times(1)).recordView(user, request, 1L);
+    }
+
+    @Test
+    void testPlayVideo_Range() throws IOException {
+        mockPlayableVideo();
+        when(request.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=10-19");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, request);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 10-19/100", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        VideoStream videoStream = assertInstanceOf(VideoStream.class, response.getBody());
+        assertEquals(List.of(new ByteRange(10, 19)), videoStream.getRanges());
+        assertEquals(10, videoStream.getContentLength());
+    }
+
+    @Test
+    void testPlayVideo_SuffixRange() throws IOException {
+        mockPlayableVideo();
+        when(request.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=-30");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, request);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 70-99/100", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testPlayVideo_RangeNotSatisfiable() throws IOException {
+        mockPlayableVideo();
+        when(request.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=100-");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, request);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */100", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testPlayVideo_MalformedRangeIgnored() throws IOException {
+        mockPlayableVideo();
+        when(request.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=20-10");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void testPlayVideo_MultipleRanges() throws IOException {
+        mockPlayableVideo();
+        videoController.setRangeMergeGap(0);
+        when(request.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=90-99,0-9");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, request);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("multipart", response.getHeaders().getContentType().getType());
+        assertEquals("byteranges", response.getHeaders().getContentType().getSubtype());
+        VideoStream videoStream = assertInstanceOf(VideoStream.class, response.getBody());
+        assertEquals(List.of(new ByteRange(0, 9), new ByteRange(90, 99)), videoStream.getRanges());
+    }
+
+    @Test
+    void testPlayVideo_NearbyRangesMerged() throws IOException {
+        mockPlayableVideo();
+        videoController.setRangeMergeGap(5);
+        when(request.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=0-9,5-19,24-29");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, request);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 0-29/100", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testPlayVideo_TooManyRanges() throws IOException {
+        mockPlayableVideo();
+        videoController.setMaxRanges(2);
+        videoController.setRangeMergeGap(0);
+        when(request.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=0-1,10-11,20-21");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, request);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        verify(videoService, never()).recordView(any(), any(), anyLong());
+    }
+
+    @Test
+    void testPlayVideo_RangeRequestsRecordOneView() throws IOException {
+        User user = mockPlayableVideo();
+        when(request.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=0-", "bytes=40-", "bytes=60-79", "bytes=90-");
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(HttpStatus.PARTIAL_CONTENT, videoController.playVideo(1L, request).getStatusCode());
+        }
+
+        verify(videoService, times(4)).playVideoAsResource(user, 1L);
+        verify(videoService, times(1)).recordView(user, request, 1L);
+    }
+
+    @Test
+    void testPlayVideo_IfRangeMatches() throws IOException {
+        mockPlayableVideo();
+        when(request.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=0-9");
+        String eTag = videoController.playVideo(1L, request).getHeaders().getETag();
+        when(request.getHeader(HttpHeaders.IF_RANGE)).thenReturn(eTag);
+
+        ResponseEntity<?> response = videoController.playVideo(1L, request);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+    }
+
+    @Test
+    void testPlayVideo_IfRangeStale() throws IOException {
+        mockPlayableVideo();
+        when(request.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=0-9");
+        when(request.getHeader(HttpHeaders.IF_RANGE)).thenReturn("\"stale\"");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(((VideoStream) response.getBody()).isPartial());
+    }
+
+    @Test
+    void testPlayVideo_NotModified() throws IOException {
+        User user = mockPlayableVideo();
+        VideoMetaDataDTO videoMetaDataDTO = VideoMetaDataDTO.builder()
+                .id(1L)
+                .fileName("test.mp4")
+                .etag("abc123")
+                .publishedDate(LocalDate.of(2024, 12, 30))
+                .build();
+        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(videoMetaDataDTO);
+        MockHttpServletRequest conditionalRequest = new MockHttpServletRequest("GET", "/videos/play/1");
+        conditionalRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc123\"");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, conditionalRequest);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"abc123\"", response.getHeaders().getETag());
+        verify(videoService, never()).playVideoAsResource(any(), anyLong());
+    }
+
+    @Test
+    void testPlayVideo_NotModifiedSince() throws IOException {
+        User user = mockPlayableVideo();
+        VideoMetaDataDTO videoMetaDataDTO = VideoMetaDataDTO.builder()
+                .id(1L)
+                .fileName("test.mp4")
+                .etag("abc123")
+                .publishedDate(LocalDate.of(2024, 12, 30))
+                .build();
+        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(videoMetaDataDTO);
+        MockHttpServletRequest conditionalRequest = new MockHttpServletRequest("GET", "/videos/play/1");
+        conditionalRequest.addHeader(HttpHeaders.IF_MODIFIED_SINCE, "Tue, 31 Dec 2024 00:00:00 GMT");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, conditionalRequest);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(videoService, never()).playVideoAsResource(any(), anyLong());
+    }
+
+    @Test
+    void testPlayVideo_StoredETag() throws IOException {
+        User user = mockPlayableVideo();
+        VideoMetaDataDTO videoMetaDataDTO = VideoMetaDataDTO.builder()
+                .id(1L)
+                .fileName("test.mp4")
+                .etag("abc123")
+                .publishedDate(LocalDate.of(2024, 12, 30))
+                .build();
+        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(videoMetaDataDTO);
+        MockHttpServletRequest conditionalRequest = new MockHttpServletRequest("GET", "/videos/play/1");
+        conditionalRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+
+        ResponseEntity<?> response = videoController.playVideo(1L, conditionalRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc123\"", response.getHeaders().getETag());
+        assertEquals(LocalDate.of(2024, 12, 30).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(),
+                response.getHeaders().getLastModified());
     }
 
     @Test
@@ -258,19 +491,124 @@ class VideoControllerTest {
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
     }
 
+    @Test
+    void testGetPlaybackUrl_Success() {
+        User user = new User();
+        user.setId(2L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(VideoMetaDataDTO.builder().id(1L).build());
+
+        ResponseEntity<?> response = videoController.getPlaybackUrl(1L, false, request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        PlaybackUrlDTO playbackUrl = assertInstanceOf(PlaybackUrlDTO.class, response.getBody());
+        String expires = String.valueOf(playbackUrl.getExpiresAt().getEpochSecond());
+        assertEquals("/videos/play/1?uid=2&exp=" + expires + "&sig=" + playbackUrlSigner.sign(1L, 2L, Long.parseLong(expires), null),
+                playbackUrl.getUrl());
+    }
+
+    @Test
+    void testGetPlaybackUrl_BindIp() {
+        User user = new User();
+        user.setId(2L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(VideoMetaDataDTO.builder().id(1L).build());
+        when(request.getRemoteAddr()).thenReturn("10.0.0.7");
+
+        ResponseEntity<?> response = videoController.getPlaybackUrl(1L, true, request);
+
+        PlaybackUrlDTO playbackUrl = assertInstanceOf(PlaybackUrlDTO.class, response.getBody());
+        assertTrue(playbackUrl.getUrl().contains("&ip=10.0.0.7&sig="));
+    }
+
+    @Test
+    void testGetPlaybackUrl_NotFound() {
+        User user = new User();
+        user.setId(2L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoMetaData(user, null, 1L)).thenThrow(new ResourceNotFoundException("Video with id:1 not found"));
+
+        ResponseEntity<?> response = videoController.getPlaybackUrl(1L, false, request);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
     @Test
     void testGetVideoMetaData_Success() {
         User user = new User();
         user.setId(1L);
         VideoMetaDataDTO videoMetaDataDTO = new VideoMetaDataDTO();
         when(userService.getLoggedInUser()).thenReturn(user);
-        when(videoService.getVideoMetaData(user, request, 1L)).thenReturn(videoMetaDataDTO);
+        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(videoMetaDataDTO);
 
         ResponseEntity<?> response = videoController.getVideoMetaData(1L, request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(videoMetaDataDTO, response.getBody());
-        verify(videoService, times(1)).getVideoMetaData(user, request, 1L);
+        verify(videoService, times(1)).getVideoMetaData(user, null, 1L);
+        verify(videoService, times(1)).recordImpression(user, request, 1L);
+    }
+
+    @Test
+    void testGetVideoMetaData_Validators() {
+        User user = new User();
+        user.setId(1L);
+        VideoMetaDataDTO videoMetaDataDTO = VideoMetaDataDTO.builder()
+                .id(1L)
+                .version(3L)
+                .publishedDate(LocalDate.of(2024, 12, 30))
+                .lastUpdatedDate(LocalDate.of(2024, 12, 31))
+                .build();
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(videoMetaDataDTO);
+
+        ResponseEntity<?> response = videoController.getVideoMetaData(1L, request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1-3\"", response.getHeaders().getETag());
+        assertEquals(-1, response.getHeaders().getLastModified());
+    }
+
+    @Test
+    void testGetVideoMetaData_IfModifiedSinceIgnored() {
+        User user = new User();
+        user.setId(1L);
+        VideoMetaDataDTO videoMetaDataDTO = VideoMetaDataDTO.builder()
+                .id(1L)
+                .version(4L)
+                .publishedDate(LocalDate.of(2024, 12, 30))
+                .lastUpdatedDate(LocalDate.of(2024, 12, 31))
+                .build();
+        MockHttpServletRequest conditionalRequest = new MockHttpServletRequest("GET", "/videos/1");
+        conditionalRequest.addHeader(HttpHeaders.IF_MODIFIED_SINCE, "Tue, 31 Dec 2024 12:00:00 GMT");
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(videoMetaDataDTO);
+
+        ResponseEntity<?> response = videoController.getVideoMetaData(1L, conditionalRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1-4\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetVideoMetaData_NotModified() {
+        User user = new User();
+        user.setId(1L);
+        VideoMetaDataDTO videoMetaDataDTO = VideoMetaDataDTO.builder()
+                .id(1L)
+                .version(3L)
+                .publishedDate(LocalDate.of(2024, 12, 30))
+                .build();
+        MockHttpServletRequest conditionalRequest = new MockHttpServletRequest("GET", "/videos/1");
+        conditionalRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1-3\"");
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(videoMetaDataDTO);
+
+        ResponseEntity<?> response = videoController.getVideoMetaData(1L, conditionalRequest);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"1-3\"", response.getHeaders().getETag());
+        verify(videoService, never()).recordImpression(any(), any(), anyLong());
     }
 
     @Test
@@ -331,22 +669,25 @@ class VideoControllerTest {
     void testFindAllVideoImpressions_Success() {
         User user = new User();
         user.setId(1L);
-        List<VideoImpression> impressions = List.of(mock(VideoImpression.class));
+        VideoEventPageDTO page = VideoEventPageDTO.builder()
+                .items(List.of(mock(VideoEventProjection.class)))
+                .nextCursor("next")
+                .build();
         when(userService.getLoggedInUser()).thenReturn(user);
-        when(videoService.getVideoImpressions(1L)).thenReturn(impressions);
+        when(videoService.getVideoEvents(VideoEventType.IMPRESSION, 1L, null, null, null, 100)).thenReturn(page);
 
-        ResponseEntity<?> response = videoController.findAllVideoImpressions(1L);
+        ResponseEntity<?> response = videoController.findAllVideoImpressions(1L, null, null, null, 100);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(impressions, response.getBody());
-        verify(videoService, times(1)).getVideoImpressions(1L);
+        assertEquals(page, response.getBody());
+        verify(videoService, times(1)).getVideoEvents(VideoEventType.IMPRESSION, 1L, null, null, null, 100);
     }
 
     @Test
     void testFindAllVideoImpressions_Unauthorized() {
         when(userService.getLoggedInUser()).thenReturn(null);
 
-        ResponseEntity<?> response = videoController.findAllVideoImpressions(1L);
+        ResponseEntity<?> response = videoController.findAllVideoImpressions(1L, null, null, null, 100);
 
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
     }
@@ -355,26 +696,387 @@ class VideoControllerTest {
     void testFindAllVideoViews_Success() {
         User user = new User();
         user.setId(1L);
-        List<VideoView> views = List.of(mock(VideoView.class));
+        VideoEventPageDTO page = VideoEventPageDTO.builder()
+                .items(List.of(mock(VideoEventProjection.class)))
+                .build();
         when(userService.getLoggedInUser()).thenReturn(user);
-        when(videoService.getVideoViews(1L)).thenReturn(views);
+        when(videoService.getVideoEvents(VideoEventType.VIEW, 1L, null, null, "cursor", 10)).thenReturn(page);
 
-        ResponseEntity<?> response = videoController.findAllVideoViews(1L);
+        ResponseEntity<?> response = videoController.findAllVideoViews(1L, null, null, "cursor", 10);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(views, response.getBody());
-        verify(videoService, times(1)).getVideoViews(1L);
+        assertEquals(page, response.getBody());
+        verify(videoService, times(1)).getVideoEvents(VideoEventType.VIEW, 1L, null, null, "cursor", 10);
+    }
+
+    @Test
+    void testFindAllVideoViews_NotFound() {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoEvents(VideoEventType.VIEW, 1L, null, null, null, 100))
+                .thenReturn(VideoEventPageDTO.builder().items(List.of()).build());
+
+        ResponseEntity<?> response = videoController.findAllVideoViews(1L, null, null, null, 100);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testFindAllVideoViews_InvalidCursor() {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoEvents(VideoEventType.VIEW, 1L, null, null, "bogus", 100))
+                .thenThrow(new BadRequestException("Invalid cursor"));
+
+        ResponseEntity<?> response = videoController.findAllVideoViews(1L, null, null, "bogus", 100);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
     @Test
     void testFindAllVideoViews_Unauthorized() {
         when(userService.getLoggedInUser()).thenReturn(null);
 
-        ResponseEntity<?> response = videoController.findAllVideoViews(1L);
+        ResponseEntity<?> response = videoController.findAllVideoViews(1L, null, null, null, 100);
 
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
     }
 
+    @Test
+    void testExportVideoViews_Ndjson() throws IOException {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        doAnswer(invocation -> {
+            Consumer<VideoEventProjection> consumer = invocation.getArgument(4);
+            consumer.accept(new TestVideoEvent(1L, 2L, "10.0.0.1"));
+            consumer.accept(new TestVideoEvent(2L, 3L, null));
+            return null;
+        }).when(videoService).exportVideoEvents(eq(VideoEventType.VIEW), eq(1L), any(), any(), any());
+
+        ResponseEntity<?> response = videoController.exportVideoViews(1L, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"userIp\":\"10.0.0.1\""));
+        assertTrue(lines[1].contains("\"userId\":3"));
+    }
+
+    @Test
+    void testExportVideoImpressions_Unauthorized() {
+        when(userService.getLoggedInUser()).thenReturn(null);
+
+        ResponseEntity<?> response = videoController.exportVideoImpressions(1L, null, null);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(videoService);
+    }
+
+    private record TestVideoEvent(Long id, Long userId, String userIp) implements VideoEventProjection {
+        public Long getId() {
+            return id;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public LocalDateTime getEventDate() {
+            return null;
+        }
+
+        public String getUserIp() {
+            return userIp;
+        }
+
+        public String getUserAgent() {
+            return null;
+        }
+    }
+
+    @Test
+    void testGetVideoStatsCounts_Success() {
+        User user = new User();
+        user.setId(1L);
+        VideoStatsTotalsProjection totals = mock(VideoStatsTotalsProjection.class);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoStatsCounts(1L)).thenReturn(totals);
+
+        ResponseEntity<?> response = videoController.getVideoStatsCounts(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(totals, response.getBody());
+    }
+
+    @Test
+    void testGetVideoStatsCounts_Unauthorized() {
+        when(userService.getLoggedInUser()).thenReturn(null);
+
+        ResponseEntity<?> response = videoController.getVideoStatsCounts(1L);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
+    @Test
+    void testGetVideoStatsTimeSeries_Success() {
+        User user = new User();
+        user.setId(1L);
+        LocalDateTime from = LocalDateTime.of(2024, 12, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 12, 31, 0, 0);
+        List<VideoStatsProjection> series = List.of(mock(VideoStatsProjection.class));
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoStatsTimeSeries(1L, StatsGranularity.DAY, from, to)).thenReturn(series);
+
+        ResponseEntity<?> response = videoController.getVideoStatsTimeSeries(1L, StatsGranularity.DAY, from, to);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(series, response.getBody());
+    }
+
+    @Test
+    void testGetVideoStatsTimeSeries_InvalidRange() {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoStatsTimeSeries(eq(1L), eq(StatsGranularity.HOUR), any(), any()))
+                .thenThrow(new BadRequestException("The time series must not span more than 1000 buckets"));
+
+        ResponseEntity<?> response = videoController.getVideoStatsTimeSeries(1L, StatsGranularity.HOUR, null, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testGetUniqueViewers_Success() {
+        User user = new User();
+        user.setId(1L);
+        LocalDate from = LocalDate.of(2024, 12, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        UniqueViewersDTO uniqueViewers = UniqueViewersDTO.builder().videoId(1L).from(from).to(to).uniqueViewers(42L).build();
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getUniqueViewers(1L, from, to)).thenReturn(uniqueViewers);
+
+        ResponseEntity<?> response = videoController.getUniqueViewers(1L, from, to);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(uniqueViewers, response.getBody());
+    }
+
+    @Test
+    void testGetUniqueViewers_Unauthorized() {
+        when(userService.getLoggedInUser()).thenReturn(null);
+
+        ResponseEntity<?> response = videoController.getUniqueViewers(1L, null, null);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
+    @Test
+    void testGetTrendingVideos_Success() {
+        User user = new User();
+        user.setId(1L);
+        List<TrendingVideoDTO> trending = List.of(new TrendingVideoDTO(7L, 120L));
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getTrendingVideos(Duration.ofMinutes(90), 5)).thenReturn(trending);
+
+        ResponseEntity<?> response = videoController.getTrendingVideos("90m", 5);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(trending, response.getBody());
+    }
+
+    @Test
+    void testGetTrendingVideos_InvalidWindow() {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+
+        ResponseEntity<?> response = videoController.getTrendingVideos("soon", 5);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(videoService);
+    }
+
+    @Test
+    void testRecordImpressions_Success() {
+        User user = new User();
+        user.setId(1L);
+        HttpServletRequest request = new MockHttpServletRequest("POST", "/videos/impressions:batch");
+        ImpressionBatchResultDTO result = new ImpressionBatchResultDTO(3, 3);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.recordImpressions(user, request, List.of(1L, 2L, 3L))).thenReturn(result);
+
+        ResponseEntity<?> response = videoController.recordImpressions(new ImpressionBatchDTO(List.of(1L, 2L, 3L)), request);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+
+    @Test
+    void testRecordImpressions_UnknownVideo() {
+        User user = new User();
+        user.setId(1L);
+        HttpServletRequest request = new MockHttpServletRequest("POST", "/videos/impressions:batch");
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.recordImpressions(user, request, List.of(9L)))
+                .thenThrow(new ResourceNotFoundException("Videos with ids:[9] not found"));
+
+        ResponseEntity<?> response = videoController.recordImpressions(new ImpressionBatchDTO(List.of(9L)), request);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testRecordImpressions_Unauthorized() {
+        when(userService.getLoggedInUser()).thenReturn(null);
+
+        ResponseEntity<?> response = videoController.recordImpressions(new ImpressionBatchDTO(List.of(1L)), new MockHttpServletRequest());
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(videoService);
+    }
+
+    @Test
+    void testRecordWatchProgress_Success() {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+
+        ResponseEntity<?> response = videoController.recordWatchProgress(1L, WatchProgressDTO.builder().positionSeconds(754L).build());
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(videoService).recordWatchProgress(user, 1L, 754L);
+    }
+
+    @Test
+    void testGetWatchProgress_NotFound() {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getWatchProgress(user, 1L)).thenThrow(new ResourceNotFoundException("No watch progress"));
+
+        ResponseEntity<?> response = videoController.getWatchProgress(1L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testSearchVideos_Success() {
+        User user = new User();
+        user.setId(1L);
+        VideoSearchCriteria criteria = VideoSearchCriteria.builder()
+                .title("knight")
+                .genres(Set.of(Genre.ACTION))
+                .excludedGenres(Set.of(Genre.ANIMATION))
+                .yearFrom(2000)
+                .build();
+        VideoSearchResultDTO result = VideoSearchResultDTO.builder().items(List.of()).total(0).build();
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.searchVideos(criteria, VideoSort.TITLE, true, null, 20)).thenReturn(result);
+
+        ResponseEntity<?> response = videoController.searchVideos("knight", null, null, Set.of(Genre.ACTION), null,
+                Set.of(Genre.ANIMATION), 2000, null, null, null, VideoSort.TITLE, Sort.Direction.DESC, null, 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+
+    @Test
+    void testSearchVideos_InvalidCursor() {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.searchVideos(any(), any(), anyBoolean(), eq("bogus"), anyInt()))
+                .thenThrow(new BadRequestException("Invalid cursor"));
+
+        ResponseEntity<?> response = videoController.searchVideos(null, null, null, null, null, null, null, null, null, null,
+                VideoSort.ID, Sort.Direction.ASC, "bogus", 20);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid cursor", response.getBody());
+    }
+
+    @Test
+    void testSearchVideos_Unauthorized() {
+        when(userService.getLoggedInUser()).thenReturn(null);
+
+        ResponseEntity<?> response = videoController.searchVideos(null, null, null, null, null, null, null, null, null, null,
+                VideoSort.ID, Sort.Direction.ASC, null, 20);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(videoService);
+    }
+
+    @Test
+    void testSuggest_Success() {
+        User user = new User();
+        user.setId(1L);
+        List<SuggestionDTO> suggestions = List.of(new SuggestionDTO("Christopher Nolan", SuggestionType.DIRECTOR, 8));
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.suggest("chris", 10)).thenReturn(suggestions);
+
+        ResponseEntity<?> response = videoController.suggest("chris", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(suggestions, response.getBody());
+    }
+
+    @Test
+    void testSuggest_BadRequest() {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.suggest(" ", 10)).thenThrow(new BadRequestException("The query must not be blank"));
+
+        ResponseEntity<?> response = videoController.suggest(" ", 10);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("The query must not be blank", response.getBody());
+    }
+
+    @Test
+    void testSearchFullText_Success() {
+        User user = new User();
+        user.setId(1L);
+        FullTextSearchResultDTO result = FullTextSearchResultDTO.builder().items(List.of()).total(0).build();
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.searchFullText("heist", null, 20)).thenReturn(result);
+
+        ResponseEntity<?> response = videoController.searchFullText("heist", null, 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+
+    @Test
+    void testSearchFullText_Unauthorized() {
+        when(userService.getLoggedInUser()).thenReturn(null);
+
+        ResponseEntity<?> response = videoController.searchFullText("heist", null, 20);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(videoService, never()).searchFullText(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void testSearchFullText_IndexLoading() {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.searchFullText("heist", null, 20))
+                .thenThrow(new ServiceUnavailableException("The full-text index is loading, try again shortly"));
+
+        ResponseEntity<?> response = videoController.searchFullText("heist", null, 20);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
     @Test
     void testGetByTitle_Success() {
         User user = new User();
@@ -550,6 +1252,20 @@ class VideoControllerTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
+    private User mockPlayableVideo() throws IOException {
+        User user = new User();
+        user.setId(1L);
+        java.nio.file.Path videoFile = Files.write(tempDir.resolve("test.mp4"), new byte[100]);
+        VideoMetaDataDTO videoMetaDataDTO = VideoMetaDataDTO.builder()
+                .id(1L)
+                .fileName("test.mp4")
+                .build();
+        when(userService.getLoggedInUser()).thenReturn(user);
+        when(videoService.getVideoMetaData(user, null, 1L)).thenReturn(videoMetaDataDTO);
+        when(videoService.playVideoAsResource(user, 1L)).thenReturn(new UrlResource(videoFile.toUri()));
+        return user;
+    }
+
     private static @NotNull Set getValidationConstraintImplementation() {
         return Set.of(new ConstraintViolation() {
             @Override
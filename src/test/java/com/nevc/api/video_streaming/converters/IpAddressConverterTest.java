@@ -0,0 +1,41 @@
+package com.nevc.api.video_streaming.converters;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IpAddressConverterTest {
+
+    private final IpAddressConverter converter = new IpAddressConverter();
+
+    @Test
+    void testConvert_Ipv4() {
+        byte[] bytes = converter.convertToDatabaseColumn("34.221.34.123");
+
+        assertArrayEquals(new byte[]{34, (byte) 221, 34, 123}, bytes);
+        assertEquals("34.221.34.123", converter.convertToEntityAttribute(bytes));
+    }
+
+    @Test
+    void testConvert_Ipv6() {
+        byte[] bytes = converter.convertToDatabaseColumn("2001:db8::7");
+
+        assertEquals(16, bytes.length);
+        assertEquals("2001:db8:0:0:0:0:0:7", converter.convertToEntityAttribute(bytes));
+    }
+
+    @Test
+    void testConvert_Ipv4MappedIpv6StoredAsIpv4() {
+        assertArrayEquals(new byte[]{10, 0, 0, 7}, converter.convertToDatabaseColumn("::ffff:10.0.0.7"));
+    }
+
+    @Test
+    void testConvert_NotAnAddress() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToDatabaseColumn("localhost"));
+        assertNull(converter.convertToDatabaseColumn("1.2.3.4.5"));
+        assertNull(converter.convertToDatabaseColumn("256.1.1.1"));
+        assertNull(converter.convertToDatabaseColumn("fe80::zz"));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
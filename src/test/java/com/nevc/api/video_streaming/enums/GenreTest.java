@@ -0,0 +1,37 @@
+package com.nevc.api.video_streaming.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenreTest {
+
+    @Test
+    void testMask_FitsInOneLong() {
+        assertTrue(Genre.values().length <= Long.SIZE);
+        assertEquals(1L, Genre.ACTION.bit());
+        assertEquals(1L << Genre.FANTASY_MECHA.ordinal(), Genre.FANTASY_MECHA.bit());
+    }
+
+    @Test
+    void testMask_RoundTrip() {
+        Set<Genre> genres = EnumSet.of(Genre.ACTION, Genre.DRAMA, Genre.FANTASY_MECHA);
+
+        long mask = Genre.mask(genres);
+
+        assertEquals(Genre.ACTION.bit() | Genre.DRAMA.bit() | Genre.FANTASY_MECHA.bit(), mask);
+        assertEquals(genres, Genre.fromMask(mask));
+        assertEquals(EnumSet.allOf(Genre.class), Genre.fromMask(Genre.mask(List.of(Genre.values()))));
+    }
+
+    @Test
+    void testMask_Empty() {
+        assertEquals(0L, Genre.mask(null));
+        assertEquals(0L, Genre.mask(Set.of()));
+        assertEquals(Set.of(), Genre.fromMask(0L));
+    }
+}
@@ -0,0 +1,72 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.dto.VideoSearchResultDTO;
+import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.enums.VideoSort;
+import com.nevc.api.video_streaming.exceptions.BadRequestException;
+import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetedSearchTest {
+
+    private static final List<VideoDocument> VIDEOS = List.of(
+            new VideoDocument(1L, "Memento", "Christopher Nolan", "Guy Pearce", 2000, Set.of(Genre.THRILLER), 113),
+            new VideoDocument(2L, "inception", "Christopher Nolan", "Leonardo DiCaprio", 2010, Set.of(Genre.ACTION, Genre.SCIENCE_FICTION), 148),
+            new VideoDocument(3L, "The Dark Knight", "Christopher Nolan", "Christian Bale", 2008, Set.of(Genre.ACTION), 152),
+            new VideoDocument(4L, "Heat", "Michael Mann", "Al Pacino", 1995, Set.of(Genre.ACTION, Genre.DRAMA), 170),
+            new VideoDocument(5L, "Interstellar", "Christopher Nolan", "Matthew McConaughey", 2014, Set.of(Genre.SCIENCE_FICTION), 169));
+
+    @Test
+    void testResult_FacetsCountEveryMatch() {
+        VideoSearchResultDTO result = run(new FacetedSearch(VideoSort.ID, false, null, 2));
+
+        assertEquals(5, result.getTotal());
+        assertEquals(Map.of(Genre.ACTION, 3L, Genre.SCIENCE_FICTION, 2L, Genre.THRILLER, 1L, Genre.DRAMA, 1L), result.getGenres());
+        assertEquals(Map.of(1990, 1L, 2000, 2L, 2010, 2L), result.getDecades());
+        assertEquals(List.of(1L, 2L), ids(result));
+        assertNotNull(result.getNextCursor());
+    }
+
+    @Test
+    void testResult_KeysetPagesCoverEveryMatchOnce() {
+        VideoSearchResultDTO first = run(new FacetedSearch(VideoSort.TITLE, false, null, 2));
+        VideoSearchResultDTO second = run(new FacetedSearch(VideoSort.TITLE, false, first.getNextCursor(), 2));
+        VideoSearchResultDTO third = run(new FacetedSearch(VideoSort.TITLE, false, second.getNextCursor(), 2));
+
+        assertEquals(List.of(4L, 2L), ids(first));
+        assertEquals(List.of(5L, 1L), ids(second));
+        assertEquals(List.of(3L), ids(third));
+        assertNull(third.getNextCursor());
+        assertEquals(5, third.getTotal());
+    }
+
+    @Test
+    void testResult_Descending() {
+        VideoSearchResultDTO first = run(new FacetedSearch(VideoSort.RUNNING_TIME, true, null, 3));
+        VideoSearchResultDTO second = run(new FacetedSearch(VideoSort.RUNNING_TIME, true, first.getNextCursor(), 3));
+
+        assertEquals(List.of(4L, 5L, 3L), ids(first));
+        assertEquals(List.of(2L, 1L), ids(second));
+    }
+
+    @Test
+    void testCursor_Invalid() {
+        assertThrows(BadRequestException.class, () -> new FacetedSearch(VideoSort.ID, false, "not a cursor!", 2));
+        assertThrows(BadRequestException.class, () -> new FacetedSearch(VideoSort.YEAR_OF_RELEASE, false, "SGVhdCw0", 2));
+    }
+
+    private static VideoSearchResultDTO run(FacetedSearch search) {
+        VIDEOS.forEach(search::accept);
+        return search.result();
+    }
+
+    private static List<Long> ids(VideoSearchResultDTO result) {
+        return result.getItems().stream().map(VideoMetaDataProjection::getId).toList();
+    }
+}
@@ -0,0 +1,209 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.entities.Actor;
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.exceptions.BadRequestException;
+import com.nevc.api.video_streaming.projections.CatalogFingerprintProjection;
+import com.nevc.api.video_streaming.repositories.VideoMetaDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FullTextIndexTest {
+
+    @Mock
+    private VideoMetaDataRepository videoMetaDataRepository;
+
+    @TempDir
+    private Path directory;
+
+    private FullTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new FullTextIndex(videoMetaDataRepository, directory.toString());
+    }
+
+    @Test
+    void testSearch_RanksByRelevance() {
+        index.put(document(1L, "Inception", "A thief steals secrets through dream-sharing technology.", "Christopher Nolan"));
+        index.put(document(2L, "Heat", "A heist crew is hunted by a detective.", "Michael Mann"));
+        index.put(document(3L, "The Town", "A heist crew robs banks in Boston, and the heist goes wrong.", "Ben Affleck"));
+
+        FullTextIndex.Page page = index.search("the HEIST", null, 10);
+
+        assertEquals(2, page.getTotal());
+        assertEquals(List.of(3L, 2L), ids(page));
+        assertTrue(page.getHits().get(0).getScore() > page.getHits().get(1).getScore());
+        assertNull(page.getNextCursor());
+        assertEquals(List.of(1L), ids(index.search("Dreams dream", null, 10)));
+        assertEquals(0, index.search("the of", null, 10).getTotal());
+    }
+
+    @Test
+    void testSearch_MatchesCastAndFoldedAccents() {
+        index.put(new FullTextIndex.FullTextDocument(1L, 0, "Amélie", "Une serveuse à Montmartre.", "Jean-Pierre Jeunet",
+                "Audrey Tautou", List.of("Mathieu Kassovitz")));
+
+        assertEquals(List.of(1L), ids(index.search("amelie", null, 10)));
+        assertEquals(List.of(1L), ids(index.search("kassovitz", null, 10)));
+        assertEquals(List.of(1L), ids(index.search("jeunet", null, 10)));
+    }
+
+    @Test
+    void testSearch_PagesWithCursor() {
+        for (long id = 1; id <= 5; id++) {
+            index.put(document(id, "Space " + id, "Astronauts in space.", "Director"));
+        }
+
+        FullTextIndex.Page first = index.search("space", null, 2);
+        FullTextIndex.Page second = index.search("space", first.getNextCursor(), 2);
+        FullTextIndex.Page last = index.search("space", second.getNextCursor(), 2);
+
+        assertEquals(List.of(1L, 2L), ids(first));
+        assertEquals(List.of(3L, 4L), ids(second));
+        assertEquals(List.of(5L), ids(last));
+        assertNull(last.getNextCursor());
+        assertEquals(5, last.getTotal());
+    }
+
+    @Test
+    void testSearch_InvalidCursor() {
+        assertThrows(BadRequestException.class, () -> index.search("space", "not a cursor", 2));
+    }
+
+    @Test
+    void testPutAndRemove() {
+        index.put(document(1L, "Alien", "A crew meets a creature.", "Ridley Scott"));
+        index.put(document(1L, "Aliens", "Marines fight the creatures.", "James Cameron"));
+
+        assertEquals(0, index.search("crew", null, 10).getTotal());
+        assertEquals(List.of(1L), ids(index.search("cameron", null, 10)));
+
+        index.remove(1L);
+
+        assertEquals(0, index.search("cameron", null, 10).getTotal());
+    }
+
+    @Test
+    void testLoad_FromDiskWhenFingerprintMatches() {
+        List<VideoMetaData> active = List.of(video(1L, 2L, "Heat", "Al Pacino"), video(4L, 1L, "Ronin", "Robert De Niro"));
+        CatalogFingerprintProjection empty = fingerprint(0, 0, 0);
+        CatalogFingerprintProjection current = fingerprint(2, 3, 4);
+        when(videoMetaDataRepository.fingerprintActive()).thenReturn(empty);
+        when(videoMetaDataRepository.findActiveWithCast()).thenReturn(active);
+        index.load();
+
+        when(videoMetaDataRepository.fingerprintActive()).thenReturn(current);
+        FullTextIndex reloaded = new FullTextIndex(videoMetaDataRepository, directory.toString());
+        reloaded.load();
+
+        assertTrue(reloaded.isReady());
+        assertEquals(List.of(4L), ids(reloaded.search("de niro", null, 10)));
+        assertEquals(index.search("heat pacino", null, 10), reloaded.search("heat pacino", null, 10));
+        verify(videoMetaDataRepository, times(1)).findActiveWithCast();
+    }
+
+    @Test
+    void testLoad_RebuildsWhenFingerprintDiffers() {
+        List<VideoMetaData> active = List.of(video(1L, 2L, "Heat", "Al Pacino"));
+        CatalogFingerprintProjection stale = fingerprint(1, 2, 1);
+        CatalogFingerprintProjection current = fingerprint(1, 3, 1);
+        when(videoMetaDataRepository.fingerprintActive()).thenReturn(stale);
+        when(videoMetaDataRepository.findActiveWithCast()).thenReturn(active);
+        index.load();
+
+        when(videoMetaDataRepository.fingerprintActive()).thenReturn(current);
+        FullTextIndex reloaded = new FullTextIndex(videoMetaDataRepository, directory.toString());
+        reloaded.load();
+
+        assertTrue(reloaded.isReady());
+        verify(videoMetaDataRepository, times(2)).findActiveWithCast();
+    }
+
+    @Test
+    void testLoad_KeepsChangesCommittedWhileLoading() {
+        CatalogFingerprintProjection current = fingerprint(2, 3, 4);
+        when(videoMetaDataRepository.fingerprintActive()).thenReturn(current);
+        when(videoMetaDataRepository.findActiveWithCast()).thenAnswer(invocation -> {
+            index.put(new FullTextIndex.FullTextDocument(1L, 3L, "Heat", "A crew of thieves", "Michael Mann", "Al Pacino", List.of()));
+            index.remove(4L);
+            return List.of(video(1L, 2L, "Heat", "Al Pacino"), video(4L, 1L, "Ronin", "Robert De Niro"));
+        });
+
+        index.load();
+
+        assertEquals(List.of(1L), ids(index.search("thieves", null, 10)));
+        assertEquals(List.of(), ids(index.search("ronin", null, 10)));
+    }
+
+    @Test
+    void testPersist_WritesIncrementalUpdates() {
+        CatalogFingerprintProjection empty = fingerprint(0, 0, 0);
+        CatalogFingerprintProjection current = fingerprint(1, 5, 7);
+        when(videoMetaDataRepository.fingerprintActive()).thenReturn(empty);
+        when(videoMetaDataRepository.findActiveWithCast()).thenReturn(List.of());
+        index.load();
+        index.put(new FullTextIndex.FullTextDocument(7L, 5, "Collateral", "A cab driver", "Michael Mann", "Tom Cruise", List.of()));
+        index.persist();
+
+        when(videoMetaDataRepository.fingerprintActive()).thenReturn(current);
+        FullTextIndex reloaded = new FullTextIndex(videoMetaDataRepository, directory.toString());
+        reloaded.load();
+
+        assertEquals(List.of(7L), ids(reloaded.search("cab", null, 10)));
+        verify(videoMetaDataRepository, times(1)).findActiveWithCast();
+    }
+
+    @Test
+    void testSnapshot_CopiesCast() {
+        VideoMetaData video = video(3L, 2L, "The Prestige", "Michael Caine");
+
+        assertEquals(new FullTextIndex.FullTextDocument(3L, 2L, "The Prestige", "Synopsis of The Prestige",
+                "Director", "Main Actor", List.of("Michael Caine")), index.snapshot(video));
+    }
+
+    private static FullTextIndex.FullTextDocument document(Long id, String title, String synopsis, String director) {
+        return new FullTextIndex.FullTextDocument(id, 0, title, synopsis, director, null, List.of());
+    }
+
+    private static VideoMetaData video(Long id, Long version, String title, String actorName) {
+        Actor actor = new Actor();
+        actor.setFullName(actorName);
+        return VideoMetaData.builder()
+                .id(id)
+                .version(version)
+                .title(title)
+                .synopsis("Synopsis of " + title)
+                .directorName("Director")
+                .mainActor("Main Actor")
+                .cast(new HashSet<>(Set.of(actor)))
+                .build();
+    }
+
+    private static CatalogFingerprintProjection fingerprint(long videos, long versions, long maxId) {
+        CatalogFingerprintProjection projection = mock(CatalogFingerprintProjection.class);
+        when(projection.getVideos()).thenReturn(videos);
+        when(projection.getVersions()).thenReturn(versions);
+        when(projection.getMaxId()).thenReturn(maxId);
+        return projection;
+    }
+
+    private static List<Long> ids(FullTextIndex.Page page) {
+        return page.getHits().stream().map(FullTextIndex.Hit::getVideoId).toList();
+    }
+}
@@ -0,0 +1,64 @@
+package com.nevc.api.video_streaming.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyIndexTest {
+
+    private static final double THRESHOLD = 0.4;
+
+    private final FuzzyIndex index = new FuzzyIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.put(1L, "Christopher Nolan");
+        index.put(2L, "Christopher McQuarrie");
+        index.put(3L, "Michael Mann");
+        index.put(4L, "Test Director");
+    }
+
+    @Test
+    void testSearch_MisspelledWords() {
+        assertEquals(List.of(1L), ids("cristopher nolen"));
+        assertEquals(List.of(1L), ids("nolen"));
+        assertEquals(List.of(3L), ids("Micheal Man"));
+    }
+
+    @Test
+    void testSearch_RankedBySimilarity() {
+        index.put(5L, "Christoph Waltz");
+
+        List<FuzzyIndex.Match> matches = index.search("christopher", THRESHOLD);
+
+        assertEquals(List.of(1L, 2L, 5L), matches.stream().map(FuzzyIndex.Match::getId).toList());
+        assertEquals(1.0, matches.get(0).getScore(), 1e-9);
+        assertEquals(1.0, matches.get(1).getScore(), 1e-9);
+        assertEquals(18.0 / 22, matches.get(2).getScore(), 1e-9);
+    }
+
+    @Test
+    void testSearch_EveryWordMustBeSimilar() {
+        assertEquals(List.of(), ids("NonExistent Director"));
+        assertEquals(List.of(), ids("zzz"));
+        assertEquals(List.of(), ids(" - "));
+    }
+
+    @Test
+    void testRemove() {
+        index.remove(1L);
+        index.put(3L, "Michael Bay");
+
+        assertEquals(List.of(), ids("nolen"));
+        assertEquals(List.of(), ids("mann"));
+        assertEquals(List.of(3L), ids("michal bay"));
+        assertEquals(3, index.size());
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, THRESHOLD).stream().map(FuzzyIndex.Match::getId).toList();
+    }
+}
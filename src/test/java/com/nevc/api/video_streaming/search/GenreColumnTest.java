@@ -0,0 +1,60 @@
+package com.nevc.api.video_streaming.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenreColumnTest {
+
+    private final GenreColumn column = new GenreColumn();
+
+    @Test
+    void testScan_MatchesInIdOrder() {
+        column.put(9L, 0b011);
+        column.put(2L, 0b001);
+        column.put(5L, 0b100);
+
+        assertEquals(List.of(2L, 9L), column.scan(mask -> (mask & 0b001) != 0));
+        assertEquals(List.of(5L), column.scan(mask -> (mask & 0b001) == 0));
+    }
+
+    @Test
+    void testPut_ReplacesMask() {
+        column.put(1L, 0b001);
+        column.put(1L, 0b010);
+
+        assertEquals(1, column.size());
+        assertEquals(List.of(), column.scan(mask -> (mask & 0b001) != 0));
+        assertEquals(List.of(1L), column.scan(mask -> (mask & 0b010) != 0));
+    }
+
+    @Test
+    void testRemove_MovesLastIntoSlot() {
+        column.put(1L, 0b001);
+        column.put(2L, 0b010);
+        column.put(3L, 0b100);
+
+        column.remove(1L);
+        column.remove(4L);
+        column.put(3L, 0b001);
+
+        assertEquals(2, column.size());
+        assertEquals(List.of(2L, 3L), column.scan(mask -> true));
+        assertEquals(List.of(3L), column.scan(mask -> (mask & 0b001) != 0));
+    }
+
+    @Test
+    void testPut_GrowsBeyondInitialCapacity() {
+        LongStream.rangeClosed(1, 5000).forEach(id -> column.put(id, id % 2 == 0 ? 0b10 : 0b01));
+
+        assertEquals(5000, column.size());
+        assertEquals(2500, column.scan(mask -> mask == 0b10).size());
+
+        column.clear();
+
+        assertEquals(List.of(), column.scan(mask -> true));
+    }
+}
@@ -0,0 +1,59 @@
+package com.nevc.api.video_streaming.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NGramIndexTest {
+
+    private NGramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NGramIndex();
+        index.put(1L, "The Dark Knight");
+        index.put(2L, "The Dark Knight Rises");
+        index.put(3L, "Inception");
+    }
+
+    @Test
+    void testSearch_SubstringIgnoringCase() {
+        assertEquals(List.of(1L, 2L), index.search("dark KNIGHT"));
+        assertEquals(List.of(2L), index.search("rises"));
+        assertEquals(List.of(3L), index.search("cept"));
+    }
+
+    @Test
+    void testSearch_ShortQueries() {
+        assertEquals(List.of(1L, 2L, 3L), index.search("t"));
+        assertEquals(List.of(3L), index.search("nc"));
+        assertEquals(List.of(1L, 2L, 3L), index.search(""));
+    }
+
+    @Test
+    void testSearch_TrigramsPresentButNotContiguous() {
+        index.put(4L, "abcd xbcde");
+
+        assertEquals(List.of(), index.search("abcde"));
+        assertEquals(List.of(4L), index.search("bcde"));
+    }
+
+    @Test
+    void testPut_ReplacesPreviousText() {
+        index.put(3L, "Interstellar");
+
+        assertEquals(List.of(), index.search("inception"));
+        assertEquals(List.of(3L), index.search("stellar"));
+    }
+
+    @Test
+    void testRemove() {
+        index.remove(1L);
+
+        assertEquals(List.of(2L), index.search("dark"));
+        assertEquals(2, index.size());
+    }
+}
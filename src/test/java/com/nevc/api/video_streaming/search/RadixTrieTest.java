@@ -0,0 +1,92 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.enums.SuggestionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixTrieTest {
+
+    private final RadixTrie trie = new RadixTrie(3);
+
+    @Test
+    void testTop_RankedByWeightWithinPrefix() {
+        Suggestion inception = suggestion("Inception", 5);
+        Suggestion interstellar = suggestion("Interstellar", 9);
+        Suggestion insomnia = suggestion("Insomnia", 1);
+        Suggestion memento = suggestion("Memento", 7);
+        trie.add("inception", inception);
+        trie.add("interstellar", interstellar);
+        trie.add("insomnia", insomnia);
+        trie.add("memento", memento);
+
+        assertEquals(List.of(interstellar, inception, insomnia), trie.top("in"));
+        assertEquals(List.of(interstellar), trie.top("inte"));
+        assertEquals(List.of(interstellar, memento, inception), trie.top(""));
+        assertEquals(List.of(), trie.top("inx"));
+        assertEquals(List.of(), trie.top("interstellarx"));
+    }
+
+    @Test
+    void testTop_PrefixEndingInsideEdge() {
+        Suggestion knight = suggestion("The Dark Knight", 1);
+        trie.add("knight", knight);
+
+        assertEquals(List.of(knight), trie.top("k"));
+        assertEquals(List.of(knight), trie.top("knig"));
+        assertEquals(List.of(knight), trie.top("knight"));
+    }
+
+    @Test
+    void testTop_SameSuggestionUnderSeveralKeysListedOnce() {
+        Suggestion title = suggestion("Knight Knight", 1);
+        trie.add("knight knight", title);
+        trie.add("knight", title);
+
+        assertEquals(List.of(title), trie.top("kn"));
+    }
+
+    @Test
+    void testRemove_MergesAndPrunesNodes() {
+        Suggestion inception = suggestion("Inception", 5);
+        Suggestion interstellar = suggestion("Interstellar", 9);
+        trie.add("inception", inception);
+        trie.add("interstellar", interstellar);
+
+        trie.remove("interstellar", interstellar);
+
+        assertEquals(List.of(inception), trie.top("in"));
+        assertEquals(List.of(inception), trie.top("ince"));
+        assertEquals(List.of(), trie.top("inte"));
+
+        trie.remove("inception", inception);
+
+        assertEquals(List.of(), trie.top(""));
+    }
+
+    @Test
+    void testReweigh_Reorders() {
+        Suggestion inception = suggestion("Inception", 5);
+        Suggestion interstellar = suggestion("Interstellar", 9);
+        trie.add("inception", inception);
+        trie.add("interstellar", interstellar);
+
+        inception.adjust(10);
+        trie.reweigh("inception");
+
+        assertEquals(List.of(inception, interstellar), trie.top("in"));
+
+        interstellar.adjust(10);
+        trie.rankAll();
+
+        assertEquals(List.of(interstellar, inception), trie.top("in"));
+    }
+
+    private static Suggestion suggestion(String text, long weight) {
+        Suggestion suggestion = new Suggestion(SuggestionType.TITLE, text);
+        suggestion.add(weight);
+        return suggestion;
+    }
+}
@@ -0,0 +1,170 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+
+    private static final VideoDocument HEAT = new VideoDocument(1L, "Heat", "Michael Mann", "Al Pacino", 1995, Set.of(Genre.DRAMA), 170);
+    private static final VideoDocument ALIEN = new VideoDocument(2L, "Alien", "Ridley Scott", "Sigourney Weaver", 1979, Set.of(Genre.HORROR), 117);
+
+    private final SearchResultCache cache = new SearchResultCache(10);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testGet_CachesResult() {
+        assertEquals(List.of("Heat"), get("genre", Genre.DRAMA, () -> List.of("Heat")));
+        assertEquals(List.of("Heat"), get("genre", Genre.DRAMA, () -> List.of("Other")));
+        assertEquals(List.of("Alien"), get("genre", Genre.HORROR, () -> List.of("Alien")));
+
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.size());
+        assertEquals(4, cache.weight());
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsedOverWeight() {
+        get("a", 1, () -> List.of("1", "2", "3"));
+        get("b", 1, () -> List.of("1", "2", "3"));
+        get("a", 1, () -> List.of());
+        get("c", 1, () -> List.of("1", "2", "3"));
+        get("huge", 1, () -> List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"));
+
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.weight());
+        get("b", 1, () -> List.of());
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void testGet_CoalescesConcurrentMisses() throws Exception {
+        int callers = 50;
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> get("genre", Genre.DRAMA, () -> {
+                    await(release);
+                    return List.of("Heat");
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<List<String>> result : results) {
+                assertEquals(List.of("Heat"), result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_FailureReachesWaitersAndIsNotCached() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<String>> leader = executor.submit(() -> get("genre", Genre.DRAMA, () -> {
+                await(release);
+                throw new BadRequestException("Invalid cursor");
+            }));
+            Thread.sleep(100);
+            Future<List<String>> waiter = executor.submit(() -> get("genre", Genre.DRAMA, () -> List.of("Heat")));
+            Thread.sleep(100);
+            release.countDown();
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException waiterFailure = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(BadRequestException.class, leaderFailure.getCause());
+            assertInstanceOf(BadRequestException.class, waiterFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(List.of("Heat"), get("genre", Genre.DRAMA, () -> List.of("Heat")));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidate_DropsOnlyAffectedResults() {
+        get("genre", Genre.DRAMA, () -> List.of("Heat"), video -> video.getGenre().contains(Genre.DRAMA));
+        get("genre", Genre.HORROR, () -> List.of("Alien"), video -> video.getGenre().contains(Genre.HORROR));
+
+        cache.invalidate(VideoChange.updated(HEAT, new VideoDocument(1L, "Heat", "Michael Mann", "Al Pacino", 1995,
+                Set.of(Genre.DRAMA, Genre.ACTION), 170)));
+
+        assertEquals(1, cache.size());
+        get("genre", Genre.HORROR, () -> List.of());
+        assertEquals(2, loads.get());
+
+        cache.invalidate(VideoChange.deleted(ALIEN));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidate_IgnoresUnchangedVideo() {
+        get("genre", Genre.DRAMA, () -> List.of("Heat"), video -> true);
+
+        cache.invalidate(VideoChange.updated(HEAT, HEAT));
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testInvalidate_DoesNotStoreSearchRunningDuringChange() {
+        List<String> result = get("genre", Genre.DRAMA, () -> {
+            cache.invalidate(VideoChange.published(HEAT));
+            return List.of("Alien");
+        });
+
+        assertEquals(List.of("Alien"), result);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testVideoChange_Changes() {
+        VideoDocument renamed = new VideoDocument(1L, "Heat 2", "Michael Mann", "Al Pacino", 1995, Set.of(Genre.DRAMA), 170);
+
+        assertTrue(VideoChange.updated(HEAT, renamed).changes(VideoDocument::getTitle));
+        assertFalse(VideoChange.updated(HEAT, renamed).changes(VideoDocument::getDirectorName));
+        assertTrue(VideoChange.published(HEAT).changes(VideoDocument::getDirectorName));
+        assertTrue(VideoChange.deleted(HEAT).affects(video -> video.getTitle().equals("Heat")));
+        assertFalse(VideoChange.updated(HEAT, renamed).affects(video -> video.getRunningTime() < 100));
+    }
+
+    private List<String> get(String search, Object argument, Supplier<List<String>> loader) {
+        return get(search, argument, loader, video -> true);
+    }
+
+    private List<String> get(String search, Object argument, Supplier<List<String>> loader,
+                             Predicate<VideoDocument> matches) {
+        return cache.get(new SearchResultCache.Key(search, argument), () -> {
+            loads.incrementAndGet();
+            return loader.get();
+        }, List::size, result -> change -> change.affects(matches));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.dto.SuggestionDTO;
+import com.nevc.api.video_streaming.entities.Actor;
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.enums.SuggestionType;
+import com.nevc.api.video_streaming.projections.VideoCastProjection;
+import com.nevc.api.video_streaming.projections.VideoViewsProjection;
+import com.nevc.api.video_streaming.repositories.VideoMetaDataRepository;
+import com.nevc.api.video_streaming.repositories.VideoStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionIndexTest {
+
+    @Mock
+    private VideoMetaDataRepository videoMetaDataRepository;
+
+    @Mock
+    private VideoStatsRepository videoStatsRepository;
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new SuggestionIndex(videoMetaDataRepository, videoStatsRepository, 5);
+    }
+
+    @Test
+    void testRebuild_RanksByVideosAndViews() {
+        when(videoMetaDataRepository.findAllByActiveTrue()).thenReturn(List.of(
+                new VideoDocument(1L, "The Dark Knight", "Christopher Nolan", "Christian Bale", 2008, Set.of(Genre.ACTION), 152),
+                new VideoDocument(2L, "The Prestige", "Christopher Nolan", "Hugh Jackman", 2006, Set.of(Genre.DRAMA), 130)));
+        List<VideoCastProjection> cast = List.of(cast(2L, "Christian Bale"));
+        List<VideoViewsProjection> views = List.of(views(2L, 40L));
+        when(videoMetaDataRepository.findActiveCast()).thenReturn(cast);
+        when(videoStatsRepository.sumViewsByVideo()).thenReturn(views);
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(
+                new SuggestionDTO("Christian Bale", SuggestionType.ACTOR, 42),
+                new SuggestionDTO("Christopher Nolan", SuggestionType.DIRECTOR, 42)), index.suggest("chri", 5));
+        assertEquals(List.of(
+                new SuggestionDTO("The Prestige", SuggestionType.TITLE, 41),
+                new SuggestionDTO("The Dark Knight", SuggestionType.TITLE, 1)), index.suggest("THE ", 5));
+        assertEquals(List.of(new SuggestionDTO("The Dark Knight", SuggestionType.TITLE, 1)), index.suggest("  knig", 5));
+        assertEquals(1, index.suggest("chri", 1).size());
+    }
+
+    @Test
+    void testRebuild_KeepsChangesCommittedWhileLoading() {
+        when(videoMetaDataRepository.findAllByActiveTrue()).thenAnswer(invocation -> {
+            index.put(new SuggestionIndex.VideoTerms(1L, "Heat (Director's Cut)", "Michael Mann", "Al Pacino", List.of()));
+            index.remove(2L);
+            return List.of(
+                    new VideoDocument(1L, "Heat", "Michael Mann", "Al Pacino", 1995, Set.of(Genre.CRIME), 170),
+                    new VideoDocument(2L, "Ronin", "John Frankenheimer", "Robert De Niro", 1998, Set.of(Genre.ACTION), 122));
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(new SuggestionDTO("Heat (Director's Cut)", SuggestionType.TITLE, 1)), index.suggest("heat", 5));
+        assertEquals(List.of(), index.suggest("ronin", 5));
+    }
+
+    @Test
+    void testPutAndRemove() {
+        index.put(new SuggestionIndex.VideoTerms(1L, "Memento", "Christopher Nolan", "Guy Pearce", List.of()));
+        index.put(new SuggestionIndex.VideoTerms(2L, "Tenet", "Christopher Nolan", "John David Washington", List.of()));
+
+        assertEquals(List.of(new SuggestionDTO("Christopher Nolan", SuggestionType.DIRECTOR, 2)), index.suggest("nolan", 5));
+
+        index.put(new SuggestionIndex.VideoTerms(2L, "Tenet", "Chris Nolan", "John David Washington", List.of()));
+
+        assertEquals(List.of(
+                new SuggestionDTO("Chris Nolan", SuggestionType.DIRECTOR, 1),
+                new SuggestionDTO("Christopher Nolan", SuggestionType.DIRECTOR, 1)), index.suggest("nolan", 5));
+
+        index.remove(1L);
+
+        assertEquals(List.of(new SuggestionDTO("Chris Nolan", SuggestionType.DIRECTOR, 1)), index.suggest("nolan", 5));
+        assertEquals(List.of(), index.suggest("memento", 5));
+    }
+
+    @Test
+    void testRefreshPopularity_Reranks() {
+        when(videoMetaDataRepository.findAllByActiveTrue()).thenReturn(List.of(
+                new VideoDocument(1L, "Heat", "Michael Mann", "Al Pacino", 1995, Set.of(Genre.CRIME), 170),
+                new VideoDocument(2L, "Hereditary", "Ari Aster", "Toni Collette", 2018, Set.of(Genre.HORROR), 127)));
+        List<VideoViewsProjection> before = List.of(views(1L, 5L));
+        when(videoStatsRepository.sumViewsByVideo()).thenReturn(before);
+        index.rebuild();
+
+        assertEquals("Heat", index.suggest("he", 5).get(0).getText());
+
+        List<VideoViewsProjection> after = List.of(views(1L, 5L), views(2L, 50L));
+        when(videoStatsRepository.sumViewsByVideo()).thenReturn(after);
+        index.refreshPopularity();
+
+        assertEquals(List.of(
+                new SuggestionDTO("Hereditary", SuggestionType.TITLE, 51),
+                new SuggestionDTO("Heat", SuggestionType.TITLE, 6)), index.suggest("he", 5));
+    }
+
+    @Test
+    void testSnapshot_KeepsIndexedCastWhenNotLoaded() {
+        Actor actor = new Actor();
+        actor.setFullName("Michael Caine");
+        VideoMetaData video = VideoMetaData.builder()
+                .id(3L)
+                .title("The Prestige")
+                .directorName("Christopher Nolan")
+                .mainActor("Hugh Jackman")
+                .cast(Set.of(actor))
+                .build();
+
+        assertEquals(new SuggestionIndex.VideoTerms(3L, "The Prestige", "Christopher Nolan", "Hugh Jackman",
+                List.of("Michael Caine")), index.snapshot(video));
+    }
+
+    private static VideoCastProjection cast(Long videoId, String fullName) {
+        VideoCastProjection projection = mock(VideoCastProjection.class);
+        when(projection.getVideoId()).thenReturn(videoId);
+        when(projection.getFullName()).thenReturn(fullName);
+        return projection;
+    }
+
+    private static VideoViewsProjection views(Long videoId, long views) {
+        VideoViewsProjection projection = mock(VideoViewsProjection.class);
+        when(projection.getVideoId()).thenReturn(videoId);
+        when(projection.getViews()).thenReturn(views);
+        return projection;
+    }
+}
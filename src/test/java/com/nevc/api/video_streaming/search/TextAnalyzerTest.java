@@ -0,0 +1,26 @@
+package com.nevc.api.video_streaming.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextAnalyzerTest {
+
+    @Test
+    void testTerms_FoldsAccentsAndCase() {
+        assertEquals(List.of("amelie", "jean", "pierre", "jeunet"), TextAnalyzer.terms("Amélie — Jean-Pierre JEUNET"));
+    }
+
+    @Test
+    void testTerms_DropsStopwords() {
+        assertEquals(List.of("lord", "rings", "2001"), TextAnalyzer.terms("The Lord of the Rings (2001)"));
+    }
+
+    @Test
+    void testTerms_EmptyText() {
+        assertEquals(List.of(), TextAnalyzer.terms(null));
+        assertEquals(List.of(), TextAnalyzer.terms(" , the ."));
+    }
+}
@@ -0,0 +1,131 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.enums.SearchField;
+import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import com.nevc.api.video_streaming.repositories.VideoMetaDataRepository;
+import com.nevc.api.video_streaming.repositories.VideoStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VideoSearchIndexListenerTest {
+
+    @Mock
+    private VideoMetaDataRepository videoMetaDataRepository;
+
+    @Mock
+    private VideoStatsRepository videoStatsRepository;
+
+    @TempDir
+    private Path directory;
+
+    private VideoSearchIndex index;
+    private SearchResultCache cache;
+    private VideoSearchIndexListener listener;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new VideoSearchIndex(videoMetaDataRepository);
+        cache = new SearchResultCache(1000);
+        listener = new VideoSearchIndexListener(provider(index),
+                provider(new SuggestionIndex(videoMetaDataRepository, videoStatsRepository, 5)),
+                provider(new FullTextIndex(videoMetaDataRepository, directory.toString())),
+                provider(cache));
+    }
+
+    @Test
+    void testOnSave_InvalidatesOnlyAffectedResults() {
+        loadIndex();
+        cacheGenre(Genre.DRAMA);
+        cacheGenre(Genre.HORROR);
+
+        listener.onSave(video(1L, "Heat", Set.of(Genre.DRAMA, Genre.ACTION), true));
+
+        assertEquals(1, cache.size());
+        assertEquals("Heat", index.document(1L).getTitle());
+        assertEquals(Set.of(Genre.DRAMA, Genre.ACTION), index.document(1L).getGenre());
+    }
+
+    @Test
+    void testOnSave_DeactivatedVideoLeavesResults() {
+        loadIndex();
+        cacheGenre(Genre.DRAMA);
+        cacheGenre(Genre.HORROR);
+
+        listener.onSave(video(2L, "Alien", Set.of(Genre.HORROR), false));
+
+        assertEquals(1, cache.size());
+        assertNull(index.document(2L));
+        assertEquals(List.of(), index.search(SearchField.TITLE, "alien"));
+    }
+
+    @Test
+    void testOnRemove_InvalidatesResultsHoldingVideo() {
+        loadIndex();
+        cacheGenre(Genre.DRAMA);
+        cacheGenre(Genre.HORROR);
+
+        listener.onRemove(video(1L, "Heat", Set.of(Genre.DRAMA), true));
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testOnSave_InvalidatesEverythingWhileIndexLoading() {
+        cacheGenre(Genre.DRAMA);
+        cacheGenre(Genre.HORROR);
+
+        listener.onSave(video(3L, "Ronin", Set.of(Genre.ACTION), true));
+
+        assertEquals(0, cache.size());
+    }
+
+    private void loadIndex() {
+        List<VideoMetaDataProjection> videos = List.of(
+                new VideoDocument(1L, "Heat", "Michael Mann", "Al Pacino", 1995, Set.of(Genre.DRAMA), 170),
+                new VideoDocument(2L, "Alien", "Ridley Scott", "Sigourney Weaver", 1979, Set.of(Genre.HORROR), 117));
+        when(videoMetaDataRepository.findAllByActiveTrue()).thenReturn(videos);
+        index.rebuild();
+    }
+
+    private void cacheGenre(Genre genre) {
+        cache.get(new SearchResultCache.Key("genre", genre), () -> List.of(genre.name()), List::size,
+                result -> change -> change.affects(video -> video.getGenre().contains(genre)));
+    }
+
+    private static VideoMetaData video(Long id, String title, Set<Genre> genre, boolean active) {
+        return VideoMetaData.builder()
+                .id(id)
+                .title(title)
+                .directorName("Michael Mann")
+                .mainActor("Al Pacino")
+                .yearOfRelease(1995)
+                .runningTime(170)
+                .genre(new HashSet<>(genre))
+                .version(1L)
+                .active(active)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(T bean) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(bean);
+        return provider;
+    }
+}
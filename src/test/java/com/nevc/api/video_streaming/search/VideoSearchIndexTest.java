@@ -0,0 +1,175 @@
+package com.nevc.api.video_streaming.search;
+
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.enums.SearchField;
+import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
+import com.nevc.api.video_streaming.repositories.VideoMetaDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class VideoSearchIndexTest {
+
+    @Mock
+    private VideoMetaDataRepository videoMetaDataRepository;
+
+    private VideoSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new VideoSearchIndex(videoMetaDataRepository);
+    }
+
+    @Test
+    void testRebuild_LoadsActiveVideos() {
+        VideoDocument video = document(1L, "The Dark Knight", "Christopher Nolan", "Christian Bale");
+        when(videoMetaDataRepository.findAllByActiveTrue()).thenReturn(List.of(video));
+        assertFalse(index.isReady());
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(video), index.search(SearchField.TITLE, "knight"));
+        assertEquals(List.of(video), index.search(SearchField.DIRECTOR, "nolan"));
+        assertEquals(List.of(video), index.search(SearchField.MAIN_ACTOR, "bale"));
+        assertEquals(List.of(), index.search(SearchField.TITLE, "nolan"));
+    }
+
+    @Test
+    void testRebuild_KeepsChangesCommittedWhileLoading() {
+        VideoDocument stale = document(1L, "Heat", "Michael Mann", "Al Pacino");
+        VideoDocument renamed = document(1L, "Heat (Director's Cut)", "Michael Mann", "Al Pacino");
+        VideoDocument removed = document(2L, "Ronin", "John Frankenheimer", "Robert De Niro");
+        when(videoMetaDataRepository.findAllByActiveTrue()).thenAnswer(invocation -> {
+            index.put(renamed);
+            index.remove(2L);
+            return List.of(stale, removed);
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(renamed), index.search(SearchField.TITLE, "cut"));
+        assertEquals(List.of(), index.search(SearchField.TITLE, "ronin"));
+
+        when(videoMetaDataRepository.findAllByActiveTrue()).thenReturn(List.of(stale, removed));
+        index.rebuild();
+
+        assertEquals(List.of(stale, removed), index.findAll(List.of(1L, 2L)));
+    }
+
+    @Test
+    void testPutAndRemove() {
+        VideoDocument first = document(1L, "Memento", "Christopher Nolan", "Guy Pearce");
+        VideoDocument second = document(2L, "Tenet", "Christopher Nolan", "John David Washington");
+        index.put(first);
+        index.put(second);
+
+        assertEquals(List.of(first, second), index.search(SearchField.DIRECTOR, "christopher"));
+
+        index.remove(1L);
+
+        assertEquals(List.<VideoMetaDataProjection>of(second), index.search(SearchField.DIRECTOR, "christopher"));
+    }
+
+    @Test
+    void testForEachMatch_CombinesFilters() {
+        VideoDocument memento = new VideoDocument(1L, "Memento", "Christopher Nolan", "Guy Pearce", 2000, Set.of(Genre.THRILLER), 113);
+        VideoDocument inception = new VideoDocument(2L, "Inception", "Christopher Nolan", "Leonardo DiCaprio", 2010, Set.of(Genre.ACTION), 148);
+        VideoDocument heat = new VideoDocument(4L, "Heat", "Michael Mann", "Al Pacino", 1995, Set.of(Genre.ACTION, Genre.DRAMA), 170);
+        index.put(memento);
+        index.put(inception);
+        index.put(heat);
+
+        assertEquals(List.of(inception), matches(VideoSearchCriteria.builder()
+                .directorName("NOLAN")
+                .genres(Set.of(Genre.ACTION, Genre.DRAMA))
+                .build()));
+        assertEquals(List.of(memento, heat), matches(VideoSearchCriteria.builder()
+                .yearTo(2005)
+                .minRunningTime(100)
+                .build()));
+        assertEquals(List.of(), matches(VideoSearchCriteria.builder()
+                .title("heat")
+                .mainActor("nolan")
+                .build()));
+        assertEquals(List.of(heat), matches(VideoSearchCriteria.builder()
+                .requiredGenres(Set.of(Genre.ACTION, Genre.DRAMA))
+                .build()));
+        assertEquals(List.of(memento, inception), matches(VideoSearchCriteria.builder()
+                .excludedGenres(Set.of(Genre.DRAMA))
+                .build()));
+    }
+
+    @Test
+    void testSearchSimilar_MisspelledName() {
+        VideoDocument memento = document(1L, "Memento", "Christopher Nolan", "Guy Pearce");
+        VideoDocument heat = document(4L, "Heat", "Michael Mann", "Al Pacino");
+        index.put(memento);
+        index.put(heat);
+
+        assertEquals(List.of(), index.search(SearchField.DIRECTOR, "cristopher nolen"));
+        assertEquals(List.<VideoMetaDataProjection>of(memento), index.searchSimilar(SearchField.DIRECTOR, "cristopher nolen"));
+        assertEquals(List.<VideoMetaDataProjection>of(heat), index.searchSimilar(SearchField.MAIN_ACTOR, "al pacinno"));
+        assertEquals(List.of(), index.searchSimilar(SearchField.TITLE, "nolen"));
+
+        index.remove(1L);
+
+        assertEquals(List.of(), index.searchSimilar(SearchField.DIRECTOR, "cristopher nolen"));
+    }
+
+    @Test
+    void testSearchByGenre() {
+        VideoDocument memento = new VideoDocument(1L, "Memento", "Christopher Nolan", "Guy Pearce", 2000, Set.of(Genre.THRILLER), 113);
+        VideoDocument heat = new VideoDocument(4L, "Heat", "Michael Mann", "Al Pacino", 1995, Set.of(Genre.ACTION, Genre.DRAMA), 170);
+        VideoDocument inception = new VideoDocument(2L, "Inception", "Christopher Nolan", "Leonardo DiCaprio", 2010, Set.of(Genre.ACTION), 148);
+        index.put(memento);
+        index.put(heat);
+        index.put(inception);
+
+        assertEquals(List.<VideoMetaDataProjection>of(inception, heat), index.searchByGenre(Genre.ACTION));
+
+        index.remove(2L);
+        index.put(new VideoDocument(1L, "Memento", "Christopher Nolan", "Guy Pearce", 2000, Set.of(Genre.ACTION), 113));
+
+        assertEquals(List.of(1L, 4L), index.searchByGenre(Genre.ACTION).stream().map(VideoMetaDataProjection::getId).toList());
+        assertEquals(List.of(), index.searchByGenre(Genre.THRILLER));
+    }
+
+    @Test
+    void testSnapshot_CopiesSearchableFields() {
+        VideoMetaData video = VideoMetaData.builder()
+                .id(3L)
+                .title("Inception")
+                .directorName("Christopher Nolan")
+                .mainActor("Leonardo DiCaprio")
+                .yearOfRelease(2010)
+                .genre(Set.of(Genre.ACTION))
+                .runningTime(148)
+                .build();
+
+        assertEquals(new VideoDocument(3L, "Inception", "Christopher Nolan", "Leonardo DiCaprio", 2010, Set.of(Genre.ACTION), 148),
+                index.snapshot(video));
+    }
+
+    private List<VideoDocument> matches(VideoSearchCriteria criteria) {
+        List<VideoDocument> result = new ArrayList<>();
+        index.forEachMatch(criteria, result::add);
+        result.sort(Comparator.comparing(VideoDocument::getId));
+        return result;
+    }
+
+    private static VideoDocument document(Long id, String title, String director, String mainActor) {
+        return new VideoDocument(id, title, director, mainActor, 2008, Set.of(Genre.ACTION), 120);
+    }
+}
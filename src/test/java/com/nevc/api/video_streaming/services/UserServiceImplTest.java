@@ -1,5 +1,6 @@
 package com.nevc.api.video_streaming.services;
 
+import com.nevc.api.video_streaming.auth.PlaybackPrincipal;
 import com.nevc.api.video_streaming.entities.User;
 import com.nevc.api.video_streaming.enums.Role;
 import com.nevc.api.video_streaming.repositories.UserRepository;
@@ -16,7 +17,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class UserServiceImplTest {
@@ -55,6 +59,20 @@ class UserServiceImplTest {
         assertEquals("test@example.com", result.getEmail());
     }
 
+    @Test
+    void testGetLoggedInUser_PlaybackPrincipal() {
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(new PlaybackPrincipal(2L, 1L));
+        User user = new User();
+        user.setId(2L);
+        when(userRepository.getReferenceById(2L)).thenReturn(user);
+
+        User result = userService.getLoggedInUser();
+
+        assertEquals(2L, result.getId());
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
     @Test
     void testGetLoggedInUser_InvalidUserDetails() {
         when(securityContext.getAuthentication()).thenReturn(authentication);
@@ -0,0 +1,60 @@
+package com.nevc.api.video_streaming.services;
+
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VideoMetaDataCacheListenerTest {
+
+    private VideoMetaDataCache cache;
+    private VideoMetaDataCacheListener listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cache = new VideoMetaDataCache(100, 4, Duration.ofMinutes(5));
+        ObjectProvider<VideoMetaDataCache> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(cache);
+        listener = new VideoMetaDataCacheListener(provider);
+    }
+
+    @Test
+    void testOnSave_DropsOlderCachedVersion() {
+        cache.put(VideoMetaDataSnapshot.of(video(1L, "Heat", 1L, true)));
+
+        listener.onSave(video(1L, "Heat 2", 2L, true));
+
+        assertEquals("Heat 2", cache.get(1L, () -> Optional.of(VideoMetaDataSnapshot.of(video(1L, "Heat 2", 2L, true))))
+                .orElseThrow().getTitle());
+    }
+
+    @Test
+    void testOnSave_DeactivatedVideoBecomesTombstone() {
+        cache.put(VideoMetaDataSnapshot.of(video(1L, "Heat", 1L, true)));
+
+        listener.onSave(video(1L, "Heat", 2L, false));
+
+        assertTrue(cache.get(1L, () -> Optional.of(VideoMetaDataSnapshot.of(video(1L, "Heat", 1L, true)))).isEmpty());
+    }
+
+    @Test
+    void testOnRemove_RemovedVideoBecomesTombstone() {
+        cache.put(VideoMetaDataSnapshot.of(video(1L, "Heat", 1L, true)));
+
+        listener.onRemove(video(1L, "Heat", 1L, true));
+
+        assertTrue(cache.get(1L, () -> Optional.of(VideoMetaDataSnapshot.of(video(1L, "Heat", 1L, true)))).isEmpty());
+    }
+
+    private static VideoMetaData video(Long id, String title, Long version, boolean active) {
+        return VideoMetaData.builder().id(id).title(title).version(version).active(active).build();
+    }
+}
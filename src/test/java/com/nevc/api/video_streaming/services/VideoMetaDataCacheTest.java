@@ -0,0 +1,150 @@
+package com.nevc.api.video_streaming.services;
+
+import com.nevc.api.video_streaming.dto.VideoMetaDataDTO;
+import com.nevc.api.video_streaming.entities.Actor;
+import com.nevc.api.video_streaming.entities.VideoMetaData;
+import com.nevc.api.video_streaming.enums.Genre;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VideoMetaDataCacheTest {
+
+    private final Clock clock = mock(Clock.class);
+    private final AtomicInteger loads = new AtomicInteger();
+    private VideoMetaDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.millis()).thenReturn(Duration.ofDays(1).toMillis());
+        cache = new VideoMetaDataCache(clock, 8, 4, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void testGet_LoadsOnceUntilExpired() {
+        assertEquals("Heat", get(1L, () -> Optional.of(snapshot(1L, 0L, "Heat"))).orElseThrow().getTitle());
+        assertEquals("Heat", get(1L, () -> Optional.of(snapshot(1L, 1L, "Heat 2"))).orElseThrow().getTitle());
+        assertEquals(1, loads.get());
+
+        advance(Duration.ofMinutes(5));
+
+        assertEquals("Heat 2", get(1L, () -> Optional.of(snapshot(1L, 1L, "Heat 2"))).orElseThrow().getTitle());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_MissingVideoIsNotCached() {
+        assertTrue(get(1L, Optional::empty).isEmpty());
+        assertTrue(get(1L, Optional::empty).isEmpty());
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_KeepsNewerVersion() {
+        cache.put(snapshot(1L, 4L, "Heat (Director's Cut)"));
+        advance(Duration.ofMinutes(1));
+        cache.put(snapshot(1L, 3L, "Heat"));
+
+        assertEquals(4L, get(1L, Optional::empty).orElseThrow().getVersion());
+
+        cache.put(snapshot(1L, 5L, "Heat (Remastered)"));
+
+        assertEquals("Heat (Remastered)", get(1L, Optional::empty).orElseThrow().getTitle());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testEvict_TombstoneHidesVideoUntilExpired() {
+        cache.put(snapshot(1L, 1L, "Heat"));
+        cache.evict(1L);
+        cache.put(snapshot(1L, 1L, "Heat"));
+
+        assertTrue(get(1L, () -> Optional.of(snapshot(1L, 1L, "Heat"))).isEmpty());
+        assertEquals(0, loads.get());
+
+        advance(Duration.ofMinutes(5));
+
+        assertTrue(get(1L, Optional::empty).isEmpty());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testInvalidate_DropsOnlyOlderVersions() {
+        cache.put(snapshot(1L, 2L, "Heat"));
+        cache.invalidate(1L, 2L);
+
+        assertEquals("Heat", get(1L, Optional::empty).orElseThrow().getTitle());
+
+        cache.invalidate(1L, 3L);
+
+        assertEquals("Heat 2", get(1L, () -> Optional.of(snapshot(1L, 3L, "Heat 2"))).orElseThrow().getTitle());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedPerShard() {
+        for (long id = 1; id <= 100; id++) {
+            cache.put(snapshot(id, 0L, "Video " + id));
+        }
+
+        assertTrue(cache.size() <= 8);
+        assertTrue(get(100L, Optional::empty).isPresent());
+    }
+
+    @Test
+    void testConstructor_RejectsShardsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new VideoMetaDataCache(clock, 8, 3, Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void testSnapshot_ToDTOIsACopy() {
+        Actor actor = new Actor(7L, "Al Pacino", null);
+        VideoMetaData video = VideoMetaData.builder()
+                .id(1L)
+                .title("Heat")
+                .genre(new HashSet<>(Set.of(Genre.DRAMA)))
+                .cast(new HashSet<>(Set.of(actor)))
+                .version(2L)
+                .build();
+        VideoMetaDataSnapshot snapshot = VideoMetaDataSnapshot.of(video);
+        video.getGenre().add(Genre.ACTION);
+        actor.setFullName("Robert De Niro");
+
+        VideoMetaDataDTO dto = snapshot.toDTO();
+        dto.getCast().iterator().next().setFullName("Val Kilmer");
+        dto.getGenre().clear();
+
+        assertEquals(Set.of(Genre.DRAMA), snapshot.getGenre());
+        assertEquals(Set.of(new Actor(7L, "Al Pacino", null)), snapshot.toDTO().getCast());
+        assertEquals(2L, snapshot.toDTO().getVersion());
+    }
+
+    private Optional<VideoMetaDataSnapshot> get(Long videoId, Supplier<Optional<VideoMetaDataSnapshot>> loader) {
+        return cache.get(videoId, () -> {
+            loads.incrementAndGet();
+            return loader.get();
+        });
+    }
+
+    private void advance(Duration duration) {
+        long now = clock.millis();
+        when(clock.millis()).thenReturn(now + duration.toMillis());
+    }
+
+    private static VideoMetaDataSnapshot snapshot(Long id, Long version, String title) {
+        return VideoMetaDataSnapshot.of(VideoMetaData.builder().id(id).title(title).version(version).build());
+    }
+}
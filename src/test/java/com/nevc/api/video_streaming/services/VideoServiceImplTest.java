@@ -1,35 +1,85 @@
 package com.nevc.api.video_streaming.services;
 
+import com.nevc.api.video_streaming.analytics.HyperLogLog;
+import com.nevc.api.video_streaming.analytics.ImpressionDeduplicator;
+import com.nevc.api.video_streaming.analytics.TrendingTracker;
+import com.nevc.api.video_streaming.analytics.UniqueViewerCounter;
+import com.nevc.api.video_streaming.analytics.VideoEvent;
+import com.nevc.api.video_streaming.analytics.VideoEventQueue;
+import com.nevc.api.video_streaming.analytics.WatchProgressStore;
+import com.nevc.api.video_streaming.dto.FullTextHitDTO;
+import com.nevc.api.video_streaming.dto.FullTextSearchResultDTO;
+import com.nevc.api.video_streaming.dto.ImpressionBatchResultDTO;
+import com.nevc.api.video_streaming.dto.SuggestionDTO;
+import com.nevc.api.video_streaming.dto.UniqueViewersDTO;
+import com.nevc.api.video_streaming.dto.VideoEventPageDTO;
 import com.nevc.api.video_streaming.dto.VideoMetaDataDTO;
+import com.nevc.api.video_streaming.dto.VideoSearchResultDTO;
+import com.nevc.api.video_streaming.dto.WatchProgressDTO;
 import com.nevc.api.video_streaming.entities.Actor;
 import com.nevc.api.video_streaming.entities.User;
 import com.nevc.api.video_streaming.entities.VideoImpression;
 import com.nevc.api.video_streaming.entities.VideoMetaData;
 import com.nevc.api.video_streaming.entities.VideoView;
+import com.nevc.api.video_streaming.entities.WatchProgress;
 import com.nevc.api.video_streaming.enums.Genre;
+import com.nevc.api.video_streaming.enums.SearchComparator;
+import com.nevc.api.video_streaming.enums.SearchField;
+import com.nevc.api.video_streaming.enums.StatsGranularity;
+import com.nevc.api.video_streaming.enums.SuggestionType;
+import com.nevc.api.video_streaming.enums.VideoEventType;
+import com.nevc.api.video_streaming.enums.VideoSort;
 import com.nevc.api.video_streaming.exceptions.BadRequestException;
 import com.nevc.api.video_streaming.exceptions.ResourceNotFoundException;
+import com.nevc.api.video_streaming.exceptions.ServiceUnavailableException;
 import com.nevc.api.video_streaming.exceptions.UnAuthorizedException;
+import com.nevc.api.video_streaming.projections.VideoEventProjection;
+import com.nevc.api.video_streaming.projections.VideoMetaDataProjection;
 import com.nevc.api.video_streaming.repositories.VideoImpressionRepository;
 import com.nevc.api.video_streaming.repositories.VideoMetaDataRepository;
+import com.nevc.api.video_streaming.repositories.VideoStatsRepository;
 import com.nevc.api.video_streaming.repositories.VideoViewRepository;
+import com.nevc.api.video_streaming.search.FullTextIndex;
+import com.nevc.api.video_streaming.search.SearchResultCache;
+import com.nevc.api.video_streaming.search.SuggestionIndex;
+import com.nevc.api.video_streaming.search.VideoDocument;
+import com.nevc.api.video_streaming.search.VideoSearchCriteria;
+import com.nevc.api.video_streaming.search.VideoSearchIndex;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -45,6 +95,39 @@ class VideoServiceImplTest {
     @Mock
     private VideoViewRepository videoViewRepository;
 
+    @Mock
+    private VideoStatsRepository videoStatsRepository;
+
+    @Mock
+    private VideoEventQueue videoEventQueue;
+
+    @Mock
+    private UniqueViewerCounter uniqueViewerCounter;
+
+    @Mock
+    private TrendingTracker trendingTracker;
+
+    @Mock
+    private ImpressionDeduplicator impressionDeduplicator;
+
+    @Mock
+    private WatchProgressStore watchProgressStore;
+
+    @Mock
+    private VideoSearchIndex videoSearchIndex;
+
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
+    @Mock
+    private FullTextIndex fullTextIndex;
+
+    @Spy
+    private SearchResultCache searchResultCache = new SearchResultCache(1000);
+
+    @Spy
+    private VideoMetaDataCache videoMetaDataCache = new VideoMetaDataCache(100, 4, Duration.ofMinutes(5));
+
     @Mock
     private HttpServletRequest request;
 
@@ -57,6 +140,7 @@ class VideoServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(impressionDeduplicator.accept(anyLong(), anyLong())).thenReturn(true);
     }
 
     @Test
@@ -72,7 +156,8 @@ class VideoServiceImplTest {
         VideoMetaDataDTO result = videoService.getVideoMetaData(user, request, 1L);
 
         assertNotNull(result);
-        verify(videoImpressionRepository, times(1)).save(any(VideoImpression.class));
+        verify(videoEventQueue, times(1)).offer(any(VideoEvent.class));
+        verify(videoImpressionRepository, never()).save(any(VideoImpression.class));
     }
 
     @Test
@@ -82,6 +167,38 @@ class VideoServiceImplTest {
         assertThrows(ResourceNotFoundException.class, () -> videoService.getVideoMetaData(null, null, 1L));
     }
 
+    @Test
+    void testRecordImpression() {
+        User user = new User();
+        user.setId(2L);
+        when(request.getRemoteAddr()).thenReturn("127.0.0.1");
+        when(request.getHeader("User-Agent")).thenReturn("Mozilla/5.0");
+
+        videoService.recordImpression(user, request, 1L);
+
+        ArgumentCaptor<VideoEvent> captor = ArgumentCaptor.forClass(VideoEvent.class);
+        verify(videoEventQueue, times(1)).offer(captor.capture());
+        assertEquals(VideoEventType.IMPRESSION, captor.getValue().getType());
+        assertEquals(1L, captor.getValue().getVideoId());
+        assertEquals(2L, captor.getValue().getUserId());
+        assertEquals("127.0.0.1", captor.getValue().getUserIp());
+        assertEquals("Mozilla/5.0", captor.getValue().getUserAgent());
+        verify(trendingTracker).record(captor.getValue());
+        verify(videoMetaDataRepository, never()).findByIdAndActiveTrue(anyLong());
+    }
+
+    @Test
+    void testRecordImpression_Duplicate() {
+        User user = new User();
+        user.setId(2L);
+        when(impressionDeduplicator.accept(2L, 1L)).thenReturn(false);
+
+        videoService.recordImpression(user, request, 1L);
+
+        verify(videoEventQueue, never()).offer(any(VideoEvent.class));
+        verify(trendingTracker, never()).record(any(VideoEvent.class));
+    }
+
     @Test
     void testSaveVideoMetaData_Valid() {
         User user = new User();
@@ -110,9 +227,10 @@ class VideoServiceImplTest {
     }
 
     @Test
-    void testPublishVideo_Valid() {
+    void testPublishVideo_Valid(@TempDir Path publishDir) {
         User user = new User();
         user.setId(1L);
+        ReflectionTestUtils.setField(videoService, "publishPath", publishDir.toString());
 
         MultipartFile file = new MockMultipartFile("file", "test.mp4", "video/mp4",
                 "This is a dummy video file content.".getBytes(StandardCharsets.UTF_8));
@@ -149,6 +267,35 @@ class VideoServiceImplTest {
         // Verify that the captured argument is an instance of VideoMetaData
         VideoMetaData capturedArgument = captor.getValue();
         assertNotNull(capturedArgument);
+        // SHA-256 of the file content
+        assertEquals("e9b23c7c58eb0b112f9c78bdf0c79291732b20f9578ef508c5ea89a884ffcf82", capturedArgument.getEtag());
+    }
+
+    @Test
+    void testPublishVideo_SameFileNameStoredSeparately(@TempDir Path publishDir) throws IOException {
+        User user = new User();
+        user.setId(1L);
+        ReflectionTestUtils.setField(videoService, "publishPath", publishDir.toString());
+        AtomicLong ids = new AtomicLong();
+        when(videoMetaDataRepository.save(any(VideoMetaData.class))).thenAnswer(invocation -> {
+            VideoMetaData video = invocation.getArgument(0);
+            video.setId(ids.incrementAndGet());
+            return video;
+        });
+
+        videoService.publishVideo(user, new MockMultipartFile("file", "test.mp4", "video/mp4",
+                "first".getBytes(StandardCharsets.UTF_8)), new VideoMetaDataDTO());
+        videoService.publishVideo(user, new MockMultipartFile("file", "test.mp4", "video/mp4",
+                "second".getBytes(StandardCharsets.UTF_8)), new VideoMetaDataDTO());
+
+        ArgumentCaptor<VideoMetaData> captor = ArgumentCaptor.forClass(VideoMetaData.class);
+        verify(videoMetaDataRepository, times(2)).save(captor.capture());
+        VideoMetaData first = captor.getAllValues().get(0);
+        VideoMetaData second = captor.getAllValues().get(1);
+        assertNotEquals(first.getFilePath(), second.getFilePath());
+        assertEquals("test.mp4", second.getFileName());
+        assertEquals("first", Files.readString(Path.of(first.getFilePath())));
+        assertEquals("second", Files.readString(Path.of(second.getFilePath())));
     }
 
     @Test
@@ -169,6 +316,41 @@ class VideoServiceImplTest {
         assertThrows(UnAuthorizedException.class, () -> videoService.publishVideo(user, file, videoMetaDataDTO));
     }
 
+    @Test
+    void testPlayVideo_MetadataReadOnce() throws MalformedURLException {
+        User user = new User();
+        user.setId(1L);
+        VideoMetaData videoMetaData = VideoMetaData.builder().id(1L).title("Heat").filePath("/videos/heat.mp4").version(0L).build();
+        when(videoMetaDataRepository.findByIdAndActiveTrue(1L)).thenReturn(Optional.of(videoMetaData));
+
+        assertEquals("Heat", videoService.getVideoMetaData(user, null, 1L).getTitle());
+        assertNotNull(videoService.playVideoAsResource(user, 1L));
+        assertNotNull(videoService.playVideoAsResource(user, 1L));
+
+        verify(videoMetaDataRepository, times(1)).findByIdAndActiveTrue(1L);
+    }
+
+    @Test
+    void testGetVideoMetaData_CachedAfterUpdateAndDelete() {
+        User user = new User();
+        user.setId(1L);
+        VideoMetaData videoMetaData = VideoMetaData.builder().id(1L).title("Heat").version(0L).active(true).build();
+        VideoMetaData updated = VideoMetaData.builder().id(1L).title("Heat 2").version(1L).active(true).build();
+        VideoMetaDataDTO videoMetaDataDTO = new VideoMetaDataDTO();
+        videoMetaDataDTO.setId(1L);
+        videoMetaDataDTO.setTitle("Heat 2");
+        when(videoMetaDataRepository.findByIdAndActiveTrue(1L)).thenReturn(Optional.of(videoMetaData));
+        when(videoMetaDataRepository.save(videoMetaData)).thenReturn(updated);
+
+        assertEquals("Heat", videoService.getVideoMetaData(user, null, 1L).getTitle());
+        videoService.saveVideoMetaData(user, videoMetaDataDTO);
+        assertEquals("Heat 2", videoService.getVideoMetaData(user, null, 1L).getTitle());
+        videoService.deleteVideo(user, 1L);
+
+        assertThrows(ResourceNotFoundException.class, () -> videoService.getVideoMetaData(user, null, 1L));
+        verify(videoMetaDataRepository, times(3)).findByIdAndActiveTrue(1L);
+    }
+
     @Test
     void testPlayVideoAsResource_Valid() throws MalformedURLException {
         User user = new User();
@@ -177,21 +359,34 @@ class VideoServiceImplTest {
         videoMetaData.setFilePath("/videos/");
         videoMetaData.setFileName("test.mp4");
         when(videoMetaDataRepository.findByIdAndActiveTrue(1L)).thenReturn(Optional.of(videoMetaData));
-        when(request.getRemoteAddr()).thenReturn("127.0.0.1");
-        when(request.getHeader("User-Agent")).thenReturn("Mozilla/5.0");
 
-        Resource result = videoService.playVideoAsResource(user, request, 1L);
+        Resource result = videoService.playVideoAsResource(user, 1L);
 
         assertNotNull(result);
         assertInstanceOf(UrlResource.class, result);
-        verify(videoViewRepository, times(1)).save(any(VideoView.class));
+        verify(videoEventQueue, never()).offer(any());
+    }
+
+    @Test
+    void testRecordView_Queued() {
+        User user = new User();
+        user.setId(1L);
+        when(request.getRemoteAddr()).thenReturn("127.0.0.1");
+        when(request.getHeader("User-Agent")).thenReturn("Mozilla/5.0");
+
+        videoService.recordView(user, request, 1L);
+
+        ArgumentCaptor<VideoEvent> captor = ArgumentCaptor.forClass(VideoEvent.class);
+        verify(videoEventQueue, times(1)).offer(captor.capture());
+        assertEquals(VideoEventType.VIEW, captor.getValue().getType());
+        verify(videoViewRepository, never()).save(any(VideoView.class));
     }
 
     @Test
     void testPlayVideoAsResource_NotFound() {
         when(videoMetaDataRepository.findByIdAndActiveTrue(1L)).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> videoService.playVideoAsResource(null, null, 1L));
+        assertThrows(ResourceNotFoundException.class, () -> videoService.playVideoAsResource(null, 1L));
     }
 
     @Test
@@ -215,4 +410,444 @@ class VideoServiceImplTest {
 
         assertThrows(ResourceNotFoundException.class, () -> videoService.deleteVideo(user, 1L));
     }
+
+    @Test
+    void testGetVideoStatsTimeSeries_TruncatedToBuckets() {
+        LocalDateTime from = LocalDateTime.of(2024, 12, 31, 8, 15);
+        LocalDateTime to = LocalDateTime.of(2024, 12, 31, 11, 45);
+        when(videoStatsRepository.findByVideoIdAndGranularityAndBucketStartBetweenOrderByBucketStart(any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        videoService.getVideoStatsTimeSeries(1L, StatsGranularity.HOUR, from, to);
+
+        verify(videoStatsRepository).findByVideoIdAndGranularityAndBucketStartBetweenOrderByBucketStart(1L,
+                StatsGranularity.HOUR, LocalDateTime.of(2024, 12, 31, 8, 0), LocalDateTime.of(2024, 12, 31, 11, 0));
+    }
+
+    @Test
+    void testGetVideoStatsTimeSeries_DefaultRange() {
+        videoService.getVideoStatsTimeSeries(1L, StatsGranularity.DAY, null, LocalDateTime.of(2024, 12, 31, 12, 0));
+
+        verify(videoStatsRepository).findByVideoIdAndGranularityAndBucketStartBetweenOrderByBucketStart(1L,
+                StatsGranularity.DAY, LocalDateTime.of(2024, 12, 2, 0, 0), LocalDateTime.of(2024, 12, 31, 0, 0));
+    }
+
+    @Test
+    void testGetVideoStatsTimeSeries_InvalidRange() {
+        LocalDateTime to = LocalDateTime.of(2024, 12, 31, 0, 0);
+
+        assertThrows(BadRequestException.class,
+                () -> videoService.getVideoStatsTimeSeries(1L, StatsGranularity.DAY, to.plusDays(1), to));
+        assertThrows(BadRequestException.class,
+                () -> videoService.getVideoStatsTimeSeries(1L, StatsGranularity.HOUR, to.minusDays(60), to));
+        verifyNoInteractions(videoStatsRepository);
+    }
+
+    @Test
+    void testGetUniqueViewers_Valid() {
+        LocalDate from = LocalDate.of(2024, 12, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        when(uniqueViewerCounter.estimate(1L, from, to)).thenReturn(1234L);
+
+        UniqueViewersDTO result = videoService.getUniqueViewers(1L, from, to);
+
+        assertEquals(1234L, result.getUniqueViewers());
+        assertEquals(from, result.getFrom());
+        assertEquals(to, result.getTo());
+        assertEquals(HyperLogLog.RELATIVE_ERROR, result.getRelativeError());
+    }
+
+    @Test
+    void testGetUniqueViewers_InvalidRange() {
+        LocalDate to = LocalDate.of(2024, 12, 31);
+
+        assertThrows(BadRequestException.class, () -> videoService.getUniqueViewers(1L, to.plusDays(1), to));
+        verifyNoInteractions(uniqueViewerCounter);
+    }
+
+    @Test
+    void testGetTrendingVideos_InvalidWindow() {
+        when(trendingTracker.getMaxWindow()).thenReturn(Duration.ofHours(24));
+        when(trendingTracker.getTopK()).thenReturn(100);
+
+        assertThrows(BadRequestException.class, () -> videoService.getTrendingVideos(Duration.ofHours(25), 10));
+        assertThrows(BadRequestException.class, () -> videoService.getTrendingVideos(Duration.ofHours(1), 101));
+        verify(trendingTracker, never()).trending(any(), anyInt());
+    }
+
+    @Test
+    void testRecordImpressions_Valid() {
+        User user = new User();
+        user.setId(2L);
+        when(videoMetaDataRepository.findActiveIds(Set.of(1L, 2L, 3L))).thenReturn(List.of(1L, 2L, 3L));
+        when(impressionDeduplicator.accept(2L, 3L)).thenReturn(false);
+        when(request.getRemoteAddr()).thenReturn("127.0.0.1");
+
+        ImpressionBatchResultDTO result = videoService.recordImpressions(user, request, List.of(1L, 2L, 2L, 3L));
+
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getRecorded());
+        ArgumentCaptor<List<VideoEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(videoEventQueue, times(1)).offerAll(captor.capture());
+        assertEquals(List.of(1L, 2L), captor.getValue().stream().map(VideoEvent::getVideoId).toList());
+        assertTrue(captor.getValue().stream().allMatch(event -> event.getType() == VideoEventType.IMPRESSION));
+        verify(videoEventQueue, never()).offer(any(VideoEvent.class));
+        verify(trendingTracker, times(2)).record(any(VideoEvent.class));
+    }
+
+    @Test
+    void testRecordImpressions_UnknownVideo() {
+        User user = new User();
+        user.setId(2L);
+        when(videoMetaDataRepository.findActiveIds(Set.of(1L, 9L))).thenReturn(List.of(1L));
+
+        ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class,
+                () -> videoService.recordImpressions(user, request, List.of(1L, 9L)));
+
+        assertTrue(e.getMessage().contains("[9]"));
+        verify(videoEventQueue, never()).offerAll(anyList());
+    }
+
+    @Test
+    void testRecordImpressions_TooMany() {
+        User user = new User();
+        user.setId(2L);
+        List<Long> videoIds = LongStream.rangeClosed(1, 201).boxed().toList();
+
+        assertThrows(BadRequestException.class, () -> videoService.recordImpressions(user, request, videoIds));
+        verify(videoMetaDataRepository, never()).findActiveIds(any());
+    }
+
+    @Test
+    void testRecordWatchProgress_Valid() {
+        User user = new User();
+        user.setId(2L);
+
+        VideoMetaData videoMetaData = new VideoMetaData();
+        videoMetaData.setId(1L);
+        when(videoMetaDataRepository.findByIdAndActiveTrue(1L)).thenReturn(Optional.of(videoMetaData));
+
+        videoService.recordWatchProgress(user, 1L, 754L);
+
+        verify(watchProgressStore).report(2L, 1L, 754L);
+    }
+
+    @Test
+    void testRecordWatchProgress_Negative() {
+        User user = new User();
+        user.setId(2L);
+
+        assertThrows(BadRequestException.class, () -> videoService.recordWatchProgress(user, 1L, -1L));
+        verifyNoInteractions(watchProgressStore);
+    }
+
+    @Test
+    void testRecordWatchProgress_VideoNotFound() {
+        User user = new User();
+        user.setId(2L);
+        when(videoMetaDataRepository.findByIdAndActiveTrue(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> videoService.recordWatchProgress(user, 1L, 754L));
+        verifyNoInteractions(watchProgressStore);
+    }
+
+    @Test
+    void testGetWatchProgress_Found() {
+        User user = new User();
+        user.setId(2L);
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 12, 31, 12, 0);
+        when(watchProgressStore.find(2L, 1L)).thenReturn(Optional.of(
+                WatchProgress.builder().userId(2L).videoId(1L).positionSeconds(754L).updatedAt(updatedAt).build()));
+
+        WatchProgressDTO result = videoService.getWatchProgress(user, 1L);
+
+        assertEquals(new WatchProgressDTO(1L, 754L, updatedAt), result);
+    }
+
+    @Test
+    void testGetWatchProgress_NotFound() {
+        User user = new User();
+        user.setId(2L);
+        when(watchProgressStore.find(2L, 1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> videoService.getWatchProgress(user, 1L));
+    }
+
+    @Test
+    void testSearchByTitle_FromIndex() {
+        List<VideoMetaDataProjection> videos = List.of(mock(VideoMetaDataProjection.class));
+        when(videoSearchIndex.isReady()).thenReturn(true);
+        when(videoSearchIndex.search(SearchField.TITLE, "knight")).thenReturn(videos);
+
+        assertEquals(videos, videoService.searchByTitle("knight"));
+        verify(videoMetaDataRepository, never()).findByTitleContainingIgnoreCaseAndActiveTrue(anyString());
+    }
+
+    @Test
+    void testSearchByDirector_SimilarWhenNothingContainsQuery() {
+        List<VideoMetaDataProjection> videos = List.of(mock(VideoMetaDataProjection.class));
+        when(videoSearchIndex.isReady()).thenReturn(true);
+        when(videoSearchIndex.search(SearchField.DIRECTOR, "nolen")).thenReturn(List.of());
+        when(videoSearchIndex.searchSimilar(SearchField.DIRECTOR, "nolen")).thenReturn(videos);
+
+        assertEquals(videos, videoService.searchByDirector("nolen"));
+    }
+
+    @Test
+    void testSearchByTitle_NoSimilarLookupWhenContained() {
+        List<VideoMetaDataProjection> videos = List.of(mock(VideoMetaDataProjection.class));
+        when(videoSearchIndex.isReady()).thenReturn(true);
+        when(videoSearchIndex.search(SearchField.TITLE, "knight")).thenReturn(videos);
+
+        assertEquals(videos, videoService.searchByTitle("knight"));
+        verify(videoSearchIndex, never()).searchSimilar(any(), anyString());
+    }
+
+    @Test
+    void testSearchByDirector_DatabaseWhileIndexLoading() {
+        List<VideoMetaDataProjection> videos = List.of(mock(VideoMetaDataProjection.class));
+        when(videoSearchIndex.isReady()).thenReturn(false);
+        when(videoMetaDataRepository.findByDirectorNameContainingIgnoreCaseAndActiveTrue("nolan")).thenReturn(videos);
+
+        assertEquals(List.of(VideoDocument.of(videos.getFirst())), videoService.searchByDirector("nolan"));
+        verify(videoSearchIndex, never()).search(any(), anyString());
+    }
+
+    @Test
+    void testSearchByGenre_FromIndex() {
+        List<VideoMetaDataProjection> videos = List.of(mock(VideoMetaDataProjection.class));
+        when(videoSearchIndex.isReady()).thenReturn(true);
+        when(videoSearchIndex.searchByGenre(Genre.DRAMA)).thenReturn(videos);
+
+        assertEquals(videos, videoService.searchByGenre(Genre.DRAMA));
+        verify(videoMetaDataRepository, never()).findActiveByGenreMask(anyLong());
+    }
+
+    @Test
+    void testSearchByGenre_DatabaseWhileIndexLoading() {
+        List<VideoMetaDataProjection> videos = List.of(mock(VideoMetaDataProjection.class));
+        when(videoSearchIndex.isReady()).thenReturn(false);
+        when(videoMetaDataRepository.findActiveByGenreMask(Genre.DRAMA.bit())).thenReturn(videos);
+
+        assertEquals(List.of(VideoDocument.of(videos.getFirst())), videoService.searchByGenre(Genre.DRAMA));
+        verify(videoSearchIndex, never()).searchByGenre(any());
+    }
+
+    @Test
+    void testSearchByRunningTime_CachesDetachedCopies() {
+        Set<Genre> genres = new HashSet<>(Set.of(Genre.DRAMA));
+        VideoMetaDataProjection video = mock(VideoMetaDataProjection.class);
+        when(video.getId()).thenReturn(1L);
+        when(video.getGenre()).thenReturn(genres);
+        when(videoMetaDataRepository.findByRunningTimeGreaterThanEqualAndActiveTrue(150)).thenReturn(List.of(video));
+
+        List<VideoMetaDataProjection> result = videoService.searchByRunningTime(150, SearchComparator.GREATER_OR_EQUAL);
+        genres.add(Genre.ACTION);
+
+        VideoDocument document = assertInstanceOf(VideoDocument.class, result.getFirst());
+        assertEquals(Set.of(Genre.DRAMA), document.getGenre());
+        assertSame(result, videoService.searchByRunningTime(150, SearchComparator.GREATER_OR_EQUAL));
+    }
+
+    @Test
+    void testSuggest_Success() {
+        List<SuggestionDTO> suggestions = List.of(new SuggestionDTO("The Dark Knight", SuggestionType.TITLE, 12));
+        when(suggestionIndex.getMaxResults()).thenReturn(10);
+        when(suggestionIndex.suggest("dark", 5)).thenReturn(suggestions);
+
+        assertEquals(suggestions, videoService.suggest("dark", 5));
+    }
+
+    @Test
+    void testSuggest_InvalidRequest() {
+        when(suggestionIndex.getMaxResults()).thenReturn(10);
+
+        assertThrows(BadRequestException.class, () -> videoService.suggest(" ", 5));
+        assertThrows(BadRequestException.class, () -> videoService.suggest("dark", 11));
+        verify(suggestionIndex, never()).suggest(anyString(), anyInt());
+    }
+
+    @Test
+    void testSearchFullText_Success() {
+        VideoMetaDataProjection heat = mock(VideoMetaDataProjection.class);
+        VideoMetaDataProjection ronin = mock(VideoMetaDataProjection.class);
+        when(heat.getId()).thenReturn(1L);
+        when(ronin.getId()).thenReturn(2L);
+        FullTextIndex.Page page = new FullTextIndex.Page(
+                List.of(new FullTextIndex.Hit(2L, 3.5), new FullTextIndex.Hit(1L, 1.25)), "next", 7);
+        when(fullTextIndex.isReady()).thenReturn(true);
+        when(fullTextIndex.search("heist", null, 2)).thenReturn(page);
+        when(videoSearchIndex.isReady()).thenReturn(true);
+        when(videoSearchIndex.findAll(List.of(2L, 1L))).thenReturn(List.of(ronin, heat));
+
+        FullTextSearchResultDTO result = videoService.searchFullText("heist", null, 2);
+
+        assertEquals(List.of(new FullTextHitDTO(ronin, 3.5), new FullTextHitDTO(heat, 1.25)), result.getItems());
+        assertEquals("next", result.getNextCursor());
+        assertEquals(7, result.getTotal());
+    }
+
+    @Test
+    void testSearchFullText_DatabaseWhileSearchIndexLoading() {
+        VideoMetaDataProjection heat = mock(VideoMetaDataProjection.class);
+        when(heat.getId()).thenReturn(1L);
+        FullTextIndex.Page page = new FullTextIndex.Page(
+                List.of(new FullTextIndex.Hit(2L, 3.5), new FullTextIndex.Hit(1L, 1.25)), null, 2);
+        when(fullTextIndex.isReady()).thenReturn(true);
+        when(fullTextIndex.search("heist", null, 20)).thenReturn(page);
+        when(videoSearchIndex.isReady()).thenReturn(false);
+        when(videoMetaDataRepository.findByIdInAndActiveTrue(List.of(2L, 1L))).thenReturn(List.of(heat));
+
+        FullTextSearchResultDTO result = videoService.searchFullText("heist", null, 20);
+
+        assertEquals(List.of(new FullTextHitDTO(heat, 1.25)), result.getItems());
+    }
+
+    @Test
+    void testSearchFullText_InvalidRequest() {
+        when(fullTextIndex.isReady()).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> videoService.searchFullText(" ", null, 20));
+        assertThrows(BadRequestException.class, () -> videoService.searchFullText("heist", null, 0));
+        assertThrows(BadRequestException.class, () -> videoService.searchFullText("heist", null, 101));
+        verify(fullTextIndex, never()).search(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void testSearchFullText_IndexLoading() {
+        when(fullTextIndex.isReady()).thenReturn(false);
+
+        assertThrows(ServiceUnavailableException.class, () -> videoService.searchFullText("heist", null, 20));
+    }
+
+    @Test
+    void testSearchByGenre_Cached() {
+        List<VideoMetaDataProjection> videos = List.of(mock(VideoMetaDataProjection.class));
+        when(videoSearchIndex.isReady()).thenReturn(false);
+        when(videoMetaDataRepository.findActiveByGenreMask(Genre.DRAMA.bit())).thenReturn(videos);
+
+        assertEquals(List.of(VideoDocument.of(videos.getFirst())), videoService.searchByGenre(Genre.DRAMA));
+        assertEquals(List.of(VideoDocument.of(videos.getFirst())), videoService.searchByGenre(Genre.DRAMA));
+        verify(videoMetaDataRepository, times(1)).findActiveByGenreMask(Genre.DRAMA.bit());
+    }
+
+    @Test
+    void testSearchVideos_FromIndex() {
+        VideoSearchCriteria criteria = VideoSearchCriteria.builder().title("knight").build();
+        VideoDocument video = new VideoDocument(3L, "The Dark Knight", "Christopher Nolan", "Christian Bale", 2008, Set.of(Genre.ACTION), 152);
+        when(videoSearchIndex.isReady()).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<Consumer<VideoDocument>>getArgument(1).accept(video);
+            return null;
+        }).when(videoSearchIndex).forEachMatch(eq(criteria), any());
+
+        VideoSearchResultDTO result = videoService.searchVideos(criteria, VideoSort.TITLE, false, null, 20);
+
+        assertEquals(List.of(video), result.getItems());
+        assertEquals(1, result.getTotal());
+        assertEquals(Map.of(Genre.ACTION, 1L), result.getGenres());
+        assertEquals(Map.of(2000, 1L), result.getDecades());
+        assertNull(result.getNextCursor());
+        verify(videoMetaDataRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    void testSearchVideos_DatabaseWhileIndexLoading() {
+        VideoMetaData video = VideoMetaData.builder()
+                .id(4L)
+                .title("Heat")
+                .directorName("Michael Mann")
+                .mainActor("Al Pacino")
+                .yearOfRelease(1995)
+                .genre(Set.of(Genre.CRIME, Genre.DRAMA))
+                .runningTime(170)
+                .build();
+        when(videoSearchIndex.isReady()).thenReturn(false);
+        when(videoMetaDataRepository.findAll(any(Specification.class))).thenReturn(List.of(video));
+
+        VideoSearchResultDTO result = videoService.searchVideos(VideoSearchCriteria.builder().build(), VideoSort.ID, false, null, 20);
+
+        assertEquals(List.of(VideoDocument.of(video)), result.getItems());
+        assertEquals(Map.of(Genre.CRIME, 1L, Genre.DRAMA, 1L), result.getGenres());
+        assertEquals(Map.of(1990, 1L), result.getDecades());
+        verify(videoSearchIndex, never()).forEachMatch(any(), any());
+    }
+
+    @Test
+    void testSearchVideos_InvalidLimit() {
+        VideoSearchCriteria criteria = VideoSearchCriteria.builder().build();
+
+        assertThrows(BadRequestException.class, () -> videoService.searchVideos(criteria, VideoSort.ID, false, null, 0));
+        assertThrows(BadRequestException.class, () -> videoService.searchVideos(criteria, VideoSort.ID, false, null, 101));
+    }
+
+    @Test
+    void testSearchVideos_ReversedRange() {
+        VideoSearchCriteria criteria = VideoSearchCriteria.builder().yearFrom(2010).yearTo(2000).build();
+
+        assertThrows(BadRequestException.class, () -> videoService.searchVideos(criteria, VideoSort.ID, false, null, 20));
+        verifyNoInteractions(videoSearchIndex);
+    }
+
+    @Test
+    void testGetVideoEvents_NextCursorResumesAfterLastRow() {
+        LocalDateTime date = LocalDateTime.of(2024, 12, 31, 12, 0);
+        List<VideoEventProjection> rows = List.of(eventProjection(10L, date), eventProjection(11L, date), eventProjection(12L, date));
+        when(videoViewRepository.findPage(eq(1L), any(), anyLong(), any(), any(Limit.class))).thenReturn(rows);
+
+        VideoEventPageDTO page = videoService.getVideoEvents(VideoEventType.VIEW, 1L, null, null, null, 2);
+
+        assertEquals(rows.subList(0, 2), page.getItems());
+        assertNotNull(page.getNextCursor());
+        verify(videoViewRepository).findPage(1L, LocalDateTime.of(1970, 1, 1, 0, 0), 0L,
+                LocalDateTime.of(9999, 12, 31, 0, 0), Limit.of(3));
+
+        videoService.getVideoEvents(VideoEventType.VIEW, 1L, null, null, page.getNextCursor(), 2);
+
+        verify(videoViewRepository).findPage(1L, date, 11L, LocalDateTime.of(9999, 12, 31, 0, 0), Limit.of(3));
+    }
+
+    @Test
+    void testGetVideoEvents_LastPageHasNoCursor() {
+        LocalDateTime from = LocalDateTime.of(2024, 12, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<VideoEventProjection> rows = List.of(eventProjection(10L, from));
+        when(videoImpressionRepository.findPage(1L, from, 0L, to, Limit.of(101))).thenReturn(rows);
+
+        VideoEventPageDTO page = videoService.getVideoEvents(VideoEventType.IMPRESSION, 1L, from, to, null, 100);
+
+        assertEquals(rows, page.getItems());
+        assertNull(page.getNextCursor());
+        verifyNoInteractions(videoViewRepository);
+    }
+
+    @Test
+    void testGetVideoEvents_InvalidRequest() {
+        assertThrows(BadRequestException.class,
+                () -> videoService.getVideoEvents(VideoEventType.VIEW, 1L, null, null, "not a cursor!", 100));
+        assertThrows(BadRequestException.class,
+                () -> videoService.getVideoEvents(VideoEventType.VIEW, 1L, null, null, "Zm9vLGJhcg", 100));
+        assertThrows(BadRequestException.class,
+                () -> videoService.getVideoEvents(VideoEventType.VIEW, 1L, null, null, null, 1001));
+    }
+
+    @Test
+    void testExportVideoEvents_StreamedAndClosed() {
+        List<VideoEventProjection> rows = List.of(eventProjection(10L, LocalDateTime.of(2024, 12, 31, 12, 0)));
+        AtomicBoolean closed = new AtomicBoolean();
+        when(videoViewRepository.streamByVideoId(eq(1L), any(), any())).thenReturn(rows.stream().onClose(() -> closed.set(true)));
+        List<VideoEventProjection> exported = new ArrayList<>();
+
+        videoService.exportVideoEvents(VideoEventType.VIEW, 1L, null, null, exported::add);
+
+        assertEquals(rows, exported);
+        assertTrue(closed.get());
+    }
+
+    private static VideoEventProjection eventProjection(Long id, LocalDateTime date) {
+        VideoEventProjection projection = mock(VideoEventProjection.class);
+        when(projection.getId()).thenReturn(id);
+        when(projection.getEventDate()).thenReturn(date);
+        return projection;
+    }
 }
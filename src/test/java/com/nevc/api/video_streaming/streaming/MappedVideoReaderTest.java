@@ -0,0 +1,99 @@
+package com.nevc.api.video_streaming.streaming;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedVideoReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private byte[] content;
+    private VideoStream videoStream;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path file = Files.write(tempDir.resolve("video.mp4"), content);
+        videoStream = VideoStream.builder().videoId(1L).file(file).fileLength(content.length).build();
+    }
+
+    @Test
+    void testTransferTo_RangeAcrossWindows() throws IOException {
+        MappedVideoReader reader = new MappedVideoReader(256, 8);
+
+        assertArrayEquals(Arrays.copyOfRange(content, 200, 1000), read(reader, 200, 800));
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 10), read(reader, 0, 10));
+    }
+
+    @Test
+    void testTransferTo_ReusesMappedWindows() throws IOException {
+        MappedVideoReader reader = new MappedVideoReader(256, 8);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        reader.bindTo(registry);
+
+        read(reader, 0, 1000);
+        read(reader, 0, 1000);
+
+        assertEquals(4, registry.get("video.mmap.regions").tag("result", "mapped").functionCounter().count());
+        assertEquals(4, registry.get("video.mmap.regions").tag("result", "reused").functionCounter().count());
+        assertEquals(1000, registry.get("video.mmap.mapped").gauge().value());
+    }
+
+    @Test
+    void testTransferTo_EvictsLeastRecentlyUsedWindow() throws IOException {
+        MappedVideoReader reader = new MappedVideoReader(256, 2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        reader.bindTo(registry);
+
+        read(reader, 0, 1000);
+
+        assertEquals(256 + 232, registry.get("video.mmap.mapped").gauge().value());
+    }
+
+    @Test
+    void testTransferTo_ReplacedFileMappedAgain() throws IOException {
+        MappedVideoReader reader = new MappedVideoReader(256, 8);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        reader.bindTo(registry);
+        read(reader, 0, 1000);
+
+        byte[] replacement = new byte[500];
+        Arrays.fill(replacement, (byte) 7);
+        Path upload = Files.write(tempDir.resolve("upload.tmp"), replacement);
+        Files.setLastModifiedTime(upload, FileTime.fromMillis(Files.getLastModifiedTime(videoStream.getFile()).toMillis() + 1000));
+        Files.move(upload, videoStream.getFile(), StandardCopyOption.REPLACE_EXISTING);
+
+        assertArrayEquals(replacement, read(reader, 0, 500));
+        assertEquals(500, registry.get("video.mmap.mapped").gauge().value());
+    }
+
+    @Test
+    void testTransferTo_FileShorterThanRange() {
+        MappedVideoReader reader = new MappedVideoReader(256, 8);
+
+        assertThrows(IOException.class, () -> read(reader, 900, 200));
+    }
+
+    private byte[] read(MappedVideoReader reader, long position, long count) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reader.transferTo(videoStream, position, count, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+}
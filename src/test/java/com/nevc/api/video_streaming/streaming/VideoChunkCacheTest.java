@@ -0,0 +1,126 @@
+package com.nevc.api.video_streaming.streaming;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VideoChunkCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAcquire_HitAfterLoad() throws IOException {
+        VideoChunkCache cache = new VideoChunkCache(1024, 64, 256);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            VideoChunk chunk = cache.acquire(1L, 0, buffer -> fill(buffer, (byte) 7, loads));
+            assertNotNull(chunk);
+            assertEquals(64, chunk.getLength());
+            assertEquals(7, chunk.slice(10, 1).get());
+            cache.release(chunk);
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testAcquire_FrequentChunksSurviveScan() throws IOException {
+        VideoChunkCache cache = new VideoChunkCache(100 * 64, 64, 64 * 64);
+        AtomicInteger loads = new AtomicInteger();
+        for (int round = 0; round < 10; round++) {
+            for (int index = 0; index < 50; index++) {
+                cache.release(cache.acquire(1L, index, buffer -> fill(buffer, (byte) 1, loads)));
+            }
+        }
+        for (int index = 0; index < 500; index++) {
+            cache.release(cache.acquire(2L, index, buffer -> fill(buffer, (byte) 2, loads)));
+        }
+
+        loads.set(0);
+        for (int index = 0; index < 50; index++) {
+            cache.release(cache.acquire(1L, index, buffer -> fill(buffer, (byte) 1, loads)));
+        }
+
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testAcquire_PinnedChunkKeepsSlot() throws IOException {
+        VideoChunkCache cache = new VideoChunkCache(64, 64, 64);
+        VideoChunk pinned = cache.acquire(1L, 0, buffer -> fill(buffer, (byte) 1, new AtomicInteger()));
+
+        assertNull(cache.acquire(1L, 1, buffer -> fill(buffer, (byte) 2, new AtomicInteger())));
+        assertEquals(1, pinned.slice(0, 1).get());
+
+        cache.release(pinned);
+        VideoChunk next = cache.acquire(1L, 2, buffer -> fill(buffer, (byte) 3, new AtomicInteger()));
+        assertNotNull(next);
+        assertEquals(3, next.slice(0, 1).get());
+    }
+
+    @Test
+    void testAcquire_LoadFailureFreesSlot() throws IOException {
+        VideoChunkCache cache = new VideoChunkCache(64, 64, 64);
+
+        assertThrows(IOException.class, () -> cache.acquire(1L, 0, buffer -> {
+            throw new IOException("disk error");
+        }));
+
+        assertNotNull(cache.acquire(1L, 0, buffer -> fill(buffer, (byte) 1, new AtomicInteger())));
+    }
+
+    @Test
+    void testCachingVideoReader_RangeAcrossChunks() throws IOException {
+        byte[] content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path file = Files.write(tempDir.resolve("video.mp4"), content);
+        VideoStream videoStream = VideoStream.builder().videoId(1L).file(file).fileLength(content.length).build();
+        CachingVideoReader reader = new CachingVideoReader(new VideoChunkCache(4096, 128, 1024), 4096);
+
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            reader.transferTo(videoStream, 100, 900, Channels.newChannel(out));
+            assertArrayEquals(Arrays.copyOfRange(content, 100, 1000), out.toByteArray());
+        }
+    }
+
+    @Test
+    void testCachingVideoReader_SendfileUntilRangeIsPopular() throws IOException {
+        Path file = Files.write(tempDir.resolve("video.mp4"), new byte[1000]);
+        VideoStream videoStream = VideoStream.builder().videoId(1L).file(file).fileLength(1000).build();
+        VideoChunkCache cache = new VideoChunkCache(4096, 128, 1024);
+        CachingVideoReader reader = new CachingVideoReader(cache, 512);
+
+        assertTrue(reader.prefersSendfile(videoStream, new ByteRange(0, 99)));
+        assertTrue(reader.prefersSendfile(videoStream, new ByteRange(0, 99)));
+        assertFalse(reader.prefersSendfile(videoStream, new ByteRange(0, 99)));
+        assertTrue(reader.prefersSendfile(videoStream, new ByteRange(0, 999)));
+        assertTrue(reader.prefersSendfile(videoStream, new ByteRange(500, 599)));
+
+        reader.transferTo(videoStream, 500, 100, Channels.newChannel(new ByteArrayOutputStream()));
+
+        assertFalse(reader.prefersSendfile(videoStream, new ByteRange(500, 599)));
+    }
+
+    private static int fill(java.nio.ByteBuffer buffer, byte value, AtomicInteger loads) {
+        loads.incrementAndGet();
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            buffer.put(value);
+        }
+        return length;
+    }
+}
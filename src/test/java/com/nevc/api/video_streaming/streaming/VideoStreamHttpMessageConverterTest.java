@@ -0,0 +1,142 @@
+package com.nevc.api.video_streaming.streaming;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VideoStreamHttpMessageConverterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private byte[] content;
+    private Path videoFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        videoFile = Files.write(tempDir.resolve("video.mp4"), content);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testWrite_WholeFile() throws IOException {
+        write(converter(true), List.of());
+
+        assertArrayEquals(content, response.getContentAsByteArray());
+        assertEquals(1000, response.getContentLengthLong());
+    }
+
+    @Test
+    void testWrite_Range() throws IOException {
+        write(converter(true), List.of(new ByteRange(100, 199)));
+
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+        assertEquals(100, response.getContentLengthLong());
+    }
+
+    @Test
+    void testWrite_MultipleRanges() throws IOException {
+        request.setAttribute(VideoStreamHttpMessageConverter.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+
+        write(converter(true), List.of(new ByteRange(0, 3), new ByteRange(500, 501)));
+
+        String expected = "\r\n--frontier\r\nContent-Type: video/mp4\r\nContent-Range: bytes 0-3/1000\r\n\r\n"
+                + new String(Arrays.copyOfRange(content, 0, 4), StandardCharsets.ISO_8859_1)
+                + "\r\n--frontier\r\nContent-Type: video/mp4\r\nContent-Range: bytes 500-501/1000\r\n\r\n"
+                + new String(Arrays.copyOfRange(content, 500, 502), StandardCharsets.ISO_8859_1)
+                + "\r\n--frontier--\r\n";
+        assertEquals(expected, new String(response.getContentAsByteArray(), StandardCharsets.ISO_8859_1));
+        assertEquals(expected.length(), response.getContentLengthLong());
+        assertNull(request.getAttribute(VideoStreamHttpMessageConverter.SENDFILE_FILENAME_ATTR));
+    }
+
+    @Test
+    void testWrite_Sendfile() throws IOException {
+        request.setAttribute(VideoStreamHttpMessageConverter.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+
+        write(converter(true), List.of(new ByteRange(100, 199)));
+
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(100, response.getContentLengthLong());
+        assertEquals(videoFile.toAbsolutePath().toString(),
+                request.getAttribute(VideoStreamHttpMessageConverter.SENDFILE_FILENAME_ATTR));
+        assertEquals(100L, request.getAttribute(VideoStreamHttpMessageConverter.SENDFILE_START_ATTR));
+        assertEquals(200L, request.getAttribute(VideoStreamHttpMessageConverter.SENDFILE_END_ATTR));
+    }
+
+    @Test
+    void testWrite_SendfileDisabled() throws IOException {
+        request.setAttribute(VideoStreamHttpMessageConverter.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+
+        write(converter(false), List.of());
+
+        assertArrayEquals(content, response.getContentAsByteArray());
+        assertNull(request.getAttribute(VideoStreamHttpMessageConverter.SENDFILE_FILENAME_ATTR));
+    }
+
+    @Test
+    void testWrite_CachedRangeServedFromMemory() throws IOException {
+        request.setAttribute(VideoStreamHttpMessageConverter.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+        VideoChunkCache cache = new VideoChunkCache(4096, 128, 1024);
+        VideoStreamHttpMessageConverter converter = new VideoStreamHttpMessageConverter(
+                new CachingVideoReader(cache, 512), true, DataSize.ofBytes(0));
+        assertNotNull(cache.acquire(1L, 0, buffer -> {
+            buffer.put(content, 0, 128);
+            return 128;
+        }));
+
+        write(converter, List.of(new ByteRange(600, 699)));
+        assertEquals(videoFile.toAbsolutePath().toString(),
+                request.getAttribute(VideoStreamHttpMessageConverter.SENDFILE_FILENAME_ATTR));
+        request.removeAttribute(VideoStreamHttpMessageConverter.SENDFILE_FILENAME_ATTR);
+
+        write(converter, List.of(new ByteRange(10, 109)));
+
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 110), response.getContentAsByteArray());
+        assertNull(request.getAttribute(VideoStreamHttpMessageConverter.SENDFILE_FILENAME_ATTR));
+    }
+
+    private VideoStreamHttpMessageConverter converter(boolean sendfileEnabled) {
+        return new VideoStreamHttpMessageConverter(new FileChannelVideoReader(), sendfileEnabled, DataSize.ofBytes(0));
+    }
+
+    private void write(VideoStreamHttpMessageConverter converter, List<ByteRange> ranges) throws IOException {
+        VideoStream videoStream = VideoStream.builder()
+                .videoId(1L)
+                .file(videoFile)
+                .fileLength(content.length)
+                .ranges(ranges)
+                .contentType(MediaType.parseMediaType("video/mp4"))
+                .boundary("frontier")
+                .build();
+        converter.write(videoStream, MediaType.parseMediaType("video/mp4"), new ServletServerHttpResponse(response));
+    }
+}